@@ -2,20 +2,44 @@ public class LogInController {
     Yadetan Tamiru, [12/31/2025 11:54 AM]
             package dillauniversity.controller;
 
+import javafx.application.Platform;
 import javafx.fxml.FXML;
-import javafx.fxml.FXMLLoader;
-import javafx.scene.Parent;
-import javafx.scene.Scene;
 import javafx.scene.control.*;
+import javafx.scene.input.KeyCode;
 import javafx.stage.Stage;
+import javafx.util.Duration;
+import java.io.FileNotFoundException;
 import java.io.IOException;
-import java.net.URL;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
 import java.nio.charset.StandardCharsets;
+import java.sql.SQLTransientConnectionException;
+import java.util.Optional;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeoutException;
+import java.util.function.Consumer;
 import javafx.scene.layout.VBox;
 import javafx.collections.FXCollections;
+import dillauniversity.database.DatabaseHealthMonitor;
+import dillauniversity.logging.Log;
+import dillauniversity.logging.Logger;
+import dillauniversity.metrics.StartupReport;
+import dillauniversity.model.UserSession;
+import dillauniversity.navigation.Router;
+import dillauniversity.roles.RoleDefinition;
+import dillauniversity.roles.RoleRegistry;
+import dillauniversity.service.LoginService;
+import dillauniversity.service.LoginThrottledException;
+import dillauniversity.service.RememberMeStore;
+import dillauniversity.ui.UiScheduler;
 
     public class LoginController {
 
+        private static final Logger LOG = Log.get(LoginController.class);
+
         @FXML private Button loginButton;
         @FXML private Hyperlink registerLink;
         @FXML private Hyperlink forgotPasswordLink;
@@ -26,37 +50,74 @@ import javafx.collections.FXCollections;
         @FXML private VBox errorBox;
         @FXML private Label errorLabel;
         @FXML private Label dbStatusLabel;
+        @FXML private ProgressIndicator loginProgress;
+
+        private final LoginService loginService = LoginService.shared();
+        private final Router router = Router.shared();
+        private final RememberMeStore rememberMeStore = RememberMeStore.shared();
+        private final UiScheduler uiScheduler = UiScheduler.shared();
+        private final DatabaseHealthMonitor healthMonitor = DatabaseHealthMonitor.shared();
+        private final RoleRegistry roleRegistry = RoleRegistry.shared();
+        private final Consumer<DatabaseHealthMonitor.Status> dbStatusListener =
+                status -> Platform.runLater(() -> showDatabaseStatus(status));
+        private final Consumer<RoleRegistry.Snapshot> rolesListener =
+                roles -> Platform.runLater(() -> showRoles(roles));
+        private CompletableFuture<UserSession> loginInProgress;
+
+        // Session handed to the last dashboard; being back at the form means it is over
+        private static volatile UserSession handedOff;
 
         @FXML
         public void initialize() {
-            System.out.println("LoginController initialized");
+            LOG.debug("login.form.initialized");
+
+            UserSession previous = handedOff;
+            if (previous != null) {
+                handedOff = null;
+                DashboardController.signOut(previous);
+            }
 
-            // Populate role combo box WITH DEAN ROLE
+            // Roles come from the registry; a refresh while the form is open updates the list
             if (roleComboBox != null) {
-                roleComboBox.setItems(FXCollections.observableArrayList(
-                        "Student",
-                        "Teacher",
-                        "Dean",        // Added Dean role
-                        "Admin"
-                ));
-                roleComboBox.setValue("Student"); // Set default value
+                showRoles(roleRegistry.snapshot());
+                roleRegistry.addListener(rolesListener);
+
+                // Parse the chosen role's dashboard in the background once the user is
+                // signing in (debounced so scrolling through the list does not parse every
+                // dashboard). Nothing is loaded for the role that merely happens to be
+                // selected when the form opens.
+                roleComboBox.valueProperty().addListener((obs, oldRole, newRole) -> {
+                    if (roleComboBox.isFocused() || !passwordField.getText().isEmpty()) {
+                        uiScheduler.debounce(roleComboBox, "preload", Duration.millis(300),
+                                () -> preloadDashboard(newRole));
+                    }
+                });
+                passwordField.textProperty().addListener((obs, oldText, newText) -> {
+                    if (oldText.isEmpty() && !newText.isEmpty()) {
+                        preloadDashboard(roleComboBox.getValue());
+                    }
+                });
+                if (Boolean.getBoolean("dillauniversity.modules.eager")) {
+                    // Previous behaviour, kept for comparing startup reports
+                    preloadDashboard(roleComboBox.getValue());
+                }
             } else {
-                System.err.println("roleComboBox is null!");
+                LOG.warn("fxml.missing", "fxId", "roleComboBox");
             }
 
             // Add event handlers
             if (loginButton != null) {
                 loginButton.setOnAction(e -> handleLogin());
             } else {
-                System.err.println("loginButton is null!");
+                LOG.warn("fxml.missing", "fxId", "loginButton");
             }
 
             // Handle register link click
             if (registerLink != null) {
                 registerLink.setOnAction(e -> navigateToRegistration());
-                System.out.println("Register link found and handler set");
+                registerLink.setOnMouseEntered(e -> router.preload(Router.REGISTRATION));
             } else {
-                System.err.println("registerLink is null! Check FXML for fx:id='registerLink'");
+                LOG.warn("fxml.missing", "fxId", "registerLink");
             }
 
             // Handle forgot password link
@@ -72,319 +133,208 @@ import javafx.collections.FXCollections;
 
             // Set Enter key to trigger login
             passwordField.setOnAction(e -> handleLogin());
+
+            // Escape cancels a login that is still running
+            passwordField.setOnKeyPressed(e -> {
+                if (e.getCode() == KeyCode.ESCAPE) {
+                    cancelLogin();
+                }
+            });
+
+            if (loginProgress != null) {
+                loginProgress.setVisible(false);
+                loginProgress.setManaged(false);
+            }
+
+            // Runs once the form is attached and about to be drawn
+            Platform.runLater(() -> StartupReport.mark("login_form", loadedModules()));
         }
 
         private void handleLogin() {
-            System.out.println("Login button clicked");
+            if (loginInProgress != null && !loginInProgress.isDone()) {
+                // Enter key / double click while the previous attempt is still running
+                LOG.debug("login.duplicate_submit");
+                return;
+            }
+
             String username = usernameField.getText().trim();
             String password = passwordField.getText();
             String role = roleComboBox.getValue();
 
-            System.out.println("Attempting login for user: " + username + ", role: " + role);
-
-            if (username.isEmpty()  password.isEmpty()  role == null) {
+            if (username.isEmpty() || password.isEmpty() || role == null) {
                 showError("Please fill all fields!");
                 return;
             }
 
-            try {
-                // Authenticate user with database
-                boolean authenticated = authenticateUser(username, password, role);
-                System.out.println("Authentication result: " + authenticated);
-
-                if (authenticated) {
-                    // Save credentials if "Remember me" is checked
-                    if (rememberCheckBox.isSelected()) {
-                        saveCredentials(username, password);
-                    } else {
-                        clearSavedCredentials();
-                    }
+            setLoginBusy(true);
+            long started = System.nanoTime();
 
-                    // Navigate to appropriate dashboard based on role
-                    System.out.println("Navigating to dashboard for role: " + role);
-                    switch (role) {
-                        case "Student":
-                            navigateToStudentDashboard(username);
-                            break;
-                        case "Teacher":
-                            navigateToTeacherDashboard(username);
-                            break;
-                        case "Dean":  // NEW: Handle Dean login
-                            navigateToDeanDashboard(username);
-                            break;
-                        case "Admin":
-
-                            Yadetan Tamiru, [12/31/2025 11:54 AM]
-                            navigateToAdminDashboard(username);
-                            break;
-                        default:
-                            showError("Invalid role selected!");
-                    }
-                } else {
-                    showError("Invalid username or password!");
+            // Authenticate user with database on a background worker
+            CompletableFuture<UserSession> attempt = loginService.login(username, password, role);
+            loginInProgress = attempt;
+            attempt.whenComplete((session, error) -> Platform.runLater(() -> {
+                if (loginInProgress == attempt) {
+                    loginInProgress = null;
                 }
-            } catch (Exception e) {
-                System.err.println("Exception during login process:");
-                e.printStackTrace();
-                showError("Login Error: " + e.getMessage());
-            }
+                setLoginBusy(false);
+                LOG.info("login.result", "role", role, "ok", session != null,
+                        "durationMs", (System.nanoTime() - started) / 1_000_000);
+                onLoginFinished(username, role, session, error);
+            }));
         }
 
-        private boolean authenticateUser(String username, String password, String role) {
-            try {
-                // Connect to database and authenticate
-                dillauniversity.dao.UserDAO userDAO = new dillauniversity.dao.UserDAO();
-                return userDAO.authenticateUser(username, password, role);
-            } catch (Exception e) {
-                System.err.println("Authentication error: " + e.getMessage());
-                return false;
+        private void onLoginFinished(String username, String role, UserSession session, Throwable error) {
+            if (error != null) {
+                Throwable cause = error instanceof CompletionException && error.getCause() != null
+                        ? error.getCause() : error;
+                if (cause instanceof CancellationException) {
+                    LOG.info("login.cancelled", "user", Log.user(username), "role", role);
+                } else if (cause instanceof TimeoutException) {
+                    showError("Login timed out. Please try again.");
+                } else if (cause instanceof LoginThrottledException) {
+                    showError(cause.getMessage() + ". Try again in "
+                            + ((LoginThrottledException) cause).getRetryAfterSeconds() + " seconds.");
+                } else if (cause instanceof SQLTransientConnectionException) {
+                    showError("Database is unavailable. Please try again later.");
+                } else if (cause instanceof RejectedExecutionException) {
+                    showError("Server is busy. Please try again in a moment.");
+                } else {
+                    LOG.error("login.error", cause, "user", Log.user(username), "role", role);
+                    showError("Login Error: " + cause.getMessage());
+                }
+                return;
             }
-        }
-
-        private void navigateToStudentDashboard(String username) {
-            try {
-                System.out.println("Navigating to Student Dashboard...");
-
-                // Get FXML URL
-                URL resourceUrl = getClass().getResource("/dillauniversity/resources/StudentDashboard.fxml");
 
-                if (resourceUrl == null) {
-                    System.err.println("ERROR: StudentDashboard.fxml not found!");
-                    showAlert("Error", "Student dashboard file not found!");
-                    return;
-                }
 
-                System.out.println("Loading FXML from: " + resourceUrl);
-
-                // Load FXML
-                FXMLLoader loader = new FXMLLoader(resourceUrl);
-                Parent dashboardRoot = loader.load();
-                System.out.println("FXML loaded successfully");
-
-                // Get controller and set username
-                Object controller = loader.getController();
-                if (controller != null) {
-                    System.out.println("Controller found: " + controller.getClass().getName());
-                    try {
-                        java.lang.reflect.Method method = controller.getClass().getMethod("setUsername", String.class);
-                        method.invoke(controller, username);
-                        System.out.println("Username set in controller");
-                    } catch (Exception e) {
-                        System.out.println("setUsername method not found in student controller: " + e.getMessage());
-                    }
+            if (session != null) {
+                // Save credentials if "Remember me" is checked
+                if (rememberCheckBox.isSelected()) {
+                    saveCredentials(session);
                 } else {
-                    System.err.println("Controller is null!");
-                }
-
-                // Get current stage from login button
-                Stage currentStage = (Stage) loginButton.getScene().getWindow();
-                if (currentStage == null) {
-                    System.err.println("Current stage is null!");
-                    return;
+                    clearSavedCredentials();
                 }
 
-                // Set new scene
-                Scene dashboardScene = new Scene(dashboardRoot);
-
-                // Attach application stylesheet (CSS won't work unless it is added to the Scene)
-                URL cssUrl = getClass().getResource("/dillauniversity/resources/styles.css");
-                if (cssUrl != null) {
-                    dashboardScene.getStylesheets().add(cssUrl.toExternalForm());
-                    System.out.println("Applied stylesheet: " + cssUrl);
+                // Navigate to appropriate dashboard based on role
+                String route = dashboardRoute(role);
+                if (route != null) {
+                    navigateToDashboard(route, session);
                 } else {
-                    System.err.println("styles.css not found at /dillauniversity/resources/styles.css");
+                    showError("Invalid role selected!");
                 }
-
-                Yadetan Tamiru, [12/31/2025 11:54 AM]
-                currentStage.setScene(dashboardScene);
-                currentStage.setTitle("Dilla University - Student Dashboard");
-                currentStage.setMaximized(true);
-                currentStage.show();
-
-                System.out.println("Student dashboard scene set and shown!");
-
-            } catch (Exception e) {
-                System.err.println("ERROR loading student dashboard:");
-                e.printStackTrace();
-                showAlert("Error", "Failed to load student dashboard: " + e.getMessage());
+            } else {
+                showError("Invalid username or password!");
             }
         }
 
-        private void navigateToTeacherDashboard(String username) {
-            try {
-                System.out.println("Navigating to Teacher Dashboard...");
-
-                URL fxmlUrl = getClass().getResource("/dillauniversity/resources/teacher_dashboard.fxml");
-                if (fxmlUrl == null) {
-                    System.err.println("❌ Teacher dashboard not found: /dillauniversity/resources/teacher_dashboard.fxml");
-                    showError("Teacher dashboard not found!");
-                    return;
-                }
-
-                FXMLLoader loader = new FXMLLoader(fxmlUrl);
-                Parent dashboardRoot = loader.load();
-
-                // Get controller and pass username
-                Object controller = loader.getController();
-                if (controller != null) {
-                    try {
-                        java.lang.reflect.Method method = controller.getClass().getMethod("setUsername", String.class);
-                        method.invoke(controller, username);
-                        System.out.println("✓ Username set in teacher controller");
-                    } catch (Exception e) {
-                        System.out.println("setUsername method not found in teacher controller");
-                    }
-                }
-
-                Stage currentStage = (Stage) loginButton.getScene().getWindow();
-                Scene dashboardScene = new Scene(dashboardRoot);
-
-                URL baseCssUrl = getClass().getResource("/dillauniversity/resources/styles.css");
-                if (baseCssUrl != null) {
-                    dashboardScene.getStylesheets().add(baseCssUrl.toExternalForm());
-                    System.out.println("Applied teacher stylesheet: " + baseCssUrl);
-                }
-
-                currentStage.setScene(dashboardScene);
-                currentStage.setTitle("Dilla University - Teacher Dashboard");
-                currentStage.setMaximized(true);
-                currentStage.show();
-
-                System.out.println("Successfully loaded teacher dashboard!");
-            } catch (Exception e) {
-                e.printStackTrace();
-                showError("Unable to load teacher dashboard: " + e.getMessage());
+        // Cancel a running login (bound to Escape on the login form)
+        public void cancelLogin() {
+            CompletableFuture<UserSession> attempt = loginInProgress;
+            if (attempt != null) {
+                attempt.cancel(true);
             }
         }
 
-        private void navigateToDeanDashboard(String username) {
-            try {
-                System.out.println("Navigating to Dean Dashboard...");
+        private void setLoginBusy(boolean busy) {
+            loginButton.setDisable(busy);
+            loginButton.setText(busy ? "Signing in..." : "Login");
+            if (loginProgress != null) {
+                loginProgress.setVisible(busy);
+                loginProgress.setManaged(busy);
+            }
+        }
 
-                URL fxmlUrl = getClass().getResource("/dillauniversity/resources/dean_dashboard.fxml");
-                if (fxmlUrl == null) {
-                    System.err.println("❌ Dean dashboard not found: /dillauniversity/resources/dean_dashboard.fxml");
-                    showError("Dean dashboard not found. Please contact administrator.");
-                    return;
-                }
+        // Null for a role the registry does not know or whose dashboard is not a route
+        private String dashboardRoute(String role) {
+            String route = roleRegistry.dashboardRoute(role);
+            if (route != null && router.getRoute(route) == null) {
+                LOG.warn("roles.unknown_route", "role", role, "route", route);
+                return null;
+            }
+            return route;
+        }
 
-                FXMLLoader loader = new FXMLLoader(fxmlUrl);
-                Parent dashboardRoot = loader.load();
-
-                Object controller = loader.getController();
-                if (controller != null) {
-                    try {
-                        java.lang.reflect.Method method = controller.getClass().getMethod("setUsername", String.class);
-                        method.invoke(controller, username);
-                        System.out.println("✓ Username set in dean controller");
-                    } catch (Exception e) {
-                        System.out.println("Note: setUsername method not found in dean controller");
-                    }
-                }
+        private void showRoles(RoleRegistry.Snapshot roles) {
+            String selected = roleComboBox.getValue();
+            roleComboBox.setItems(FXCollections.observableArrayList(roles.names()));
+            RoleDefinition keep = roles.get(selected);
+            if (keep != null) {
+                roleComboBox.setValue(keep.name());
+            } else if (!roles.roles().isEmpty()) {
+                roleComboBox.setValue(roles.roles().get(0).name());
+            }
+        }
 
-                Stage currentStage = (Stage) loginButton.getScene().getWindow();
-                Scene dashboardScene = new Scene(dashboardRoot);
+        private void preloadDashboard(String role) {
+            String route = role == null ? null : dashboardRoute(role);
+            if (route != null) {
+                router.preload(route);
+            }
+        }
 
-                Yadetan Tamiru, [12/31/2025 11:54 AM]
-                URL baseCssUrl = getClass().getResource("/dillauniversity/resources/styles.css");
-                if (baseCssUrl != null) {
-                    dashboardScene.getStylesheets().add(baseCssUrl.toExternalForm());
-                    System.out.println("Applied dean stylesheet: " + baseCssUrl);
-                }
+        private String loadedModules() {
+            return String.join("|", router.getModules().getLoadedModules());
+        }
 
-                currentStage.setScene(dashboardScene);
-                currentStage.setTitle("Dilla University - Dean Dashboard");
-                currentStage.setMaximized(true);
-                currentStage.show();
+        // Throws when the dashboard cannot receive the user, so it is never shown without one
+        private void handOffSession(Object controller, UserSession session, String dashboardName) {
+            if (controller == null) {
+                throw new IllegalStateException("Dashboard " + dashboardName + " has no controller");
+            }
+            handedOff = session;
+            if (controller instanceof DashboardController) {
+                ((DashboardController) controller).setSession(session);
+                LOG.debug("session.handoff", "dashboard", dashboardName);
+                return;
+            }
 
-                System.out.println("✓ Dean dashboard loaded successfully!");
-            } catch (Exception e) {
-                System.err.println("❌ ERROR loading dean dashboard:");
-                e.printStackTrace();
-                showError("Unable to load dean dashboard: " + e.getMessage());
+            // Transition: controllers not yet migrated to DashboardController still get the
+            // username through their public setUsername(String)
+            Method setUsername;
+            try {
+                setUsername = controller.getClass().getMethod("setUsername", String.class);
+            } catch (NoSuchMethodException e) {
+                throw new IllegalStateException(controller.getClass().getName()
+                        + " implements neither DashboardController nor setUsername(String)", e);
             }
+            try {
+                setUsername.invoke(controller, session.username());
+            } catch (IllegalAccessException e) {
+                throw new IllegalStateException("Cannot call setUsername on " + controller.getClass().getName(), e);
+            } catch (InvocationTargetException e) {
+                throw new IllegalStateException("setUsername failed in " + controller.getClass().getName(),
+                        e.getCause());
+            }
+            LOG.warn("session.handoff.reflective", "dashboard", dashboardName,
+                    "controller", controller.getClass().getName());
         }
 
-        private void navigateToAdminDashboard(String username) {
+        private void navigateToDashboard(String route, UserSession session) {
             try {
-                System.out.println("Navigating to Admin Dashboard...");
-                URL fxmlUrl = getClass().getResource("/dillauniversity/resources/admin_dashboard.fxml");
-                if (fxmlUrl == null) {
-                    System.err.println("❌ Admin dashboard not found: /dillauniversity/resources/admin_dashboard.fxml");
-                    showError("Admin dashboard not found!");
-                    return;
-                }
-
-                FXMLLoader loader = new FXMLLoader(fxmlUrl);
-                Parent dashboardRoot = loader.load();
-
-                Object controller = loader.getController();
-                if (controller != null) {
-                    try {
-                        java.lang.reflect.Method method = controller.getClass().getMethod("setUsername", String.class);
-                        method.invoke(controller, username);
-                        System.out.println("✓ Username set in admin controller");
-                    } catch (Exception e) {
-                        System.out.println("setUsername method not found in admin controller");
-                    }
-                }
-
                 Stage currentStage = (Stage) loginButton.getScene().getWindow();
-                Scene dashboardScene = new Scene(dashboardRoot);
-
-                URL baseCssUrl = getClass().getResource("/dillauniversity/resources/styles.css");
-                if (baseCssUrl != null) {
-                    dashboardScene.getStylesheets().add(baseCssUrl.toExternalForm());
-                    System.out.println("Applied admin stylesheet: " + baseCssUrl);
-                }
-
-                currentStage.setScene(dashboardScene);
-                currentStage.setTitle("Dilla University - Admin Dashboard");
-                currentStage.setMaximized(true);
-                currentStage.show();
-
-                System.out.println("Successfully loaded admin dashboard!");
+                router.navigate(currentStage, route, controller -> handOffSession(controller, session, route));
+                healthMonitor.removeListener(dbStatusListener);
+                roleRegistry.removeListener(rolesListener);
+                Platform.runLater(() -> StartupReport.mark("dashboard", loadedModules()));
+            } catch (FileNotFoundException e) {
+                LOG.error("navigation.not_found", e, "route", route);
+                showError("Dashboard not found. Please contact administrator.");
             } catch (Exception e) {
-                e.printStackTrace();
-                showError("Unable to load admin dashboard: " + e.getMessage());
+                LOG.error("navigation.failed", e, "route", route);
+                showError("Unable to load dashboard: " + e.getMessage());
             }
         }
 
         private void navigateToRegistration() {
             try {
-                System.out.println("Navigating to registration...");
-                URL fxmlUrl = getClass().getResource("/dillauniversity/resources/RegistrationForm.fxml");
-                if (fxmlUrl == null) {
-                    System.err.println("❌ Registration form not found: /dillauniversity/resources/RegistrationForm.fxml");
-                    showError("Registration form not found!");
-                    return;
-                }
-
-                FXMLLoader loader = new FXMLLoader(fxmlUrl);
-                Parent registrationRoot = loader.load();
-
                 Stage currentStage = (Stage) loginButton.getScene().getWindow();
-                Scene registrationScene = new Scene(registrationRoot);
-
-                URL baseCssUrl = getClass().getResource("/dillauniversity/resources/styles.css");
-                if (baseCssUrl != null) {
-                    registrationScene.getStylesheets().add(baseCssUrl.toExternalForm());
-                    System.out.println("Applied base stylesheet: " + baseCssUrl);
-                }
-
-                Yadetan Tamiru, [12/31/2025 11:54 AM]
-                URL registrationCssUrl = getClass().getResource("/dillauniversity/resources/registration-styles.css");
-                if (registrationCssUrl != null) {
-                    registrationScene.getStylesheets().add(registrationCssUrl.toExternalForm());
-                    System.out.println("Applied registration stylesheet: " + registrationCssUrl);
-                }
-
-                currentStage.setScene(registrationScene);
-                currentStage.setTitle("Dilla University - Registration");
-                currentStage.centerOnScreen();
-                System.out.println("Successfully loaded registration form!");
+                router.navigate(currentStage, Router.REGISTRATION, null);
+                healthMonitor.removeListener(dbStatusListener);
+                roleRegistry.removeListener(rolesListener);
+            } catch (FileNotFoundException e) {
+                LOG.error("navigation.not_found", e, "route", Router.REGISTRATION);
+                showError("Registration form not found!");
             } catch (Exception e) {
-                e.printStackTrace();
+                LOG.error("navigation.failed", e, "route", Router.REGISTRATION);
                 showError("Unable to load registration form: " + e.getMessage());
             }
         }
@@ -399,47 +349,103 @@ import javafx.collections.FXCollections;
         }
 
         private void checkDatabaseConnection() {
-            try {
-                // Check database connection
-                boolean connected = dillauniversity.database.DatabaseConnection.testConnection();
-                if (connected) {
+            // Show the last known status right away; the monitor checks in the background
+            showDatabaseStatus(healthMonitor.getStatus());
+            healthMonitor.addListener(dbStatusListener);
+            healthMonitor.start();
+        }
+
+        private void showDatabaseStatus(DatabaseHealthMonitor.Status status) {
+            if (dbStatusLabel == null) {
+                return;
+            }
+            switch (status.state()) {
+                case UP:
                     dbStatusLabel.setText("✓ Database Connected");
                     dbStatusLabel.setStyle("-fx-text-fill: #2e7d32; -fx-font-weight: bold;");
-                } else {
+                    break;
+                case DOWN:
                     dbStatusLabel.setText("✗ Database Connection Failed");
                     dbStatusLabel.setStyle("-fx-text-fill: #c62828; -fx-font-weight: bold;");
-                }
-            } catch (Exception e) {
-                dbStatusLabel.setText("✗ Database Error");
-                dbStatusLabel.setStyle("-fx-text-fill: #c62828; -fx-font-weight: bold;");
-                System.err.println("Database connection error: " + e.getMessage());
+                    break;
+                default:
+                    dbStatusLabel.setText("… Checking database connection");
+                    dbStatusLabel.setStyle("-fx-text-fill: #757575;");
             }
         }
 
         private void loadSavedCredentials() {
-            // TODO: Load saved credentials from file or preferences
-            // For now, just clear fields
             usernameField.clear();
             passwordField.clear();
-            rememberCheckBox.setSelected(false);
+
+            // A valid resume token skips the login form; the server rebuilds the session
+            // from the user's current role, so nothing stored locally is trusted
+            Optional<String> token = rememberMeStore.load();
+            if (token.isEmpty()) {
+                rememberCheckBox.setSelected(false);
+                return;
+            }
+            rememberCheckBox.setSelected(true);
+            loginService.resume(token.get()).whenComplete((session, error) -> Platform.runLater(() -> {
+                if (error != null) {
+                    // Keep the token: the database or auth server may just be unreachable
+                    LOG.info("login.resume_failed", "error", String.valueOf(error.getMessage()));
+                    return;
+                }
+                String route = session == null ? null : dashboardRoute(session.role());
+                if (route == null) {
+                    rememberMeStore.clear();
+                    rememberCheckBox.setSelected(false);
+                    return;
+                }
+                if (loginButton.getScene() == null || loginButton.getScene().getWindow() == null
+                        || !usernameField.getText().isEmpty()) {
+                    // The form was left, or the user started typing another login meanwhile
+                    return;
+                }
+                LOG.info("login.resume", "user", Log.user(session.username()), "role", session.role());
+                usernameField.setText(session.username());
+                roleComboBox.setValue(session.role());
+                navigateToDashboard(route, session);
+            }));
         }
 
-        private void saveCredentials(String username, String password) {
-            // TODO: Save credentials to file or preferences (use encryption)
-            System.out.println("Credentials saved for: " + username);
+        private void saveCredentials(UserSession session) {
+            Optional<String> previous = rememberMeStore.load();
+            loginService.remember(session).whenComplete((token, error) -> {
+                if (error != null) {
+                    LOG.warn("remember_me.save_failed", error, "user", Log.user(session.username()));
+                    return;
+                }
+                if (token == null) {
+                    // The server session ended before it could be remembered; keep the previous token
+                    LOG.debug("remember_me.nothing_to_save", "user", Log.user(session.username()));
+                    return;
+                }
+                try {
+                    rememberMeStore.save(token);
+                    LOG.debug("remember_me.saved", "user", Log.user(session.username()));
+                } catch (IOException e) {
+                    LOG.warn("remember_me.save_failed", e, "user", Log.user(session.username()));
+                    forgetToken(token);
+                    return;
+                }
+                previous.ifPresent(this::forgetToken);
+            });
         }
 
         private void clearSavedCredentials() {
-            // TODO: Clear saved credentials from storage
-            System.out.println("Credentials cleared");
+            Optional<String> token = rememberMeStore.load();
+            rememberMeStore.clear();
+            token.ifPresent(this::forgetToken);
         }
 
-        private void showAlert(String title, String message) {
-            Alert alert = new Alert(Alert.AlertType.ERROR);
-            alert.setTitle(title);
-            alert.setHeaderText(null);
-            alert.setContentText(message);
-            alert.showAndWait();
+        // Best effort: an unrevoked token still expires on its own
+        private void forgetToken(String token) {
+            loginService.forget(token).exceptionally(error -> {
+                LOG.warn("remember_me.revoke_failed", "error", String.valueOf(error.getMessage()));
+                return null;
+            });
         }
 
         private void showError(String message) {
@@ -448,20 +454,10 @@ import javafx.collections.FXCollections;
                 errorBox.setVisible(true);
                 errorBox.setManaged(true);
 
-                // Auto-hide error after 5 seconds
-                new Thread(() -> {
-                    try {
-                        Thread.sleep(5000);
-                        javafx.application.Platform.runLater(() -> {
-                            errorBox.setVisible(false);
-                            errorBox.setManaged(false);
-                        });
-                    } catch (InterruptedException e) {
-                        e.printStackTrace();
-                    }
-                }).start();
+                // Auto-hide error after 5 seconds (a newer error restarts the countdown)
+                uiScheduler.autoHide(errorBox, Duration.seconds(5));
             } else {
-                System.err.println("Error display components not found: " + message);
+                LOG.warn("fxml.missing", "fxId", "errorBox");
                 // Show alert as fallback
                 Alert alert = new Alert(Alert.AlertType.ERROR);
                 alert.setTitle("Login Error");
@@ -477,9 +473,10 @@ import javafx.collections.FXCollections;
 
             Yadetan Tamiru, [12/31/2025 11:54 AM]
             passwordField.clear();
-            roleComboBox.setValue("Student");
+            roleComboBox.setValue(roleRegistry.names().get(0));
             rememberCheckBox.setSelected(false);
             if (errorBox != null) {
+                uiScheduler.cancel(errorBox, "autoHide");
                 errorBox.setVisible(false);
                 errorBox.setManaged(false);
             }
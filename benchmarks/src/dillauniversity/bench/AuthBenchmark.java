@@ -0,0 +1,69 @@
+package dillauniversity.bench;
+
+import dillauniversity.dao.UserAuthDAO;
+import dillauniversity.model.UserSession;
+import dillauniversity.roles.RoleRegistry;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Database authentication as run by every login, against an embedded H2 database
+ * through the shared connection pool.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode({Mode.AverageTime, Mode.SampleTime})
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class AuthBenchmark {
+
+    @Param({"1000"})
+    public int users;
+
+    private EmbeddedDatabase database;
+    private UserAuthDAO dao;
+
+    @Setup(Level.Trial)
+    public void setUp() throws Exception {
+        database = new EmbeddedDatabase("auth_bench", users, 8);
+        // The embedded database has no role tables, so this keeps the built-in roles
+        dao = new UserAuthDAO(database.pool(), database.verifier(), new RoleRegistry(database.pool()));
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        database.close();
+    }
+
+    @Benchmark
+    public UserSession validCredentials() throws Exception {
+        int i = ThreadLocalRandom.current().nextInt(users);
+        return dao.authenticate(EmbeddedDatabase.username(i), EmbeddedDatabase.password(i), EmbeddedDatabase.role(i));
+    }
+
+    @Benchmark
+    public UserSession wrongPassword() throws Exception {
+        int i = ThreadLocalRandom.current().nextInt(users);
+        return dao.authenticate(EmbeddedDatabase.username(i), "wrong", EmbeddedDatabase.role(i));
+    }
+
+    @Benchmark
+    public UserSession unknownUser() throws Exception {
+        return dao.authenticate("nobody", "wrong", "Student");
+    }
+}
@@ -0,0 +1,114 @@
+package dillauniversity.bench;
+
+import dillauniversity.database.ConnectionPool;
+import dillauniversity.security.HashCostCalibrator;
+import dillauniversity.security.PasswordHasher;
+import dillauniversity.security.PasswordVerifier;
+
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.stream.IntStream;
+
+/**
+ * In-memory H2 database with the {@code users} table the login path reads, seeded
+ * with {@code user0..userN-1} (password {@code secret<i>}) spread over the four roles.
+ *
+ * Passwords are stored as PBKDF2 hashes at {@link #ITERATIONS}, and {@link #verifier()}
+ * hashes at that same cost, so a successful login never queues a rehash: every
+ * attempt does exactly one hash, whether the password is right, wrong or the user
+ * is unknown. Seeding hashes every user once, on all cores.
+ */
+public final class EmbeddedDatabase implements AutoCloseable {
+
+    public static final String[] ROLES = {"Student", "Teacher", "Dean", "Admin"};
+
+    /**
+     * PBKDF2 cost of the seeded hashes; the production minimum unless
+     * {@code dillauniversity.bench.iterations} is set.
+     */
+    public static final int ITERATIONS =
+            Integer.getInteger("dillauniversity.bench.iterations", PasswordHasher.MIN_ITERATIONS);
+
+    private final ConnectionPool pool;
+    private final PasswordVerifier verifier;
+    private final int userCount;
+
+    public EmbeddedDatabase(String name, int userCount, int poolSize) throws SQLException {
+        this.userCount = userCount;
+        this.verifier = new PasswordVerifier(HashCostCalibrator.fixed(ITERATIONS));
+        // Unknown usernames hash at the current cost too
+        PasswordHasher hasher = verifier.getHasher();
+        String[] hashes = IntStream.range(0, userCount).parallel()
+                .mapToObj(i -> hasher.hash(password(i)))
+                .toArray(String[]::new);
+        this.pool = new ConnectionPool("jdbc:h2:mem:" + name + ";DB_CLOSE_DELAY=-1", "sa", "",
+                1, poolSize, 60_000L, 10_000L, 32);
+        try (Connection connection = pool.getConnection(); Statement statement = connection.createStatement()) {
+            statement.execute("DROP TABLE IF EXISTS users");
+            statement.execute("CREATE TABLE users ("
+                    + "user_id BIGINT AUTO_INCREMENT PRIMARY KEY, "
+                    + "username VARCHAR(64) NOT NULL UNIQUE, "
+                    + "password VARCHAR(255) NOT NULL, "
+                    + "role VARCHAR(16) NOT NULL, "
+                    + "full_name VARCHAR(128), "
+                    + "email VARCHAR(128))");
+            connection.setAutoCommit(false);
+            try (PreparedStatement insert = connection.prepareStatement(
+                    "INSERT INTO users (username, password, role, full_name, email) VALUES (?, ?, ?, ?, ?)")) {
+                for (int i = 0; i < userCount; i++) {
+                    insert.setString(1, username(i));
+                    insert.setString(2, hashes[i]);
+                    insert.setString(3, role(i));
+                    insert.setString(4, "User " + i);
+                    insert.setString(5, username(i) + "@dilla.edu.et");
+                    insert.addBatch();
+                    if (i % 500 == 499) {
+                        insert.executeBatch();
+                    }
+                }
+                insert.executeBatch();
+            }
+            connection.commit();
+        }
+    }
+
+    public static String username(int i) {
+        return "user" + i;
+    }
+
+    public static String password(int i) {
+        return "secret" + i;
+    }
+
+    public static String role(int i) {
+        return ROLES[i % ROLES.length];
+    }
+
+    public ConnectionPool pool() {
+        return pool;
+    }
+
+    /**
+     * Verifier matching the seeded hashes; shut down by {@link #close()}.
+     */
+    public PasswordVerifier verifier() {
+        return verifier;
+    }
+
+    public int userCount() {
+        return userCount;
+    }
+
+    @Override
+    public void close() {
+        try (Connection connection = pool.getConnection(); Statement statement = connection.createStatement()) {
+            statement.execute("SHUTDOWN");
+        } catch (SQLException ignored) {
+            // Database is going away anyway
+        }
+        pool.close();
+        verifier.shutdown();
+    }
+}
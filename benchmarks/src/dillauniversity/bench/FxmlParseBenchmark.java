@@ -0,0 +1,58 @@
+package dillauniversity.bench;
+
+import javafx.fxml.FXMLLoader;
+import javafx.scene.Parent;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.net.URL;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * FXMLLoader parse time for each screen reachable from the login form, with the
+ * JavaFX toolkit running headless. Parsing happens off the FX thread, the same way
+ * DashboardSceneCache preloads dashboards.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class FxmlParseBenchmark {
+
+    @Param({
+            "StudentDashboard.fxml",
+            "teacher_dashboard.fxml",
+            "dean_dashboard.fxml",
+            "admin_dashboard.fxml",
+            "RegistrationForm.fxml"
+    })
+    public String resource;
+
+    private URL url;
+
+    @Setup(Level.Trial)
+    public void setUp() throws Exception {
+        HeadlessFx.start();
+        url = FxmlParseBenchmark.class.getResource("/dillauniversity/resources/" + resource);
+        if (url == null) {
+            throw new IllegalStateException("Resource not on classpath: " + resource);
+        }
+    }
+
+    @Benchmark
+    public Parent parse() throws Exception {
+        return new FXMLLoader(url).load();
+    }
+}
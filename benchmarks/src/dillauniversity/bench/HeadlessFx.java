@@ -0,0 +1,69 @@
+package dillauniversity.bench;
+
+import javafx.application.Platform;
+
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Starts the JavaFX toolkit without a display, using Monocle's headless platform
+ * and the software renderer.
+ */
+public final class HeadlessFx {
+
+    private static boolean started;
+
+    private HeadlessFx() {
+    }
+
+    public static synchronized void start() throws InterruptedException {
+        if (started) {
+            return;
+        }
+        System.setProperty("glass.platform", "Monocle");
+        System.setProperty("monocle.platform", "Headless");
+        System.setProperty("prism.order", "sw");
+        System.setProperty("prism.text", "t2k");
+        System.setProperty("java.awt.headless", "true");
+
+        CountDownLatch latch = new CountDownLatch(1);
+        Platform.startup(latch::countDown);
+        if (!latch.await(30, TimeUnit.SECONDS)) {
+            throw new IllegalStateException("JavaFX toolkit did not start");
+        }
+        Platform.setImplicitExit(false);
+        started = true;
+    }
+
+    /**
+     * Runs {@code work} on the FX thread and waits for it.
+     */
+    public static void runAndWait(ThrowingRunnable work) throws Exception {
+        if (Platform.isFxApplicationThread()) {
+            work.run();
+            return;
+        }
+        CountDownLatch latch = new CountDownLatch(1);
+        Exception[] failure = new Exception[1];
+        Platform.runLater(() -> {
+            try {
+                work.run();
+            } catch (Exception e) {
+                failure[0] = e;
+            } finally {
+                latch.countDown();
+            }
+        });
+        if (!latch.await(30, TimeUnit.SECONDS)) {
+            throw new IllegalStateException("FX task did not finish");
+        }
+        if (failure[0] != null) {
+            throw failure[0];
+        }
+    }
+
+    @FunctionalInterface
+    public interface ThrowingRunnable {
+        void run() throws Exception;
+    }
+}
@@ -0,0 +1,103 @@
+package dillauniversity.bench;
+
+import dillauniversity.controller.DashboardController;
+import dillauniversity.dao.UserAuthDAO;
+import dillauniversity.model.UserSession;
+import dillauniversity.navigation.Router;
+import dillauniversity.roles.RoleRegistry;
+import dillauniversity.service.AuthCache;
+import dillauniversity.service.LoginService;
+import javafx.scene.Scene;
+import javafx.scene.layout.StackPane;
+import javafx.stage.Stage;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * The sign-in path of LoginController.handleLogin end to end: preload the role's
+ * dashboard, authenticate through LoginService, then show the dashboard through the
+ * Router on the FX thread and hand over the session.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode({Mode.AverageTime, Mode.SampleTime})
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 5)
+@Measurement(iterations = 5, time = 5)
+@Fork(1)
+public class LoginFlowBenchmark {
+
+    @Param({"1000"})
+    public int users;
+
+    @Param({"false", "true"})
+    public boolean authCache;
+
+    private EmbeddedDatabase database;
+    private LoginService loginService;
+    private Router router;
+    private RoleRegistry roles;
+    private Stage stage;
+
+    @Setup(Level.Trial)
+    public void setUp() throws Exception {
+        HeadlessFx.start();
+        database = new EmbeddedDatabase("login_flow_bench", users, 8);
+        // The embedded database has no role tables, so this keeps the built-in roles
+        roles = new RoleRegistry(database.pool());
+        UserAuthDAO dao = new UserAuthDAO(database.pool(), database.verifier(), roles);
+        LoginService.Authenticator authenticator = authCache
+                ? new AuthCache(users, TimeUnit.MINUTES.toMillis(10)).cached(dao::authenticate, dao::credentialStamp)
+                : dao::authenticate;
+        // No health monitor or throttle: the benchmark would trip the per-client limit
+        loginService = new LoginService(authenticator, null, null, 2, 64, 10_000L);
+        router = Router.shared();
+        HeadlessFx.runAndWait(() -> {
+            stage = new Stage();
+            stage.setScene(new Scene(new StackPane(), 1024, 768));
+        });
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() throws Exception {
+        HeadlessFx.runAndWait(() -> stage.close());
+        loginService.shutdown();
+        database.close();
+    }
+
+    @Benchmark
+    public Object loginToDashboard() throws Exception {
+        int i = ThreadLocalRandom.current().nextInt(users);
+        String role = EmbeddedDatabase.role(i);
+        String route = roles.dashboardRoute(role);
+
+        router.preload(route);
+        UserSession session = loginService
+                .login(EmbeddedDatabase.username(i), EmbeddedDatabase.password(i), role)
+                .get(10, TimeUnit.SECONDS);
+        if (session == null) {
+            throw new IllegalStateException("Seeded user failed to authenticate: " + i);
+        }
+
+        Object[] controller = new Object[1];
+        HeadlessFx.runAndWait(() -> controller[0] = router.navigate(stage, route, c -> {
+            if (c instanceof DashboardController) {
+                ((DashboardController) c).setSession(session);
+            }
+        }));
+        return controller[0];
+    }
+}
@@ -0,0 +1,101 @@
+package dillauniversity.loadtest;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+
+/**
+ * Number of active virtual users over time.
+ *
+ * A profile is a list of stages {@code users@duration}, e.g.
+ * {@code 300@60s,300@5m,0@30s}: ramp linearly from the previous stage's count (0 at
+ * the start) to 300 users over a minute, hold 300 for five minutes, then ramp down
+ * over 30 seconds. A stage that repeats the previous count is a plateau; a zero
+ * duration is a step.
+ */
+record LoadProfile(List<Stage> stages) {
+
+    record Stage(int users, long durationMillis) {
+    }
+
+    LoadProfile {
+        if (stages.isEmpty()) {
+            throw new IllegalArgumentException("Profile has no stages");
+        }
+        stages = List.copyOf(stages);
+    }
+
+    static LoadProfile parse(String spec) {
+        List<Stage> stages = new ArrayList<>();
+        for (String part : spec.split(",")) {
+            int at = part.indexOf('@');
+            if (at < 0) {
+                throw new IllegalArgumentException("Expected users@duration, got: " + part);
+            }
+            int users = Integer.parseInt(part.substring(0, at).trim());
+            if (users < 0) {
+                throw new IllegalArgumentException("Negative user count: " + part);
+            }
+            stages.add(new Stage(users, parseMillis(part.substring(at + 1))));
+        }
+        return new LoadProfile(stages);
+    }
+
+    /**
+     * Parses {@code 250ms}, {@code 30s}, {@code 5m}; a bare number is milliseconds.
+     */
+    static long parseMillis(String value) {
+        String v = value.trim().toLowerCase(Locale.ROOT);
+        if (v.endsWith("ms")) {
+            return Long.parseLong(v.substring(0, v.length() - 2).trim());
+        } else if (v.endsWith("s")) {
+            return Math.round(Double.parseDouble(v.substring(0, v.length() - 1).trim()) * 1000);
+        } else if (v.endsWith("m")) {
+            return Math.round(Double.parseDouble(v.substring(0, v.length() - 1).trim()) * 60_000);
+        }
+        return Long.parseLong(v);
+    }
+
+    int usersAt(long elapsedMillis) {
+        int from = 0;
+        long stageStart = 0;
+        for (Stage stage : stages) {
+            long stageEnd = stageStart + stage.durationMillis();
+            if (elapsedMillis < stageEnd) {
+                double progress = (double) (elapsedMillis - stageStart) / stage.durationMillis();
+                return (int) Math.round(from + (stage.users() - from) * progress);
+            }
+            from = stage.users();
+            stageStart = stageEnd;
+        }
+        return from;
+    }
+
+    long durationMillis() {
+        long total = 0;
+        for (Stage stage : stages) {
+            total += stage.durationMillis();
+        }
+        return total;
+    }
+
+    int maxUsers() {
+        int max = 0;
+        for (Stage stage : stages) {
+            max = Math.max(max, stage.users());
+        }
+        return max;
+    }
+
+    @Override
+    public String toString() {
+        StringBuilder sb = new StringBuilder();
+        for (Stage stage : stages) {
+            if (sb.length() > 0) {
+                sb.append(',');
+            }
+            sb.append(stage.users()).append('@').append(stage.durationMillis()).append("ms");
+        }
+        return sb.toString();
+    }
+}
@@ -0,0 +1,376 @@
+package dillauniversity.loadtest;
+
+import dillauniversity.bench.EmbeddedDatabase;
+import dillauniversity.dao.UserAuthDAO;
+import dillauniversity.database.DatabaseHealthMonitor;
+import dillauniversity.database.PoolStats;
+import dillauniversity.logging.Log;
+import dillauniversity.logging.Logger;
+import dillauniversity.metrics.LatencyHistogram;
+import dillauniversity.metrics.MetricsRegistry;
+import dillauniversity.model.UserSession;
+import dillauniversity.navigation.Router;
+import dillauniversity.roles.RoleRegistry;
+import dillauniversity.service.AuthCache;
+import dillauniversity.service.LoginService;
+import dillauniversity.service.LoginThrottle;
+import dillauniversity.service.LoginThrottledException;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.sql.SQLTransientConnectionException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Locale;
+import java.util.Random;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Function;
+import java.util.function.Supplier;
+
+/**
+ * Headless login storm: many virtual users signing in concurrently through the
+ * same path as LoginController.handleLogin (LoginService with its throttle,
+ * health check and worker pool, UserAuthDAO, then routing the role to its
+ * dashboard), against an embedded database.
+ * <pre>
+ * java dillauniversity.loadtest.LoadTest [--profile 300@60s,300@5m,0@30s] [--think 1s..5s]
+ *      [--mix Student=85,Teacher=10,Dean=2,Admin=3] [--users 5000] [--pool 8]
+ *      [--workers 16] [--queue 256] [--timeout 15s] [--bad-password 0.05]
+ *      [--warmup 0s] [--interval 5s] [--throttle true] [--auth-cache false]
+ *      [--seed 1] [--json results.json] [--max-p99 ms] [--max-error-rate 0.01]
+ * </pre>
+ * Each virtual user is one lab computer: it signs in as a random seeded user of
+ * the chosen role, waits a random think time, and signs in again. A fraction of
+ * attempts use a wrong password. The profile sets how many users are active over
+ * time. All users share one LoginService, as they do behind the auth server, so
+ * {@code --workers} and {@code --pool} are the server's sizes.
+ *
+ * Prints a progress line per interval and a summary: p50/p95/p99 latency overall
+ * and per role, throughput, outcomes and error rate, and connection pool
+ * saturation. {@code --json} also writes the summary for comparing runs. The
+ * process exits with status 1 when {@code --max-p99} or {@code --max-error-rate}
+ * is exceeded, so a build can fail on a contention regression.
+ */
+public final class LoadTest {
+
+    private static final Logger LOG = Log.get(LoadTest.class);
+    private static final long TICK_MILLIS = 100;
+    private static final int MAX_LOGGED_ERRORS = 5;
+
+    /**
+     * Parsed command line.
+     */
+    record Options(LoadProfile profile, long minThinkMillis, long maxThinkMillis, String mix, int users,
+                   int poolSize, int workers, int queue, long timeoutMillis, double badPasswordRate,
+                   long warmupMillis, long intervalMillis, boolean throttle, boolean authCache, long seed,
+                   Path json, double maxP99Millis, double maxErrorRate) {
+
+        static Options parse(String[] args) {
+            LoadProfile profile = LoadProfile.parse("200@30s,200@60s,0@10s");
+            String think = "1s..5s";
+            String mix = "Student=85,Teacher=10,Dean=2,Admin=3";
+            int users = 5000;
+            int poolSize = 8;
+            int workers = 16;
+            int queue = 256;
+            long timeout = 15_000;
+            double badPassword = 0.05;
+            long warmup = 0;
+            long interval = 5_000;
+            boolean throttle = true;
+            boolean authCache = false;
+            long seed = 1;
+            Path json = null;
+            double maxP99 = -1;
+            double maxErrorRate = -1;
+            if (args.length % 2 != 0) {
+                throw new IllegalArgumentException("Options take a value: " + Arrays.toString(args));
+            }
+            for (int i = 0; i + 1 < args.length; i += 2) {
+                String value = args[i + 1];
+                switch (args[i]) {
+                    case "--profile" -> profile = LoadProfile.parse(value);
+                    case "--think" -> think = value;
+                    case "--mix" -> mix = value;
+                    case "--users" -> users = Integer.parseInt(value);
+                    case "--pool" -> poolSize = Integer.parseInt(value);
+                    case "--workers" -> workers = Integer.parseInt(value);
+                    case "--queue" -> queue = Integer.parseInt(value);
+                    case "--timeout" -> timeout = LoadProfile.parseMillis(value);
+                    case "--bad-password" -> badPassword = Double.parseDouble(value);
+                    case "--warmup" -> warmup = LoadProfile.parseMillis(value);
+                    case "--interval" -> interval = LoadProfile.parseMillis(value);
+                    case "--throttle" -> throttle = Boolean.parseBoolean(value);
+                    case "--auth-cache" -> authCache = Boolean.parseBoolean(value);
+                    case "--seed" -> seed = Long.parseLong(value);
+                    case "--json" -> json = Paths.get(value);
+                    case "--max-p99" -> maxP99 = Double.parseDouble(value);
+                    case "--max-error-rate" -> maxErrorRate = Double.parseDouble(value);
+                    default -> throw new IllegalArgumentException("Unknown option: " + args[i]);
+                }
+            }
+            int dots = think.indexOf("..");
+            long minThink = LoadProfile.parseMillis(dots < 0 ? think : think.substring(0, dots));
+            long maxThink = dots < 0 ? minThink : LoadProfile.parseMillis(think.substring(dots + 2));
+            if (maxThink < minThink) {
+                throw new IllegalArgumentException("Think time range is reversed: " + think);
+            }
+            if (users < EmbeddedDatabase.ROLES.length) {
+                throw new IllegalArgumentException("Need at least one seeded user per role");
+            }
+            return new Options(profile, minThink, maxThink, mix, users, poolSize, workers, queue, timeout,
+                    badPassword, warmup, interval, throttle, authCache, seed, json, maxP99, maxErrorRate);
+        }
+    }
+
+    private final Options options;
+    private final LoginService loginService;
+    private final RoleMix mix;
+    private final Function<String, String> dashboardRoute;
+    private final Supplier<PoolStats> poolStats;
+    private final LoadTestResults results = new LoadTestResults();
+    private final List<Thread> virtualUsers = new ArrayList<>();
+    private final AtomicInteger loggedErrors = new AtomicInteger();
+
+    private volatile int activeUsers;
+    private volatile boolean running = true;
+    private volatile boolean recording;
+
+    /**
+     * @param dashboardRoute the route a role is sent to after login, or {@code null}
+     * @param poolStats      connection pool to watch; may be {@code null}
+     */
+    LoadTest(Options options, LoginService loginService, Function<String, String> dashboardRoute,
+             Supplier<PoolStats> poolStats) {
+        this.options = options;
+        this.loginService = loginService;
+        this.mix = RoleMix.parse(options.mix(), Arrays.asList(EmbeddedDatabase.ROLES));
+        this.dashboardRoute = dashboardRoute;
+        this.poolStats = poolStats;
+    }
+
+    public static void main(String[] args) throws Exception {
+        Options options = Options.parse(args);
+        System.out.printf("Seeding %,d users, pool %d, %d login workers%n",
+                options.users(), options.poolSize(), options.workers());
+
+        boolean ok;
+        try (EmbeddedDatabase database = new EmbeddedDatabase("loadtest", options.users(), options.poolSize())) {
+            // The embedded database has no role tables, so this keeps the built-in roles
+            RoleRegistry roles = new RoleRegistry(database.pool());
+            Router router = Router.shared();
+            UserAuthDAO dao = new UserAuthDAO(database.pool(), database.verifier(), roles);
+            LoginService.Authenticator authenticator = options.authCache()
+                    ? new AuthCache(options.users(), TimeUnit.MINUTES.toMillis(10))
+                            .cached(dao::authenticate, dao::credentialStamp)
+                    : dao::authenticate;
+            DatabaseHealthMonitor health = new DatabaseHealthMonitor(database.pool(), 2_000L, 5_000L,
+                    1_000L, 30_000L);
+            health.start();
+            LoginService loginService = new LoginService(authenticator, health,
+                    options.throttle() ? LoginThrottle.shared() : null,
+                    options.workers(), options.queue(), options.timeoutMillis());
+
+            // Same check as LoginController.dashboardRoute
+            Function<String, String> dashboardRoute = role -> {
+                String route = roles.dashboardRoute(role);
+                return route != null && router.getRoute(route) != null ? route : null;
+            };
+            LoadTest test = new LoadTest(options, loginService, dashboardRoute, database.pool()::getStats);
+            LoadTestResults results;
+            try {
+                results = test.run();
+            } finally {
+                loginService.shutdown();
+                health.stop();
+            }
+            ok = report(options, results);
+        }
+        Log.flush();
+        System.exit(ok ? 0 : 1);
+    }
+
+    /**
+     * Runs the whole profile and returns what was measured after the warm-up.
+     */
+    LoadTestResults run() throws InterruptedException {
+        System.out.printf("Profile %s, think %d..%dms, mix %s, %.0f%% wrong passwords%n",
+                options.profile(), options.minThinkMillis(), options.maxThinkMillis(), mix,
+                options.badPasswordRate() * 100);
+        long start = System.nanoTime();
+        long duration = options.profile().durationMillis();
+        long measureStart = 0;
+        long nextReport = options.intervalMillis();
+        recording = options.warmupMillis() <= 0;
+
+        long elapsed;
+        while ((elapsed = TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start)) < duration) {
+            int target = options.profile().usersAt(elapsed);
+            activeUsers = target;
+            while (virtualUsers.size() < target) {
+                startUser(virtualUsers.size());
+            }
+            if (!recording && elapsed >= options.warmupMillis()) {
+                recording = true;
+                measureStart = elapsed;
+                System.out.println("Warm-up done, measuring");
+            }
+            PoolStats stats = poolStats == null ? null : poolStats.get();
+            if (recording) {
+                results.samplePool(stats, target);
+            }
+            if (elapsed >= nextReport) {
+                System.out.println(results.intervalLine(elapsed, target, options.intervalMillis(), stats));
+                nextReport += options.intervalMillis();
+            }
+            Thread.sleep(TICK_MILLIS);
+        }
+
+        results.setMeasuredMillis(elapsed - measureStart);
+        running = false;
+        activeUsers = 0;
+        for (Thread user : virtualUsers) {
+            user.interrupt();
+        }
+        for (Thread user : virtualUsers) {
+            user.join(options.timeoutMillis() + 1_000L);
+        }
+        return results;
+    }
+
+    private void startUser(int id) {
+        Thread thread = new Thread(() -> runUser(id), "loadtest-user-" + id);
+        thread.setDaemon(true);
+        virtualUsers.add(thread);
+        thread.start();
+    }
+
+    private void runUser(int id) {
+        Random random = new Random(options.seed() * 1_000_003L + id);
+        String client = "loadtest-" + id;
+        try {
+            // Spread the first attempts instead of starting every user in lockstep
+            Thread.sleep(thinkMillis(random));
+            while (running) {
+                if (id >= activeUsers) {
+                    Thread.sleep(TICK_MILLIS);
+                    continue;
+                }
+                attempt(random, client);
+                Thread.sleep(thinkMillis(random));
+            }
+        } catch (InterruptedException e) {
+            // Test over
+        }
+    }
+
+    private void attempt(Random random, String client) throws InterruptedException {
+        String role = mix.pick(random);
+        int account = account(role, random);
+        boolean wrongPassword = random.nextDouble() < options.badPasswordRate();
+        String password = wrongPassword ? "wrong-" + account : EmbeddedDatabase.password(account);
+
+        long start = System.nanoTime();
+        LoadTestResults.Outcome outcome;
+        try {
+            UserSession session = loginService.login(EmbeddedDatabase.username(account), password, role, client)
+                    .get(options.timeoutMillis() + 1_000L, TimeUnit.MILLISECONDS);
+            if (session == null) {
+                outcome = wrongPassword ? LoadTestResults.Outcome.REJECTED : LoadTestResults.Outcome.WRONG_RESULT;
+            } else if (wrongPassword) {
+                outcome = LoadTestResults.Outcome.WRONG_RESULT;
+            } else {
+                outcome = dashboardRoute.apply(session.role()) != null
+                        ? LoadTestResults.Outcome.SUCCESS : LoadTestResults.Outcome.NO_ROUTE;
+            }
+        } catch (ExecutionException e) {
+            outcome = classify(e.getCause());
+        } catch (TimeoutException e) {
+            outcome = LoadTestResults.Outcome.TIMEOUT;
+        } catch (InterruptedException e) {
+            if (running) {
+                throw e;
+            }
+            return;
+        }
+        results.record(role, outcome, System.nanoTime() - start, recording);
+    }
+
+    // Same branches as LoginController.onLoginFinished
+    private LoadTestResults.Outcome classify(Throwable cause) {
+        if (cause instanceof LoginThrottledException) {
+            return LoadTestResults.Outcome.THROTTLED;
+        } else if (cause instanceof TimeoutException) {
+            return LoadTestResults.Outcome.TIMEOUT;
+        } else if (cause instanceof SQLTransientConnectionException) {
+            return LoadTestResults.Outcome.DB_UNAVAILABLE;
+        } else if (cause instanceof RejectedExecutionException) {
+            return LoadTestResults.Outcome.BUSY;
+        }
+        if (!(cause instanceof CancellationException) && loggedErrors.incrementAndGet() <= MAX_LOGGED_ERRORS) {
+            LOG.warn("loadtest.attempt_failed", cause, "type", cause.getClass().getSimpleName());
+        }
+        return LoadTestResults.Outcome.ERROR;
+    }
+
+    // Seeded user i has role ROLES[i % ROLES.length]
+    private int account(String role, Random random) {
+        int roleIndex = Arrays.asList(EmbeddedDatabase.ROLES).indexOf(role);
+        int perRole = (options.users() - roleIndex + EmbeddedDatabase.ROLES.length - 1)
+                / EmbeddedDatabase.ROLES.length;
+        return roleIndex + EmbeddedDatabase.ROLES.length * random.nextInt(perRole);
+    }
+
+    private long thinkMillis(Random random) {
+        long spread = options.maxThinkMillis() - options.minThinkMillis();
+        return options.minThinkMillis() + (spread == 0 ? 0 : (long) (random.nextDouble() * spread));
+    }
+
+    /**
+     * Prints the summary, writes the JSON file if asked, and checks the limits.
+     *
+     * @return {@code false} if a limit was exceeded
+     */
+    static boolean report(Options options, LoadTestResults results) throws IOException {
+        System.out.println();
+        System.out.print(results.render());
+        MetricsRegistry metrics = MetricsRegistry.shared();
+        System.out.println("Stages (including warm-up):");
+        for (String stage : List.of("login_queue_wait", "login_authentication", "password_verify")) {
+            LatencyHistogram h = metrics.histogram(stage, stage);
+            System.out.printf(Locale.ROOT, "  %-22s n=%,d p50=%.1fms p95=%.1fms p99=%.1fms%n", stage,
+                    h.getCount(), h.getValueAtQuantileMillis(0.5), h.getValueAtQuantileMillis(0.95),
+                    h.getValueAtQuantileMillis(0.99));
+        }
+
+        if (options.json() != null) {
+            if (options.json().getParent() != null) {
+                Files.createDirectories(options.json().getParent());
+            }
+            Files.writeString(options.json(), results.toJson() + System.lineSeparator(), StandardCharsets.UTF_8);
+            System.out.println("Results written to " + options.json().toAbsolutePath());
+        }
+
+        boolean ok = true;
+        double p99 = results.latencyMillis(0.99);
+        if (options.maxP99Millis() >= 0 && p99 > options.maxP99Millis()) {
+            System.out.printf(Locale.ROOT, "FAIL: p99 %.1fms exceeds %.1fms%n", p99, options.maxP99Millis());
+            ok = false;
+        }
+        if (options.maxErrorRate() >= 0 && results.errorRate() > options.maxErrorRate()) {
+            System.out.printf(Locale.ROOT, "FAIL: error rate %.4f exceeds %.4f%n", results.errorRate(),
+                    options.maxErrorRate());
+            ok = false;
+        }
+        return ok;
+    }
+}
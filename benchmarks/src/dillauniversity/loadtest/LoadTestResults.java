@@ -0,0 +1,246 @@
+package dillauniversity.loadtest;
+
+import dillauniversity.database.PoolStats;
+import dillauniversity.metrics.LatencyHistogram;
+
+import java.util.EnumMap;
+import java.util.Locale;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Everything a load test measures: attempt latency overall and per role, outcome
+ * counts, and connection pool saturation sampled while the test runs. Safe to
+ * record into from every virtual user at once.
+ */
+final class LoadTestResults {
+
+    /**
+     * How one login attempt ended, mirroring the branches of
+     * LoginController.onLoginFinished.
+     */
+    enum Outcome {
+        SUCCESS(false),
+        /** Wrong password sent on purpose and refused, as it should be */
+        REJECTED(false),
+        THROTTLED(true),
+        TIMEOUT(true),
+        DB_UNAVAILABLE(true),
+        BUSY(true),
+        /** Valid credentials refused, or a wrong password accepted */
+        WRONG_RESULT(true),
+        NO_ROUTE(true),
+        ERROR(true);
+
+        final boolean error;
+
+        Outcome(boolean error) {
+            this.error = error;
+        }
+    }
+
+    private static final double[] QUANTILES = {0.5, 0.95, 0.99};
+
+    private final LatencyHistogram latency = new LatencyHistogram();
+    private final LatencyHistogram interval = new LatencyHistogram();
+    private final Map<String, LatencyHistogram> byRole = new ConcurrentHashMap<>();
+    private final Map<Outcome, LongAdder> outcomes = new EnumMap<>(Outcome.class);
+    private final LongAdder intervalErrors = new LongAdder();
+
+    // Pool samples; written by the sampling thread only
+    private long poolSamples;
+    private long saturatedSamples;
+    private long waitingSum;
+    private int maxActive;
+    private int maxWaiting;
+    private int poolMaxSize;
+    private PoolStats lastPoolStats;
+
+    private final AtomicInteger peakUsers = new AtomicInteger();
+    private volatile long measuredMillis;
+
+    LoadTestResults() {
+        for (Outcome outcome : Outcome.values()) {
+            outcomes.put(outcome, new LongAdder());
+        }
+    }
+
+    /**
+     * @param measured {@code false} during the warm-up, which only shows in the
+     *                 progress lines
+     */
+    void record(String role, Outcome outcome, long nanos, boolean measured) {
+        // Latency covers every answered attempt; a timeout has no answer to time
+        boolean answered = outcome != Outcome.TIMEOUT;
+        if (outcome.error) {
+            intervalErrors.increment();
+        }
+        if (answered) {
+            interval.record(nanos);
+        }
+        if (!measured) {
+            return;
+        }
+        outcomes.get(outcome).increment();
+        if (answered) {
+            latency.record(nanos);
+            byRole.computeIfAbsent(role, r -> new LatencyHistogram()).record(nanos);
+        }
+    }
+
+    synchronized void samplePool(PoolStats stats, int activeUsers) {
+        peakUsers.accumulateAndGet(activeUsers, Math::max);
+        if (stats == null) {
+            return;
+        }
+        poolSamples++;
+        if (stats.active() >= stats.maxSize()) {
+            saturatedSamples++;
+        }
+        waitingSum += stats.waitingThreads();
+        maxActive = Math.max(maxActive, stats.active());
+        maxWaiting = Math.max(maxWaiting, stats.waitingThreads());
+        poolMaxSize = stats.maxSize();
+        lastPoolStats = stats;
+    }
+
+    void setMeasuredMillis(long millis) {
+        measuredMillis = millis;
+    }
+
+    long attempts() {
+        long total = 0;
+        for (LongAdder adder : outcomes.values()) {
+            total += adder.sum();
+        }
+        return total;
+    }
+
+    long errors() {
+        long total = 0;
+        for (Map.Entry<Outcome, LongAdder> e : outcomes.entrySet()) {
+            if (e.getKey().error) {
+                total += e.getValue().sum();
+            }
+        }
+        return total;
+    }
+
+    double errorRate() {
+        long attempts = attempts();
+        return attempts == 0 ? 0 : (double) errors() / attempts;
+    }
+
+    double throughput() {
+        return measuredMillis <= 0 ? 0 : attempts() * 1000.0 / measuredMillis;
+    }
+
+    double latencyMillis(double quantile) {
+        return latency.getValueAtQuantileMillis(quantile);
+    }
+
+    /**
+     * One progress line covering the attempts since the previous call.
+     */
+    String intervalLine(long elapsedMillis, int activeUsers, long intervalMillis, PoolStats pool) {
+        long count = interval.getCount();
+        String line = String.format(Locale.ROOT,
+                "%6.1fs users=%-4d %7.1f/s p50=%7.1fms p95=%7.1fms p99=%7.1fms errors=%d",
+                elapsedMillis / 1000.0, activeUsers, count * 1000.0 / intervalMillis,
+                interval.getValueAtQuantileMillis(0.5), interval.getValueAtQuantileMillis(0.95),
+                interval.getValueAtQuantileMillis(0.99), intervalErrors.sumThenReset());
+        interval.reset();
+        if (pool != null) {
+            line += String.format(Locale.ROOT, " pool=%d/%d waiting=%d",
+                    pool.active(), pool.maxSize(), pool.waitingThreads());
+        }
+        return line;
+    }
+
+    synchronized String render() {
+        StringBuilder sb = new StringBuilder(1024);
+        sb.append(String.format(Locale.ROOT, "Attempts:    %,d in %.1fs (%.1f/s), peak %d users%n",
+                attempts(), measuredMillis / 1000.0, throughput(), peakUsers.get()));
+        sb.append(String.format(Locale.ROOT, "Errors:      %,d (%.2f%%)%n", errors(), errorRate() * 100));
+        for (Map.Entry<Outcome, LongAdder> e : outcomes.entrySet()) {
+            if (e.getValue().sum() > 0) {
+                sb.append(String.format(Locale.ROOT, "  %-15s %,d%n", e.getKey(), e.getValue().sum()));
+            }
+        }
+        sb.append("Latency:     ").append(quantiles(latency)).append(System.lineSeparator());
+        for (Map.Entry<String, LatencyHistogram> e : new TreeMap<>(byRole).entrySet()) {
+            sb.append(String.format(Locale.ROOT, "  %-11s %s%n", e.getKey(), quantiles(e.getValue())));
+        }
+        if (poolSamples > 0) {
+            sb.append(String.format(Locale.ROOT,
+                    "Pool:        saturated %.1f%% of the time, max active %d/%d, max waiting %d, avg waiting %.1f%n",
+                    saturatedSamples * 100.0 / poolSamples, maxActive, poolMaxSize, maxWaiting,
+                    (double) waitingSum / poolSamples));
+            sb.append("  ").append(lastPoolStats).append(System.lineSeparator());
+        }
+        return sb.toString();
+    }
+
+    synchronized String toJson() {
+        StringBuilder sb = new StringBuilder(1024);
+        sb.append('{');
+        sb.append("\"attempts\":").append(attempts());
+        sb.append(",\"durationMs\":").append(measuredMillis);
+        sb.append(",\"throughputPerSec\":").append(number(throughput()));
+        sb.append(",\"peakUsers\":").append(peakUsers.get());
+        sb.append(",\"errors\":").append(errors());
+        sb.append(",\"errorRate\":").append(number(errorRate()));
+        sb.append(",\"outcomes\":{");
+        boolean first = true;
+        for (Map.Entry<Outcome, LongAdder> e : outcomes.entrySet()) {
+            sb.append(first ? "" : ",").append('"').append(e.getKey().name().toLowerCase(Locale.ROOT))
+                    .append("\":").append(e.getValue().sum());
+            first = false;
+        }
+        sb.append("},\"latencyMs\":").append(quantilesJson(latency));
+        sb.append(",\"latencyByRoleMs\":{");
+        first = true;
+        for (Map.Entry<String, LatencyHistogram> e : new TreeMap<>(byRole).entrySet()) {
+            sb.append(first ? "" : ",").append('"').append(e.getKey()).append("\":")
+                    .append(quantilesJson(e.getValue()));
+            first = false;
+        }
+        sb.append('}');
+        if (poolSamples > 0) {
+            sb.append(",\"pool\":{");
+            sb.append("\"maxSize\":").append(poolMaxSize);
+            sb.append(",\"saturatedRatio\":").append(number((double) saturatedSamples / poolSamples));
+            sb.append(",\"maxActive\":").append(maxActive);
+            sb.append(",\"maxWaiting\":").append(maxWaiting);
+            sb.append(",\"avgWaiting\":").append(number((double) waitingSum / poolSamples));
+            sb.append(",\"avgBorrowWaitMs\":").append(number(lastPoolStats.averageWaitNanos() / 1_000_000.0));
+            sb.append(",\"maxBorrowWaitMs\":").append(number(lastPoolStats.maxWaitNanos() / 1_000_000.0));
+            sb.append(",\"borrowTimeouts\":").append(lastPoolStats.borrowTimeouts());
+            sb.append('}');
+        }
+        sb.append('}');
+        return sb.toString();
+    }
+
+    private static String quantiles(LatencyHistogram h) {
+        return String.format(Locale.ROOT, "n=%,d p50=%.1fms p95=%.1fms p99=%.1fms max=%.1fms",
+                h.getCount(), h.getValueAtQuantileMillis(0.5), h.getValueAtQuantileMillis(0.95),
+                h.getValueAtQuantileMillis(0.99), h.getMaxNanos() / 1_000_000.0);
+    }
+
+    private static String quantilesJson(LatencyHistogram h) {
+        StringBuilder sb = new StringBuilder("{\"count\":").append(h.getCount());
+        for (double q : QUANTILES) {
+            sb.append(",\"p").append((int) Math.round(q * 100)).append("\":")
+                    .append(number(h.getValueAtQuantileMillis(q)));
+        }
+        return sb.append(",\"max\":").append(number(h.getMaxNanos() / 1_000_000.0)).append('}').toString();
+    }
+
+    private static String number(double value) {
+        return String.format(Locale.ROOT, "%.3f", value);
+    }
+}
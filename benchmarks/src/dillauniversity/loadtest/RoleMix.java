@@ -0,0 +1,77 @@
+package dillauniversity.loadtest;
+
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+
+/**
+ * Weighted choice of the role each login attempt signs in as, e.g.
+ * {@code Student=85,Teacher=10,Dean=2,Admin=3}. Weights are relative; roles not
+ * listed are never picked.
+ */
+final class RoleMix {
+
+    private final String[] roles;
+    private final double[] cumulative;
+
+    private RoleMix(Map<String, Double> weights) {
+        roles = weights.keySet().toArray(new String[0]);
+        cumulative = new double[roles.length];
+        double total = 0;
+        for (int i = 0; i < roles.length; i++) {
+            total += weights.get(roles[i]);
+            cumulative[i] = total;
+        }
+        if (total <= 0) {
+            throw new IllegalArgumentException("Role mix has no positive weight");
+        }
+        for (int i = 0; i < cumulative.length; i++) {
+            cumulative[i] /= total;
+        }
+    }
+
+    /**
+     * @param known roles that exist in the database; anything else is rejected
+     */
+    static RoleMix parse(String spec, List<String> known) {
+        Map<String, Double> weights = new LinkedHashMap<>();
+        for (String part : spec.split(",")) {
+            int eq = part.indexOf('=');
+            String role = (eq < 0 ? part : part.substring(0, eq)).trim();
+            if (!known.contains(role)) {
+                throw new IllegalArgumentException("Unknown role in mix: " + role + " (known: " + known + ")");
+            }
+            double weight = eq < 0 ? 1 : Double.parseDouble(part.substring(eq + 1).trim());
+            if (weight < 0) {
+                throw new IllegalArgumentException("Negative weight for " + role);
+            }
+            weights.merge(role, weight, Double::sum);
+        }
+        return new RoleMix(weights);
+    }
+
+    String pick(Random random) {
+        double r = random.nextDouble();
+        for (int i = 0; i < cumulative.length - 1; i++) {
+            if (r < cumulative[i]) {
+                return roles[i];
+            }
+        }
+        return roles[roles.length - 1];
+    }
+
+    @Override
+    public String toString() {
+        StringBuilder sb = new StringBuilder();
+        double previous = 0;
+        for (int i = 0; i < roles.length; i++) {
+            if (sb.length() > 0) {
+                sb.append(',');
+            }
+            sb.append(roles[i]).append('=').append(Math.round((cumulative[i] - previous) * 100)).append('%');
+            previous = cumulative[i];
+        }
+        return sb.toString();
+    }
+}
@@ -0,0 +1,368 @@
+package dillauniversity.authserver;
+
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpServer;
+import dillauniversity.database.DatabaseHealthMonitor;
+import dillauniversity.logging.Log;
+import dillauniversity.logging.Logger;
+import dillauniversity.metrics.MetricsRegistry;
+import dillauniversity.model.UserSession;
+import dillauniversity.roles.RemoteRoles;
+import dillauniversity.roles.RoleRegistry;
+import dillauniversity.service.FormCodec;
+import dillauniversity.service.LoginService;
+import dillauniversity.service.LoginThrottledException;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.nio.charset.StandardCharsets;
+import java.sql.SQLException;
+import java.util.Map;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Shared login and session service for the lab clients.
+ *
+ * Clients started with {@code -Ddillauniversity.auth.url=http://host:port} send
+ * their logins here instead of opening their own database connections. All of them
+ * share this process's {@link LoginService}: its small worker pool, connection
+ * pool, auth cache and throttle (keyed by client address). A successful login
+ * returns the user's session and a token kept in memory.
+ *
+ * Endpoints (form-encoded bodies, see {@link FormCodec}):
+ * <ul>
+ *   <li>{@code POST /v1/login} username, password, role: 200 session + token,
+ *       401 wrong credentials, 429 throttled (Retry-After), 503 database down or busy</li>
+ *   <li>{@code POST /v1/session} token: 200 session, 401 unknown or expired; or
+ *       rememberToken: 200 session + new token, 401 unknown, expired or revoked</li>
+ *   <li>{@code POST /v1/remember} token: 200 rememberToken, 401 unknown or expired
+ *       session</li>
+ *   <li>{@code POST /v1/logout} token and/or rememberToken: 204</li>
+ *   <li>{@code GET /v1/roles}: 200 the roles ({@link RemoteRoles}), 503 while they
+ *       could not be loaded</li>
+ *   <li>{@code GET /v1/health}: 200 while the database is reachable, else 503</li>
+ * </ul>
+ *
+ * Binds to {@code dillauniversity.authserver.bind} (default 127.0.0.1) on
+ * {@code dillauniversity.authserver.port} (default 8471). Logins run on
+ * {@code dillauniversity.authserver.workers} workers (default 8) with
+ * {@code dillauniversity.authserver.queue} waiting (default 64) and time out after
+ * {@code dillauniversity.authserver.timeoutMs} (default 15000), independent of the
+ * clients' {@code dillauniversity.login.*} settings. Passwords travel in the
+ * request body, so bind to a lab network only behind TLS termination.
+ */
+public final class AuthServer {
+
+    private static final Logger LOG = Log.get(AuthServer.class);
+
+    private final LoginService loginService;
+    private final DatabaseHealthMonitor health;
+    private final RoleRegistry roles;
+    private final SessionStore sessions;
+    private final HttpServer server;
+    private final ExecutorService handlers;
+    private final ScheduledExecutorService sweeper;
+    private final long loginTimeoutMillis;
+
+    public AuthServer(InetSocketAddress address, LoginService loginService, DatabaseHealthMonitor health,
+                      RoleRegistry roles, long sessionTtlMillis, int maxSessions, int handlerThreads)
+            throws IOException {
+        this.loginService = loginService;
+        this.health = health;
+        this.roles = roles;
+        this.sessions = new SessionStore(sessionTtlMillis, maxSessions);
+        this.loginTimeoutMillis = loginService.getTimeoutMillis() + 1_000L;
+
+        AtomicInteger counter = new AtomicInteger();
+        this.handlers = Executors.newFixedThreadPool(handlerThreads,
+                r -> new Thread(r, "auth-http-" + counter.incrementAndGet()));
+        this.sweeper = Executors.newSingleThreadScheduledExecutor(r -> {
+            Thread thread = new Thread(r, "auth-session-sweeper");
+            thread.setDaemon(true);
+            return thread;
+        });
+
+        this.server = HttpServer.create(address, 128);
+        server.createContext("/v1/login", exchange -> handle(exchange, "POST", this::login));
+        server.createContext("/v1/session", exchange -> handle(exchange, "POST", this::session));
+        server.createContext("/v1/remember", exchange -> handle(exchange, "POST", this::remember));
+        server.createContext("/v1/logout", exchange -> handle(exchange, "POST", this::logout));
+        server.createContext("/v1/roles", exchange -> handle(exchange, "GET", this::roles));
+        server.createContext("/v1/health", exchange -> handle(exchange, "GET", this::health));
+        server.setExecutor(handlers);
+
+        MetricsRegistry metrics = MetricsRegistry.shared();
+        metrics.gauge("auth_sessions", "Sessions held by the auth server", sessions::size);
+        metrics.gauge("auth_sessions_issued", "Sessions issued since start", sessions::getIssuedCount);
+        metrics.gauge("auth_sessions_expired", "Sessions expired since start", sessions::getExpiredCount);
+    }
+
+    public static void main(String[] args) throws IOException {
+        InetSocketAddress address = new InetSocketAddress(
+                InetAddress.getByName(System.getProperty("dillauniversity.authserver.bind", "127.0.0.1")),
+                Integer.getInteger("dillauniversity.authserver.port", 8471));
+        LoginService loginService = LoginService.create(
+                Integer.getInteger("dillauniversity.authserver.workers", 8),
+                Integer.getInteger("dillauniversity.authserver.queue", 64),
+                Long.getLong("dillauniversity.authserver.timeoutMs", 15_000L));
+        AuthServer server = new AuthServer(address, loginService, DatabaseHealthMonitor.shared(),
+                RoleRegistry.shared(),
+                Long.getLong("dillauniversity.authserver.sessionTtlMs", 8L * 60 * 60 * 1000),
+                Integer.getInteger("dillauniversity.authserver.maxSessions", 10_000),
+                Integer.getInteger("dillauniversity.authserver.threads", 16));
+        server.start();
+        Runtime.getRuntime().addShutdownHook(new Thread(server::stop, "auth-server-shutdown"));
+    }
+
+    public void start() {
+        health.start();
+        sweeper.scheduleWithFixedDelay(sessions::sweep, 1, 1, TimeUnit.MINUTES);
+        server.start();
+        LOG.info("authserver.started", "address", server.getAddress());
+    }
+
+    public void stop() {
+        server.stop(1);
+        handlers.shutdownNow();
+        sweeper.shutdownNow();
+        LOG.info("authserver.stopped");
+        Log.flush();
+    }
+
+    public InetSocketAddress getAddress() {
+        return server.getAddress();
+    }
+
+    private void login(HttpExchange exchange, Map<String, String> form) throws IOException {
+        String username = form.getOrDefault("username", "").trim();
+        String password = form.get("password");
+        String role = form.get("role");
+        // Same rules as the login form: no empty password, no blank role
+        if (username.isEmpty() || password == null || password.isEmpty() || role == null || role.isBlank()) {
+            send(exchange, 400, "Missing username, password or role");
+            return;
+        }
+        String client = exchange.getRemoteAddress().getAddress().getHostAddress();
+
+        UserSession session;
+        try {
+            session = loginService.login(username, password, role, client)
+                    .get(loginTimeoutMillis, TimeUnit.MILLISECONDS);
+        } catch (ExecutionException e) {
+            loginFailed(exchange, e.getCause(), username);
+            return;
+        } catch (TimeoutException e) {
+            send(exchange, 503, "Login timed out");
+            return;
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            send(exchange, 503, "Server shutting down");
+            return;
+        }
+
+        if (session == null) {
+            send(exchange, 401, "Invalid username or password");
+            return;
+        }
+        String token = sessions.issue(session);
+        sendSession(exchange, session, token);
+    }
+
+    private void loginFailed(HttpExchange exchange, Throwable cause, String username) throws IOException {
+        if (cause instanceof LoginThrottledException) {
+            exchange.getResponseHeaders().set("Retry-After",
+                    Long.toString(((LoginThrottledException) cause).getRetryAfterSeconds()));
+            send(exchange, 429, cause.getMessage());
+        } else if (cause instanceof RejectedExecutionException) {
+            exchange.getResponseHeaders().set("Retry-After", "1");
+            send(exchange, 503, "Server busy");
+        } else if (cause instanceof SQLException || cause instanceof TimeoutException) {
+            send(exchange, 503, "Database unavailable");
+        } else {
+            LOG.error("authserver.login_failed", cause, "user", Log.user(username));
+            send(exchange, 500, "Login failed");
+        }
+    }
+
+    private static void requestFailed(HttpExchange exchange, Throwable cause, String event) throws IOException {
+        if (cause instanceof RejectedExecutionException) {
+            exchange.getResponseHeaders().set("Retry-After", "1");
+            send(exchange, 503, "Server busy");
+        } else if (cause instanceof SQLException || cause instanceof TimeoutException) {
+            send(exchange, 503, "Database unavailable");
+        } else {
+            LOG.error(event, cause);
+            send(exchange, 500, "Request failed");
+        }
+    }
+
+    private void session(HttpExchange exchange, Map<String, String> form) throws IOException {
+        String rememberToken = form.get("rememberToken");
+        if (rememberToken != null) {
+            resume(exchange, rememberToken);
+            return;
+        }
+        String token = form.get("token");
+        UserSession session = sessions.get(token);
+        if (session == null) {
+            send(exchange, 401, "Unknown or expired session");
+            return;
+        }
+        sendSession(exchange, session, token);
+    }
+
+    private void resume(HttpExchange exchange, String rememberToken) throws IOException {
+        UserSession session;
+        try {
+            session = loginService.resume(rememberToken).get(loginTimeoutMillis, TimeUnit.MILLISECONDS);
+        } catch (ExecutionException e) {
+            requestFailed(exchange, e.getCause(), "authserver.resume_failed");
+            return;
+        } catch (TimeoutException e) {
+            send(exchange, 503, "Resume timed out");
+            return;
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            send(exchange, 503, "Server shutting down");
+            return;
+        }
+        if (session == null) {
+            send(exchange, 401, "Unknown, expired or revoked remember token");
+            return;
+        }
+        sendSession(exchange, session, sessions.issue(session));
+    }
+
+    private void remember(HttpExchange exchange, Map<String, String> form) throws IOException {
+        UserSession session = sessions.get(form.get("token"));
+        if (session == null) {
+            send(exchange, 401, "Unknown or expired session");
+            return;
+        }
+        String rememberToken;
+        try {
+            rememberToken = loginService.remember(session).get(loginTimeoutMillis, TimeUnit.MILLISECONDS);
+        } catch (ExecutionException e) {
+            requestFailed(exchange, e.getCause(), "authserver.remember_failed");
+            return;
+        } catch (TimeoutException e) {
+            send(exchange, 503, "Remember timed out");
+            return;
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            send(exchange, 503, "Server shutting down");
+            return;
+        }
+        sendForm(exchange, Map.of("rememberToken", rememberToken));
+    }
+
+    private void logout(HttpExchange exchange, Map<String, String> form) throws IOException {
+        sessions.remove(form.get("token"));
+        String rememberToken = form.get("rememberToken");
+        if (rememberToken != null) {
+            // Best effort, like the client's own revoke: the token expires anyway
+            loginService.forget(rememberToken).exceptionally(error -> {
+                LOG.warn("authserver.revoke_failed", "error", String.valueOf(error.getMessage()));
+                return null;
+            });
+        }
+        exchange.sendResponseHeaders(204, -1);
+    }
+
+    private void roles(HttpExchange exchange, Map<String, String> form) throws IOException {
+        RoleRegistry.Snapshot snapshot = roles.snapshot();
+        if (snapshot.builtIn()) {
+            // Not loaded from the database yet; clients keep what they have
+            roles.refreshAsync();
+            send(exchange, 503, "Roles not loaded");
+            return;
+        }
+        byte[] body = RemoteRoles.encode(snapshot.roles()).getBytes(StandardCharsets.UTF_8);
+        exchange.getResponseHeaders().set("Content-Type", RemoteRoles.CONTENT_TYPE);
+        exchange.sendResponseHeaders(200, body.length);
+        try (OutputStream out = exchange.getResponseBody()) {
+            out.write(body);
+        }
+    }
+
+    private void health(HttpExchange exchange, Map<String, String> form) throws IOException {
+        DatabaseHealthMonitor.Status status = health.getStatus();
+        if (status.isDown()) {
+            send(exchange, 503, "Database unavailable: " + status.error());
+        } else {
+            send(exchange, 200, status.state().name());
+        }
+    }
+
+    private void sendSession(HttpExchange exchange, UserSession session, String token) throws IOException {
+        Map<String, String> fields = FormCodec.fromSession(session);
+        fields.put("token", token);
+        fields.put("expiresAt", Long.toString(sessions.expiresAt(token)));
+        sendForm(exchange, fields);
+    }
+
+    private static void sendForm(HttpExchange exchange, Map<String, String> fields) throws IOException {
+        exchange.getResponseHeaders().set("Content-Type", FormCodec.CONTENT_TYPE);
+        byte[] body = FormCodec.encode(fields).getBytes(StandardCharsets.UTF_8);
+        exchange.sendResponseHeaders(200, body.length);
+        try (OutputStream out = exchange.getResponseBody()) {
+            out.write(body);
+        }
+    }
+
+    private static void send(HttpExchange exchange, int status, String message) throws IOException {
+        byte[] body = message.getBytes(StandardCharsets.UTF_8);
+        exchange.getResponseHeaders().set("Content-Type", "text/plain; charset=utf-8");
+        exchange.sendResponseHeaders(status, body.length);
+        try (OutputStream out = exchange.getResponseBody()) {
+            out.write(body);
+        }
+    }
+
+    private static void handle(HttpExchange exchange, String method, Handler handler) throws IOException {
+        try (exchange) {
+            if (!method.equals(exchange.getRequestMethod())) {
+                exchange.sendResponseHeaders(405, -1);
+                return;
+            }
+            Map<String, String> form;
+            try (InputStream in = exchange.getRequestBody()) {
+                // Form bodies here are a few hundred bytes; refuse anything large
+                byte[] body = in.readNBytes(8 * 1024);
+                if (in.read() != -1) {
+                    exchange.sendResponseHeaders(413, -1);
+                    return;
+                }
+                form = FormCodec.decode(new String(body, StandardCharsets.UTF_8));
+            } catch (IllegalArgumentException e) {
+                // Malformed percent-encoding; an answer keeps the client from taking us for down
+                send(exchange, 400, "Malformed form body");
+                return;
+            }
+            try {
+                handler.handle(exchange, form);
+            } catch (RuntimeException e) {
+                LOG.error("authserver.request_failed", e, "path", exchange.getRequestURI().getPath());
+                // -1 while no status has been sent yet
+                if (exchange.getResponseCode() == -1) {
+                    send(exchange, 500, "Request failed");
+                }
+            }
+        }
+    }
+
+    @FunctionalInterface
+    private interface Handler {
+        void handle(HttpExchange exchange, Map<String, String> form) throws IOException;
+    }
+}
@@ -0,0 +1,134 @@
+package dillauniversity.authserver;
+
+import dillauniversity.model.UserSession;
+
+import java.security.SecureRandom;
+import java.util.Base64;
+import java.util.Iterator;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * In-memory sessions of the auth server, keyed by an opaque random token.
+ *
+ * A session expires {@code idleTtlMillis} after it was last used (issued or
+ * validated). At most {@code maxSessions} are kept; when full, expired sessions
+ * are swept first and then the least recently used ones are dropped. Sessions do
+ * not survive a server restart; clients then simply log in again.
+ */
+final class SessionStore {
+
+    private static final int TOKEN_BYTES = 32;
+    private static final Base64.Encoder TOKEN_ENCODER = Base64.getUrlEncoder().withoutPadding();
+
+    private final Map<String, Entry> sessions = new ConcurrentHashMap<>();
+    private final SecureRandom random = new SecureRandom();
+    private final long idleTtlMillis;
+    private final int maxSessions;
+    private final LongAdder issued = new LongAdder();
+    private final LongAdder expired = new LongAdder();
+
+    SessionStore(long idleTtlMillis, int maxSessions) {
+        this.idleTtlMillis = idleTtlMillis;
+        this.maxSessions = maxSessions;
+    }
+
+    /**
+     * Stores {@code session} and returns its new token.
+     */
+    String issue(UserSession session) {
+        if (sessions.size() >= maxSessions) {
+            sweep();
+            evictOldest(sessions.size() - maxSessions + 1);
+        }
+        byte[] bytes = new byte[TOKEN_BYTES];
+        random.nextBytes(bytes);
+        String token = TOKEN_ENCODER.encodeToString(bytes);
+        sessions.put(token, new Entry(session, System.currentTimeMillis()));
+        issued.increment();
+        return token;
+    }
+
+    /**
+     * The session for {@code token}, extending its lifetime, or {@code null} if it is
+     * unknown or expired.
+     */
+    UserSession get(String token) {
+        if (token == null) {
+            return null;
+        }
+        Entry entry = sessions.get(token);
+        if (entry == null) {
+            return null;
+        }
+        long now = System.currentTimeMillis();
+        if (now - entry.lastUsedMillis > idleTtlMillis) {
+            if (sessions.remove(token, entry)) {
+                expired.increment();
+            }
+            return null;
+        }
+        entry.lastUsedMillis = now;
+        return entry.session;
+    }
+
+    long expiresAt(String token) {
+        Entry entry = sessions.get(token);
+        return entry == null ? 0 : entry.lastUsedMillis + idleTtlMillis;
+    }
+
+    boolean remove(String token) {
+        return token != null && sessions.remove(token) != null;
+    }
+
+    void sweep() {
+        long now = System.currentTimeMillis();
+        for (Iterator<Entry> it = sessions.values().iterator(); it.hasNext(); ) {
+            if (now - it.next().lastUsedMillis > idleTtlMillis) {
+                it.remove();
+                expired.increment();
+            }
+        }
+    }
+
+    int size() {
+        return sessions.size();
+    }
+
+    long getIssuedCount() {
+        return issued.sum();
+    }
+
+    long getExpiredCount() {
+        return expired.sum();
+    }
+
+    // Linear scan; only reached when the store is full of live sessions
+    private void evictOldest(int count) {
+        for (int i = 0; i < count; i++) {
+            String oldestToken = null;
+            long oldest = Long.MAX_VALUE;
+            for (Map.Entry<String, Entry> e : sessions.entrySet()) {
+                if (e.getValue().lastUsedMillis < oldest) {
+                    oldest = e.getValue().lastUsedMillis;
+                    oldestToken = e.getKey();
+                }
+            }
+            if (oldestToken == null) {
+                return;
+            }
+            sessions.remove(oldestToken);
+        }
+    }
+
+    private static final class Entry {
+        final UserSession session;
+        volatile long lastUsedMillis;
+
+        Entry(UserSession session, long lastUsedMillis) {
+            this.session = session;
+            this.lastUsedMillis = lastUsedMillis;
+        }
+    }
+}
@@ -0,0 +1,37 @@
+package dillauniversity.controller;
+
+import dillauniversity.model.UserSession;
+import dillauniversity.navigation.DashboardSceneCache;
+import dillauniversity.service.LoginService;
+
+/**
+ * Contract between the login screen and the role dashboards.
+ *
+ * Dashboard controllers already expose {@code setUsername(String)}; declaring
+ * {@code implements DashboardController} is enough for them to receive the user.
+ * Controllers that need more than the username override {@link #setSession}.
+ * A dashboard's sign-out action calls {@link #signOut} before showing the login
+ * screen; the login screen also calls it for the session it handed off last, so
+ * dashboards that do not are covered once the user is back at the form.
+ */
+public interface DashboardController {
+
+    void setUsername(String username);
+
+    /**
+     * Called once, on the FX thread, before the dashboard is shown.
+     */
+    default void setSession(UserSession session) {
+        setUsername(session.username());
+    }
+
+    /**
+     * Ends {@code session}: the auth server session, if any, is closed and every
+     * dashboard preloaded for it is dropped. Call on the FX thread; safe to call
+     * more than once.
+     */
+    static void signOut(UserSession session) {
+        LoginService.shared().logout(session);
+        DashboardSceneCache.shared().clear();
+    }
+}
@@ -0,0 +1,165 @@
+package dillauniversity.dao;
+
+import dillauniversity.database.ConnectionPool;
+import dillauniversity.model.UserSession;
+import dillauniversity.roles.RoleDefinition;
+import dillauniversity.roles.RoleRegistry;
+
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.security.SecureRandom;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.sql.Timestamp;
+import java.time.Instant;
+import java.util.Base64;
+import java.util.HexFormat;
+
+/**
+ * "Remember me" tokens, kept in the {@code remember_tokens} table.
+ *
+ * The client only stores a random token. The table holds its SHA-256 and the
+ * user and expiry it belongs to, so a copied database row cannot be replayed and
+ * a stolen token file can be revoked by deleting the row; deleting all of a
+ * user's rows signs out every remembered workstation. Resuming looks the token
+ * up joined with the user and builds the session from the user's current role
+ * and the role's current permissions; nothing the client stored is trusted.
+ *
+ * The table is created on first use ({@link #CREATE_TABLE}) when it does not exist
+ * yet; the foreign key gives it an index on {@code user_id} in MySQL and H2.
+ */
+public class RememberTokenDAO {
+
+    private static final int TOKEN_BYTES = 32;
+    private static final Base64.Encoder TOKEN_ENCODER = Base64.getUrlEncoder().withoutPadding();
+
+    static final String CREATE_TABLE = "CREATE TABLE IF NOT EXISTS remember_tokens ("
+            + "token_hash CHAR(64) PRIMARY KEY, "
+            + "user_id BIGINT NOT NULL, "
+            + "expires_at TIMESTAMP NOT NULL, "
+            + "FOREIGN KEY (user_id) REFERENCES users (user_id) ON DELETE CASCADE)";
+
+    static final String INSERT =
+            "INSERT INTO remember_tokens (token_hash, user_id, expires_at) VALUES (?, ?, ?)";
+
+    // One primary key lookup plus the users row it points at
+    static final String RESUME_QUERY =
+            "SELECT u.user_id, u.username, u.role, u.full_name, u.email "
+                    + "FROM remember_tokens t JOIN users u ON u.user_id = t.user_id "
+                    + "WHERE t.token_hash = ? AND t.expires_at > ?";
+
+    static final String DELETE = "DELETE FROM remember_tokens WHERE token_hash = ?";
+
+    // Run on every issue so a user's expired tokens do not pile up
+    static final String DELETE_EXPIRED = "DELETE FROM remember_tokens WHERE user_id = ? AND expires_at <= ?";
+
+    private static final RememberTokenDAO SHARED = new RememberTokenDAO(
+            ConnectionPool.shared(), RoleRegistry.shared(),
+            Long.getLong("dillauniversity.rememberMe.ttlMs", 7L * 24 * 60 * 60 * 1000));
+
+    private final ConnectionPool pool;
+    private final RoleRegistry roles;
+    private final long ttlMillis;
+    private final SecureRandom random = new SecureRandom();
+
+    private volatile boolean tableReady;
+
+    public RememberTokenDAO(ConnectionPool pool, RoleRegistry roles, long ttlMillis) {
+        this.pool = pool;
+        this.roles = roles;
+        this.ttlMillis = ttlMillis;
+    }
+
+    public static RememberTokenDAO shared() {
+        return SHARED;
+    }
+
+    /**
+     * Creates a token for {@code session}'s user, valid for the configured lifetime.
+     */
+    public String issue(UserSession session) throws SQLException {
+        byte[] bytes = new byte[TOKEN_BYTES];
+        random.nextBytes(bytes);
+        String token = TOKEN_ENCODER.encodeToString(bytes);
+        long now = System.currentTimeMillis();
+        try (ConnectionPool.PooledConnection connection = pool.borrow()) {
+            ensureTable(connection);
+            PreparedStatement expired = connection.prepareCached(DELETE_EXPIRED);
+            expired.setLong(1, session.userId());
+            expired.setTimestamp(2, new Timestamp(now));
+            expired.executeUpdate();
+
+            PreparedStatement insert = connection.prepareCached(INSERT);
+            insert.setString(1, hash(token));
+            insert.setLong(2, session.userId());
+            insert.setTimestamp(3, new Timestamp(now + ttlMillis));
+            insert.executeUpdate();
+        }
+        return token;
+    }
+
+    /**
+     * The session for {@code token}, or {@code null} when the token is unknown or
+     * expired, or the user's role no longer exists.
+     */
+    public UserSession resume(String token) throws SQLException {
+        try (ConnectionPool.PooledConnection connection = pool.borrow()) {
+            ensureTable(connection);
+            PreparedStatement statement = connection.prepareCached(RESUME_QUERY);
+            statement.setString(1, hash(token));
+            statement.setTimestamp(2, new Timestamp(System.currentTimeMillis()));
+            try (ResultSet rs = statement.executeQuery()) {
+                if (!rs.next()) {
+                    return null;
+                }
+                RoleDefinition definition = roles.get(rs.getString("role"));
+                if (definition == null) {
+                    return null;
+                }
+                return new UserSession(
+                        rs.getLong("user_id"),
+                        rs.getString("username"),
+                        definition.name(),
+                        rs.getString("full_name"),
+                        rs.getString("email"),
+                        definition.permissions(),
+                        Instant.now());
+            }
+        }
+    }
+
+    /**
+     * Deletes {@code token}; unknown tokens are ignored.
+     */
+    public void revoke(String token) throws SQLException {
+        try (ConnectionPool.PooledConnection connection = pool.borrow()) {
+            ensureTable(connection);
+            PreparedStatement statement = connection.prepareCached(DELETE);
+            statement.setString(1, hash(token));
+            statement.executeUpdate();
+        }
+    }
+
+    // Once per process; a fresh database has no remember_tokens table yet
+    private void ensureTable(ConnectionPool.PooledConnection connection) throws SQLException {
+        if (tableReady) {
+            return;
+        }
+        try (Statement statement = connection.connection().createStatement()) {
+            statement.execute(CREATE_TABLE);
+        }
+        tableReady = true;
+    }
+
+    static String hash(String token) {
+        try {
+            MessageDigest digest = MessageDigest.getInstance("SHA-256");
+            return HexFormat.of().formatHex(digest.digest(token.getBytes(StandardCharsets.UTF_8)));
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 not available", e);
+        }
+    }
+}
@@ -0,0 +1,195 @@
+package dillauniversity.dao;
+
+import dillauniversity.database.ConnectionPool;
+import dillauniversity.logging.Log;
+import dillauniversity.logging.Logger;
+import dillauniversity.model.UserSession;
+import dillauniversity.roles.RoleDefinition;
+import dillauniversity.roles.RoleRegistry;
+import dillauniversity.security.PasswordHasher;
+import dillauniversity.security.PasswordVerifier;
+
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.time.Instant;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+
+/**
+ * Login lookup backed by the shared {@link ConnectionPool}.
+ *
+ * Unlike creating a new UserDAO per attempt, one instance of this class is shared
+ * by every login: each call borrows a pooled connection and reuses the prepared
+ * statement cached on it, so a login costs one query and no connection setup.
+ *
+ * The connection is returned before the password is checked. Hash verification
+ * runs on the {@link PasswordVerifier} pool, and a stored hash that uses an older
+ * scheme or cost (including legacy digests and plaintext) is replaced in the
+ * background after a successful login.
+ */
+public class UserAuthDAO {
+
+    private static final Logger LOG = Log.get(UserAuthDAO.class);
+
+    // Pulls the profile columns along with the credentials so the session can be
+    // built from this one row
+    static final String AUTH_QUERY =
+            "SELECT user_id, password, role, full_name, email FROM users WHERE username = ?";
+
+    // What a cached login was verified against. With an index on
+    // (username, password, role) this is answered from the index alone.
+    static final String STAMP_QUERY = "SELECT password, role FROM users WHERE username = ?";
+
+    // Only replaces the hash that was verified, so a concurrent password change wins
+    static final String REHASH_UPDATE =
+            "UPDATE users SET password = ? WHERE user_id = ? AND password = ?";
+
+    private static final UserAuthDAO SHARED = new UserAuthDAO(
+            ConnectionPool.shared(), PasswordVerifier.shared(), RoleRegistry.shared());
+
+    private final ConnectionPool pool;
+    private final PasswordVerifier verifier;
+    private final RoleRegistry roles;
+
+    /**
+     * DAO for a standalone pool (e.g. benchmarks); it checks against the built-in
+     * roles rather than loading them from {@code pool}.
+     */
+    public UserAuthDAO(ConnectionPool pool) {
+        this(pool, PasswordVerifier.shared(), new RoleRegistry(pool));
+    }
+
+    public UserAuthDAO(ConnectionPool pool, PasswordVerifier verifier, RoleRegistry roles) {
+        this.pool = pool;
+        this.verifier = verifier;
+        this.roles = roles;
+    }
+
+    public static UserAuthDAO shared() {
+        return SHARED;
+    }
+
+    public boolean authenticateUser(String username, String password, String role)
+            throws SQLException, InterruptedException {
+        return authenticate(username, password, role) != null;
+    }
+
+    /**
+     * Verifies the credentials and returns the session for the user, or
+     * {@code null} when the username, password or role does not match.
+     */
+    public UserSession authenticate(String username, String password, String role)
+            throws SQLException, InterruptedException {
+        StoredUser user = find(username);
+        if (user == null) {
+            await(verifier.verifyNothing(password));
+            return null;
+        }
+        // Roles missing from the registry cannot log in: they have no dashboard
+        RoleDefinition definition = roles.get(user.role());
+        boolean matches = await(verifier.verify(password, user.passwordHash()))
+                && definition != null && definition.name().equalsIgnoreCase(role);
+        if (!matches) {
+            if (PasswordHasher.formatOf(user.passwordHash()) == PasswordHasher.Format.UNSUPPORTED) {
+                // Such users cannot sign in until their password is reset
+                LOG.warn("password.unsupported_format", "userId", user.userId());
+            }
+            return null;
+        }
+        upgradeHash(user, password);
+        return new UserSession(
+                user.userId(),
+                username,
+                definition.name(),
+                user.fullName(),
+                user.email(),
+                definition.permissions(),
+                Instant.now());
+    }
+
+    /**
+     * The user's stored password hash and role as one opaque string, or {@code null}
+     * for an unknown user. It changes with every password change, hash upgrade and
+     * role change; {@link dillauniversity.service.AuthCache} uses it to tell whether
+     * a cached login is still valid.
+     */
+    public String credentialStamp(String username) throws SQLException {
+        try (ConnectionPool.PooledConnection connection = pool.borrow()) {
+            PreparedStatement statement = connection.prepareCached(STAMP_QUERY);
+            statement.setString(1, username);
+            try (ResultSet rs = statement.executeQuery()) {
+                return rs.next() ? rs.getString(1) + '\n' + rs.getString(2) : null;
+            }
+        }
+    }
+
+    private StoredUser find(String username) throws SQLException {
+        try (ConnectionPool.PooledConnection connection = pool.borrow()) {
+            PreparedStatement statement = connection.prepareCached(AUTH_QUERY);
+            statement.setString(1, username);
+            try (ResultSet rs = statement.executeQuery()) {
+                if (!rs.next()) {
+                    return null;
+                }
+                return new StoredUser(
+                        rs.getLong("user_id"),
+                        rs.getString("password"),
+                        rs.getString("role"),
+                        rs.getString("full_name"),
+                        rs.getString("email"));
+            }
+        }
+    }
+
+    private void upgradeHash(StoredUser user, String password) {
+        try {
+            verifier.rehashIfNeeded(password, user.passwordHash())
+                    .thenAccept(newHash -> {
+                        if (newHash != null) {
+                            storeHash(user, newHash);
+                        }
+                    })
+                    .exceptionally(error -> {
+                        LOG.warn("password.rehash_failed", error, "userId", user.userId());
+                        return null;
+                    });
+        } catch (RuntimeException e) {
+            // Pool saturated; the next login will try again
+            LOG.debug("password.rehash_skipped", "userId", user.userId());
+        }
+    }
+
+    private void storeHash(StoredUser user, String newHash) {
+        try (ConnectionPool.PooledConnection connection = pool.borrow()) {
+            PreparedStatement statement = connection.prepareCached(REHASH_UPDATE);
+            statement.setString(1, newHash);
+            statement.setLong(2, user.userId());
+            statement.setString(3, user.passwordHash());
+            if (statement.executeUpdate() == 1) {
+                LOG.info("password.rehashed", "userId", user.userId());
+            }
+        } catch (SQLException e) {
+            LOG.warn("password.rehash_failed", e, "userId", user.userId());
+        }
+    }
+
+    private static <T> T await(CompletableFuture<T> future) throws InterruptedException {
+        try {
+            return future.get();
+        } catch (InterruptedException e) {
+            // The login was cancelled or timed out; drop the queued hash as well
+            future.cancel(true);
+            throw e;
+        } catch (ExecutionException e) {
+            Throwable cause = e.getCause();
+            if (cause instanceof RuntimeException) {
+                throw (RuntimeException) cause;
+            }
+            throw new IllegalStateException(cause);
+        }
+    }
+
+    private record StoredUser(long userId, String passwordHash, String role, String fullName, String email) {
+    }
+}
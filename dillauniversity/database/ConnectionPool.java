@@ -0,0 +1,460 @@
+package dillauniversity.database;
+
+import dillauniversity.logging.Log;
+import dillauniversity.logging.Logger;
+
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Proxy;
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.sql.SQLTimeoutException;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Properties;
+import java.util.concurrent.ConcurrentLinkedDeque;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Shared JDBC connection pool.
+ *
+ * Keeps between {@code minSize} and {@code maxSize} physical connections, validates
+ * a connection before handing it out, closes connections that sat idle longer than
+ * {@code idleTimeoutMillis} (never going below {@code minSize}) and caches prepared
+ * statements per connection so hot queries such as the login lookup are parsed once.
+ *
+ * Opening a connection to a networked database is bounded by
+ * {@code connectTimeoutMillis} (see {@link #open}), which must be
+ * shorter than the borrow timeout, so a borrow that has to open a connection to an
+ * unreachable server cannot outlast the login timeout.
+ *
+ * Settings are read from system properties (see {@link #fromSystemProperties()}), so
+ * the same code runs against MySQL in the labs and an embedded database such as
+ * {@code jdbc:h2:mem:dilla;DB_CLOSE_DELAY=-1} on a developer machine.
+ */
+public final class ConnectionPool {
+
+    private static final Logger LOG = Log.get(ConnectionPool.class);
+
+    private static final String DEFAULT_URL = "jdbc:mysql://localhost:3306/dillauniversity";
+    private static final int VALIDATION_TIMEOUT_SECONDS = 2;
+
+    private static volatile ConnectionPool shared;
+
+    private final String url;
+    private final String user;
+    private final String password;
+    private final int minSize;
+    private final int maxSize;
+    private final long idleTimeoutMillis;
+    private final long borrowTimeoutMillis;
+    private final long connectTimeoutMillis;
+    private final int statementCacheSize;
+
+    private final Semaphore permits;
+    private final ConcurrentLinkedDeque<PooledConnection> idle = new ConcurrentLinkedDeque<>();
+    private final AtomicInteger totalConnections = new AtomicInteger();
+    private final AtomicInteger activeConnections = new AtomicInteger();
+    private final ScheduledExecutorService housekeeper;
+    private volatile boolean closed;
+
+    // Metrics
+    private final LongAdder borrowCount = new LongAdder();
+    private final LongAdder borrowWaitNanos = new LongAdder();
+    private final AtomicLong maxBorrowWaitNanos = new AtomicLong();
+    private final LongAdder borrowTimeouts = new LongAdder();
+    private final LongAdder createdCount = new LongAdder();
+    private final LongAdder destroyedCount = new LongAdder();
+    private final LongAdder validationFailures = new LongAdder();
+    private final LongAdder statementCacheHits = new LongAdder();
+    private final LongAdder statementCacheMisses = new LongAdder();
+
+    public ConnectionPool(String url, String user, String password, int minSize, int maxSize,
+                          long idleTimeoutMillis, long borrowTimeoutMillis, int statementCacheSize) {
+        this(url, user, password, minSize, maxSize, idleTimeoutMillis, borrowTimeoutMillis,
+                defaultConnectTimeout(borrowTimeoutMillis), statementCacheSize);
+    }
+
+    public ConnectionPool(String url, String user, String password, int minSize, int maxSize,
+                          long idleTimeoutMillis, long borrowTimeoutMillis, long connectTimeoutMillis,
+                          int statementCacheSize) {
+        if (minSize < 0 || maxSize < 1 || minSize > maxSize) {
+            throw new IllegalArgumentException("Invalid pool size: min=" + minSize + ", max=" + maxSize);
+        }
+        if (connectTimeoutMillis <= 0 || connectTimeoutMillis >= borrowTimeoutMillis) {
+            throw new IllegalArgumentException("Connect timeout must be positive and shorter than the borrow "
+                    + "timeout: connect=" + connectTimeoutMillis + ", borrow=" + borrowTimeoutMillis);
+        }
+        this.url = url;
+        this.user = user;
+        this.password = password;
+        this.minSize = minSize;
+        this.maxSize = maxSize;
+        this.idleTimeoutMillis = idleTimeoutMillis;
+        this.borrowTimeoutMillis = borrowTimeoutMillis;
+        this.connectTimeoutMillis = connectTimeoutMillis;
+        // At least one slot: callers never close cached statements themselves
+        this.statementCacheSize = Math.max(1, statementCacheSize);
+        this.permits = new Semaphore(maxSize, true);
+
+        this.housekeeper = Executors.newSingleThreadScheduledExecutor(r -> {
+            Thread thread = new Thread(r, "db-pool-housekeeper");
+            thread.setDaemon(true);
+            return thread;
+        });
+        long period = Math.max(1_000L, idleTimeoutMillis / 2);
+        housekeeper.scheduleWithFixedDelay(this::evictIdle, period, period, TimeUnit.MILLISECONDS);
+    }
+
+    /**
+     * Builds a pool from {@code dillauniversity.db.*} system properties.
+     */
+    public static ConnectionPool fromSystemProperties() {
+        long borrowTimeout = Long.getLong("dillauniversity.db.pool.borrowTimeoutMs", 5_000L);
+        return new ConnectionPool(
+                System.getProperty("dillauniversity.db.url", DEFAULT_URL),
+                System.getProperty("dillauniversity.db.user", "root"),
+                System.getProperty("dillauniversity.db.password", ""),
+                Integer.getInteger("dillauniversity.db.pool.min", 1),
+                Integer.getInteger("dillauniversity.db.pool.max", 8),
+                Long.getLong("dillauniversity.db.pool.idleTimeoutMs", 300_000L),
+                borrowTimeout,
+                Long.getLong("dillauniversity.db.pool.connectTimeoutMs", defaultConnectTimeout(borrowTimeout)),
+                Integer.getInteger("dillauniversity.db.pool.statementCache", 32));
+    }
+
+    /**
+     * Process-wide pool shared by the DAOs and {@code DatabaseConnection}.
+     */
+    public static ConnectionPool shared() {
+        ConnectionPool pool = shared;
+        if (pool == null) {
+            synchronized (ConnectionPool.class) {
+                pool = shared;
+                if (pool == null) {
+                    pool = fromSystemProperties();
+                    shared = pool;
+                }
+            }
+        }
+        return pool;
+    }
+
+    /**
+     * Borrows a validated connection. Close the returned handle to give it back.
+     *
+     * @throws SQLTimeoutException if no connection became free within the borrow timeout
+     */
+    public PooledConnection borrow() throws SQLException {
+        if (closed) {
+            throw new SQLException("Connection pool is closed");
+        }
+
+        long start = System.nanoTime();
+        try {
+            if (!permits.tryAcquire(borrowTimeoutMillis, TimeUnit.MILLISECONDS)) {
+                borrowTimeouts.increment();
+                throw new SQLTimeoutException("Timed out after " + borrowTimeoutMillis
+                        + " ms waiting for a database connection (active=" + getActiveCount() + ")");
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new SQLException("Interrupted while waiting for a database connection", e);
+        }
+        recordWait(System.nanoTime() - start);
+
+        try {
+            PooledConnection connection;
+            while ((connection = idle.pollFirst()) != null) {
+                if (isUsable(connection)) {
+                    break;
+                }
+                validationFailures.increment();
+                destroy(connection);
+            }
+            if (connection == null) {
+                connection = create();
+            }
+            connection.leased = true;
+            activeConnections.incrementAndGet();
+            return connection;
+        } catch (SQLException | RuntimeException e) {
+            permits.release();
+            throw e;
+        }
+    }
+
+    /**
+     * Plain {@link Connection} view for callers that expect JDBC's API. Calling
+     * {@code close()} on it returns the connection to the pool.
+     */
+    public Connection getConnection() throws SQLException {
+        PooledConnection pooled = borrow();
+        Connection raw = pooled.connection;
+        // Per-handle flag: the PooledConnection may already be leased to someone else
+        // by the time a caller closes this view a second time.
+        AtomicBoolean returned = new AtomicBoolean();
+        return (Connection) Proxy.newProxyInstance(
+                ConnectionPool.class.getClassLoader(),
+                new Class<?>[] {Connection.class},
+                (proxy, method, args) -> {
+                    switch (method.getName()) {
+                        case "close":
+                            if (returned.compareAndSet(false, true)) {
+                                pooled.close();
+                            }
+                            return null;
+                        case "isClosed":
+                            return returned.get() || raw.isClosed();
+                        default:
+                            if (returned.get()) {
+                                throw new SQLException("Connection has already been returned to the pool");
+                            }
+                            try {
+                                return method.invoke(raw, args);
+                            } catch (InvocationTargetException e) {
+                                throw e.getCause();
+                            }
+                    }
+                });
+    }
+
+    public PoolStats getStats() {
+        long borrows = borrowCount.sum();
+        return new PoolStats(
+                getActiveCount(),
+                getIdleCount(),
+                totalConnections.get(),
+                maxSize,
+                permits.getQueueLength(),
+                borrows,
+                borrows == 0 ? 0 : borrowWaitNanos.sum() / borrows,
+                maxBorrowWaitNanos.get(),
+                borrowTimeouts.sum(),
+                createdCount.sum(),
+                destroyedCount.sum(),
+                validationFailures.sum(),
+                statementCacheHits.sum(),
+                statementCacheMisses.sum());
+    }
+
+    public int getActiveCount() {
+        return activeConnections.get();
+    }
+
+    public int getIdleCount() {
+        return idle.size();
+    }
+
+    public void close() {
+        closed = true;
+        housekeeper.shutdownNow();
+        PooledConnection connection;
+        while ((connection = idle.pollFirst()) != null) {
+            destroy(connection);
+        }
+    }
+
+    private void release(PooledConnection connection) {
+        if (!connection.leased) {
+            return;
+        }
+        connection.leased = false;
+        activeConnections.decrementAndGet();
+        try {
+            if (closed || !resetState(connection)) {
+                destroy(connection);
+            } else {
+                connection.lastUsedNanos = System.nanoTime();
+                // LIFO keeps the hottest connections busy and lets the rest age out
+                idle.offerFirst(connection);
+            }
+        } finally {
+            permits.release();
+        }
+    }
+
+    private boolean resetState(PooledConnection connection) {
+        try {
+            Connection raw = connection.connection;
+            if (raw.isClosed()) {
+                return false;
+            }
+            if (!raw.getAutoCommit()) {
+                raw.rollback();
+                raw.setAutoCommit(true);
+            }
+            return true;
+        } catch (SQLException e) {
+            return false;
+        }
+    }
+
+    private boolean isUsable(PooledConnection connection) {
+        try {
+            return connection.connection.isValid(VALIDATION_TIMEOUT_SECONDS);
+        } catch (SQLException e) {
+            return false;
+        }
+    }
+
+    private PooledConnection create() throws SQLException {
+        Connection raw = open(url, user, password, connectTimeoutMillis);
+        totalConnections.incrementAndGet();
+        createdCount.increment();
+        return new PooledConnection(raw);
+    }
+
+    /**
+     * Opens a physical connection outside any pool, giving up after
+     * {@code connectTimeoutMillis}. The timeout is passed as the driver's own
+     * connection property, never through the process-wide
+     * {@link DriverManager#setLoginTimeout}, which would change it for every other
+     * JDBC user in the JVM. Drivers not listed here (H2 and other embedded
+     * databases, which open no socket) get no timeout, since some reject unknown
+     * properties.
+     */
+    static Connection open(String url, String user, String password, long connectTimeoutMillis)
+            throws SQLException {
+        Properties properties = new Properties();
+        properties.setProperty("user", user);
+        properties.setProperty("password", password);
+        String seconds = Long.toString(Math.max(1, TimeUnit.MILLISECONDS.toSeconds(connectTimeoutMillis)));
+        if (url.startsWith("jdbc:mysql:") || url.startsWith("jdbc:mariadb:")) {
+            properties.setProperty("connectTimeout", Long.toString(connectTimeoutMillis));
+        } else if (url.startsWith("jdbc:postgresql:")) {
+            properties.setProperty("connectTimeout", seconds);
+            properties.setProperty("loginTimeout", seconds);
+        } else if (url.startsWith("jdbc:sqlserver:")) {
+            properties.setProperty("loginTimeout", seconds);
+        }
+        return DriverManager.getConnection(url, properties);
+    }
+
+    /**
+     * A new physical connection with the pool's settings that is not part of the
+     * pool, for callers that must not compete with pooled borrowers.
+     */
+    Connection openUnpooled() throws SQLException {
+        return open(url, user, password, connectTimeoutMillis);
+    }
+
+    private static long defaultConnectTimeout(long borrowTimeoutMillis) {
+        return Math.max(1, Math.min(3_000L, borrowTimeoutMillis / 2));
+    }
+
+    private void destroy(PooledConnection connection) {
+        connection.closeStatements();
+        try {
+            connection.connection.close();
+        } catch (SQLException ignored) {
+            // Connection is being discarded anyway
+        }
+        totalConnections.decrementAndGet();
+        destroyedCount.increment();
+    }
+
+    private void evictIdle() {
+        long now = System.nanoTime();
+        long idleLimit = TimeUnit.MILLISECONDS.toNanos(idleTimeoutMillis);
+        // Oldest idle connections sit at the tail of the deque
+        Iterator<PooledConnection> it = idle.descendingIterator();
+        while (it.hasNext() && totalConnections.get() > minSize) {
+            PooledConnection connection = it.next();
+            if (now - connection.lastUsedNanos > idleLimit && idle.remove(connection)) {
+                destroy(connection);
+            }
+        }
+        try {
+            while (!closed && totalConnections.get() < minSize) {
+                PooledConnection connection = create();
+                connection.lastUsedNanos = System.nanoTime();
+                idle.offerLast(connection);
+            }
+        } catch (SQLException e) {
+            LOG.warn("db.pool.topup_failed", e, "minSize", minSize);
+        }
+    }
+
+    private void recordWait(long nanos) {
+        borrowCount.increment();
+        borrowWaitNanos.add(nanos);
+        maxBorrowWaitNanos.accumulateAndGet(nanos, Math::max);
+    }
+
+    /**
+     * A leased connection. Not thread-safe: use it from the thread that borrowed it
+     * and close it when done.
+     */
+    public final class PooledConnection implements AutoCloseable {
+        private final Connection connection;
+        private final LinkedHashMap<String, PreparedStatement> statements;
+        private volatile boolean leased;
+        private volatile long lastUsedNanos = System.nanoTime();
+
+        private PooledConnection(Connection connection) {
+            this.connection = connection;
+            this.statements = new LinkedHashMap<>(16, 0.75f, true) {
+                @Override
+                protected boolean removeEldestEntry(Map.Entry<String, PreparedStatement> eldest) {
+                    if (size() > statementCacheSize) {
+                        closeQuietly(eldest.getValue());
+                        return true;
+                    }
+                    return false;
+                }
+            };
+        }
+
+        public Connection connection() {
+            return connection;
+        }
+
+        /**
+         * Returns a prepared statement for {@code sql}, reusing the one prepared
+         * earlier on this connection when possible. Do not close the returned
+         * statement; it belongs to the pool.
+         */
+        public PreparedStatement prepareCached(String sql) throws SQLException {
+            PreparedStatement statement = statements.get(sql);
+            if (statement != null && !statement.isClosed()) {
+                statementCacheHits.increment();
+                statement.clearParameters();
+                return statement;
+            }
+            statementCacheMisses.increment();
+            statement = connection.prepareStatement(sql);
+            statements.put(sql, statement);
+            return statement;
+        }
+
+        @Override
+        public void close() {
+            release(this);
+        }
+
+        private void closeStatements() {
+            for (PreparedStatement statement : statements.values()) {
+                closeQuietly(statement);
+            }
+            statements.clear();
+        }
+
+        private void closeQuietly(PreparedStatement statement) {
+            try {
+                statement.close();
+            } catch (SQLException ignored) {
+                // Nothing useful to do with a failed close
+            }
+        }
+    }
+}
@@ -0,0 +1,381 @@
+package dillauniversity.database;
+
+import dillauniversity.logging.Log;
+import dillauniversity.logging.Logger;
+import dillauniversity.metrics.LoginMetrics;
+
+import java.io.IOException;
+import java.net.ConnectException;
+import java.net.NoRouteToHostException;
+import java.net.SocketTimeoutException;
+import java.net.URI;
+import java.net.UnknownHostException;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.net.http.HttpTimeoutException;
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.sql.SQLNonTransientConnectionException;
+import java.sql.SQLTimeoutException;
+import java.sql.SQLTransientConnectionException;
+import java.time.Duration;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.function.Consumer;
+
+/**
+ * Checks database reachability in the background and caches the result.
+ *
+ * The first check runs as soon as {@link #start()} is called, so the login window
+ * never waits on it. While the database is up it is re-checked every
+ * {@code intervalMillis}; after a failure the delay starts at
+ * {@code minBackoffMillis} and doubles up to {@code maxBackoffMillis}.
+ *
+ * Only a failure to reach the database (SQLState class 08, refused or unresolvable
+ * host) marks it {@link State#DOWN}, which makes logins fail fast. A check that
+ * times out or fails for another reason is inconclusive: a saturated or slow
+ * database is load, not an outage, so the state stays as it was (a DOWN database
+ * goes back to UNKNOWN so logins are tried again) and the next check backs off.
+ * The direct probe opens a short-lived connection outside the pool for each check,
+ * so it never waits behind login queries for a pooled connection and holds no
+ * connection on the server between checks.
+ *
+ * Listeners are called on the monitor thread; UI code must hop to the FX thread.
+ *
+ * When the client logs in through the auth server ({@code dillauniversity.auth.url}),
+ * the shared monitor checks the server's {@code /v1/health} instead, which reports
+ * the server's own database check. The client then opens no database connection
+ * just to show the status.
+ */
+public final class DatabaseHealthMonitor {
+
+    private static final Logger LOG = Log.get(DatabaseHealthMonitor.class);
+
+    public enum State { UNKNOWN, UP, DOWN }
+
+    /**
+     * One reachability check; throws when the database is not usable.
+     */
+    @FunctionalInterface
+    public interface Probe {
+        void check(long timeoutMillis) throws Exception;
+
+        /**
+         * Releases whatever the probe holds open; called from {@link #stop()}.
+         */
+        default void close() {
+        }
+    }
+
+    /**
+     * Result of the most recent check.
+     */
+    public record Status(State state, long checkedAtMillis, long latencyMillis, String error) {
+        public boolean isUp() {
+            return state == State.UP;
+        }
+
+        public boolean isDown() {
+            return state == State.DOWN;
+        }
+    }
+
+    private static final DatabaseHealthMonitor SHARED = new DatabaseHealthMonitor(
+            defaultProbe(),
+            Long.getLong("dillauniversity.db.health.timeoutMs", 3_000L),
+            Long.getLong("dillauniversity.db.health.intervalMs", 30_000L),
+            Long.getLong("dillauniversity.db.health.minBackoffMs", 2_000L),
+            Long.getLong("dillauniversity.db.health.maxBackoffMs", 60_000L));
+
+    private final Probe probe;
+    private final long checkTimeoutMillis;
+    private final long intervalMillis;
+    private final long minBackoffMillis;
+    private final long maxBackoffMillis;
+    private final LoginMetrics metrics = LoginMetrics.shared();
+
+    private final ScheduledExecutorService scheduler = Executors.newSingleThreadScheduledExecutor(r -> {
+        Thread thread = new Thread(r, "db-health-monitor");
+        thread.setDaemon(true);
+        return thread;
+    });
+    // Separate thread for the check itself so a hung driver cannot block the scheduler
+    private final ExecutorService probeExecutor = Executors.newSingleThreadExecutor(r -> {
+        Thread thread = new Thread(r, "db-health-probe");
+        thread.setDaemon(true);
+        return thread;
+    });
+    private final List<Consumer<Status>> listeners = new CopyOnWriteArrayList<>();
+    private final AtomicBoolean started = new AtomicBoolean();
+    private final AtomicBoolean checking = new AtomicBoolean();
+
+    private volatile Status status = new Status(State.UNKNOWN, 0, 0, null);
+    private volatile CompletableFuture<Void> probeInFlight;
+    private volatile long currentBackoffMillis;
+    private ScheduledFuture<?> nextCheck;
+
+    /**
+     * Checks the database behind {@code pool} on a dedicated connection of its own.
+     */
+    public DatabaseHealthMonitor(ConnectionPool pool, long checkTimeoutMillis, long intervalMillis,
+                                 long minBackoffMillis, long maxBackoffMillis) {
+        this(new ConnectionProbe(pool), checkTimeoutMillis, intervalMillis, minBackoffMillis, maxBackoffMillis);
+    }
+
+    public DatabaseHealthMonitor(Probe probe, long checkTimeoutMillis, long intervalMillis,
+                                 long minBackoffMillis, long maxBackoffMillis) {
+        this.probe = probe;
+        this.checkTimeoutMillis = checkTimeoutMillis;
+        this.intervalMillis = intervalMillis;
+        this.minBackoffMillis = minBackoffMillis;
+        this.maxBackoffMillis = maxBackoffMillis;
+        this.currentBackoffMillis = minBackoffMillis;
+    }
+
+    public static DatabaseHealthMonitor shared() {
+        return SHARED;
+    }
+
+    private static Probe defaultProbe() {
+        String authUrl = System.getProperty("dillauniversity.auth.url");
+        if (authUrl == null || authUrl.isBlank()) {
+            return new ConnectionProbe(null);
+        }
+        URI health = URI.create(authUrl).resolve("/v1/health");
+        HttpClient http = HttpClient.newBuilder().version(HttpClient.Version.HTTP_1_1).build();
+        // Logins fall back to the database while the server is down, so check that instead
+        boolean fallback = !"none".equalsIgnoreCase(System.getProperty("dillauniversity.auth.fallback", "direct"));
+        ConnectionProbe direct = fallback ? new ConnectionProbe(null) : null;
+        return new Probe() {
+            @Override
+            public void check(long timeout) throws Exception {
+                HttpResponse<Void> response;
+                try {
+                    response = http.send(HttpRequest.newBuilder(health).timeout(Duration.ofMillis(timeout))
+                            .GET().build(), HttpResponse.BodyHandlers.discarding());
+                } catch (HttpTimeoutException e) {
+                    throw e;
+                } catch (IOException e) {
+                    if (direct == null) {
+                        throw e;
+                    }
+                    direct.check(timeout);
+                    return;
+                }
+                if (response.statusCode() == 503) {
+                    throw new SQLTransientConnectionException("Auth server reports the database unavailable",
+                            "08001");
+                }
+                if (response.statusCode() != 200) {
+                    throw new IllegalStateException("Auth server reports status " + response.statusCode());
+                }
+            }
+        };
+    }
+
+    /**
+     * Starts background monitoring. Safe to call more than once.
+     */
+    public void start() {
+        if (started.compareAndSet(false, true)) {
+            schedule(0);
+        }
+    }
+
+    public void stop() {
+        started.set(false);
+        scheduler.shutdownNow();
+        probeExecutor.shutdownNow();
+        probe.close();
+    }
+
+    public Status getStatus() {
+        return status;
+    }
+
+    /**
+     * True only when the last check failed; an unknown state is not treated as down.
+     */
+    public boolean isKnownDown() {
+        return status.isDown();
+    }
+
+    /**
+     * Runs a check as soon as possible instead of waiting for the next scheduled one.
+     * Ignored when the last check finished less than {@code minBackoffMillis} ago.
+     */
+    public void checkNow() {
+        if (started.get() && System.currentTimeMillis() - status.checkedAtMillis() >= minBackoffMillis) {
+            schedule(0);
+        }
+    }
+
+    /**
+     * Lets callers that saw a connection failure mark the database down right away.
+     */
+    public void reportFailure(Throwable error) {
+        update(new Status(State.DOWN, System.currentTimeMillis(), 0, describe(error)));
+    }
+
+    public void addListener(Consumer<Status> listener) {
+        listeners.add(listener);
+    }
+
+    public void removeListener(Consumer<Status> listener) {
+        listeners.remove(listener);
+    }
+
+    private synchronized void schedule(long delayMillis) {
+        if (scheduler.isShutdown()) {
+            return;
+        }
+        if (nextCheck != null) {
+            nextCheck.cancel(false);
+        }
+        nextCheck = scheduler.schedule(this::runCheck, delayMillis, TimeUnit.MILLISECONDS);
+    }
+
+    private void runCheck() {
+        if (!checking.compareAndSet(false, true)) {
+            return;
+        }
+        long start = System.currentTimeMillis();
+        long startNanos = System.nanoTime();
+        Status result;
+        try {
+            // A probe stuck in the driver from an earlier round is waited on again
+            // rather than piling up another one behind it
+            CompletableFuture<Void> pending = probeInFlight;
+            if (pending == null || pending.isDone()) {
+                pending = CompletableFuture.supplyAsync(this::runProbe, probeExecutor);
+                probeInFlight = pending;
+            }
+            pending.get(checkTimeoutMillis, TimeUnit.MILLISECONDS);
+            result = new Status(State.UP, System.currentTimeMillis(), System.currentTimeMillis() - start, null);
+        } catch (TimeoutException e) {
+            result = inconclusive(checkTimeoutMillis, "No response within " + checkTimeoutMillis + " ms");
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return;
+        } catch (Exception e) {
+            Throwable cause = e.getCause() != null ? e.getCause() : e;
+            long latency = System.currentTimeMillis() - start;
+            result = isConnectionFailure(cause)
+                    ? new Status(State.DOWN, System.currentTimeMillis(), latency, describe(cause))
+                    : inconclusive(latency, describe(cause));
+        } finally {
+            checking.set(false);
+        }
+
+        metrics.recordDbHealthCheck(System.nanoTime() - startNanos);
+        update(result);
+        if (result.isUp()) {
+            currentBackoffMillis = minBackoffMillis;
+            schedule(intervalMillis);
+        } else {
+            long delay = currentBackoffMillis;
+            currentBackoffMillis = Math.min(maxBackoffMillis, currentBackoffMillis * 2);
+            schedule(delay);
+        }
+    }
+
+    private Void runProbe() {
+        try {
+            probe.check(checkTimeoutMillis);
+            return null;
+        } catch (RuntimeException e) {
+            throw e;
+        } catch (Exception e) {
+            throw new IllegalStateException(e.getMessage(), e);
+        }
+    }
+
+    // Keeps the previous state, except that a DOWN database is no longer known to be down
+    private Status inconclusive(long latencyMillis, String error) {
+        State previous = status.state();
+        LOG.info("db.health.inconclusive", "state", previous, "error", error);
+        return new Status(previous == State.DOWN ? State.UNKNOWN : previous, System.currentTimeMillis(),
+                latencyMillis, error);
+    }
+
+    /**
+     * True when {@code error}, or anything in its cause chain, means the database
+     * could not be reached at all. Timeouts never count.
+     */
+    public static boolean isConnectionFailure(Throwable error) {
+        for (Throwable t = error; t != null; t = t.getCause()) {
+            if (t instanceof SQLTimeoutException || t instanceof SocketTimeoutException
+                    || t instanceof HttpTimeoutException) {
+                return false;
+            }
+            if (t instanceof SQLTransientConnectionException || t instanceof SQLNonTransientConnectionException
+                    || t instanceof ConnectException || t instanceof NoRouteToHostException
+                    || t instanceof UnknownHostException) {
+                return true;
+            }
+            if (t instanceof SQLException) {
+                String state = ((SQLException) t).getSQLState();
+                if (state != null && state.startsWith("08")) {
+                    return true;
+                }
+            }
+        }
+        return false;
+    }
+
+    private void update(Status newStatus) {
+        Status previous = status;
+        status = newStatus;
+        if (previous.state() != newStatus.state()) {
+            LOG.info("db.health.changed", "from", previous.state(), "to", newStatus.state(),
+                    "error", newStatus.error());
+        }
+        for (Consumer<Status> listener : listeners) {
+            try {
+                listener.accept(newStatus);
+            } catch (RuntimeException e) {
+                LOG.warn("db.health.listener_failed", e, "state", newStatus.state());
+            }
+        }
+    }
+
+    private static String describe(Throwable error) {
+        return error.getMessage() != null ? error.getMessage() : error.getClass().getSimpleName();
+    }
+
+    /**
+     * Opens a connection outside the pool, validates it and closes it again, so
+     * hundreds of clients do not each keep one open just for health checks.
+     * {@code null} means the shared pool's settings, resolved on the first check.
+     */
+    private static final class ConnectionProbe implements Probe {
+
+        private ConnectionPool pool;
+
+        ConnectionProbe(ConnectionPool pool) {
+            this.pool = pool;
+        }
+
+        @Override
+        public synchronized void check(long timeoutMillis) throws SQLException {
+            int timeoutSeconds = (int) Math.max(1, TimeUnit.MILLISECONDS.toSeconds(timeoutMillis));
+            if (pool == null) {
+                pool = ConnectionPool.shared();
+            }
+            try (Connection connection = pool.openUnpooled()) {
+                if (!connection.isValid(timeoutSeconds)) {
+                    throw new SQLTimeoutException("Connection did not validate within " + timeoutSeconds + " s");
+                }
+            }
+        }
+    }
+}
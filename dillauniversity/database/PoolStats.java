@@ -0,0 +1,32 @@
+package dillauniversity.database;
+
+/**
+ * Point-in-time snapshot of {@link ConnectionPool} metrics.
+ */
+public record PoolStats(
+        int active,
+        int idle,
+        int total,
+        int maxSize,
+        int waitingThreads,
+        long borrowCount,
+        long averageWaitNanos,
+        long maxWaitNanos,
+        long borrowTimeouts,
+        long created,
+        long destroyed,
+        long validationFailures,
+        long statementCacheHits,
+        long statementCacheMisses) {
+
+    @Override
+    public String toString() {
+        return String.format(
+                "active=%d idle=%d total=%d/%d waiting=%d borrows=%d avgWait=%.2fms maxWait=%.2fms "
+                        + "timeouts=%d created=%d destroyed=%d invalid=%d stmtCache=%d/%d",
+                active, idle, total, maxSize, waitingThreads, borrowCount,
+                averageWaitNanos / 1_000_000.0, maxWaitNanos / 1_000_000.0,
+                borrowTimeouts, created, destroyed, validationFailures,
+                statementCacheHits, statementCacheHits + statementCacheMisses);
+    }
+}
@@ -0,0 +1,88 @@
+package dillauniversity.importer;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.file.AtomicMoveNotSupportedException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.util.Properties;
+
+/**
+ * Progress of an import, saved after every committed chunk so a failed or
+ * interrupted run can continue where it stopped.
+ *
+ * A checkpoint only applies to the exact file it was written for: if the source's
+ * size or modification time has changed, the import starts over.
+ */
+final class ImportCheckpoint {
+
+    final long committedRows;
+    final long imported;
+    final long skipped;
+    final long failed;
+
+    ImportCheckpoint(long committedRows, long imported, long skipped, long failed) {
+        this.committedRows = committedRows;
+        this.imported = imported;
+        this.skipped = skipped;
+        this.failed = failed;
+    }
+
+    static Path fileFor(Path source) {
+        return source.resolveSibling(source.getFileName() + ".checkpoint");
+    }
+
+    static ImportCheckpoint load(Path source) throws IOException {
+        Path file = fileFor(source);
+        if (!Files.isRegularFile(file)) {
+            return null;
+        }
+        Properties properties = new Properties();
+        try (InputStream in = Files.newInputStream(file)) {
+            properties.load(in);
+        }
+        if (!fingerprint(source).equals(properties.getProperty("source"))) {
+            return null;
+        }
+        try {
+            return new ImportCheckpoint(
+                    Long.parseLong(properties.getProperty("committedRows")),
+                    Long.parseLong(properties.getProperty("imported")),
+                    Long.parseLong(properties.getProperty("skipped")),
+                    Long.parseLong(properties.getProperty("failed")));
+        } catch (NumberFormatException e) {
+            return null;
+        }
+    }
+
+    void save(Path source) throws IOException {
+        Properties properties = new Properties();
+        properties.setProperty("source", fingerprint(source));
+        properties.setProperty("committedRows", Long.toString(committedRows));
+        properties.setProperty("imported", Long.toString(imported));
+        properties.setProperty("skipped", Long.toString(skipped));
+        properties.setProperty("failed", Long.toString(failed));
+
+        Path file = fileFor(source);
+        Path temp = file.resolveSibling(file.getFileName() + ".tmp");
+        try (OutputStream out = Files.newOutputStream(temp)) {
+            properties.store(out, "User import progress; delete to start over");
+        }
+        try {
+            Files.move(temp, file, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        } catch (AtomicMoveNotSupportedException e) {
+            Files.move(temp, file, StandardCopyOption.REPLACE_EXISTING);
+        }
+    }
+
+    static void delete(Path source) throws IOException {
+        Files.deleteIfExists(fileFor(source));
+    }
+
+    private static String fingerprint(Path source) throws IOException {
+        return source.toAbsolutePath().normalize() + "|" + Files.size(source) + "|"
+                + Files.getLastModifiedTime(source).toMillis();
+    }
+}
@@ -0,0 +1,11 @@
+package dillauniversity.importer;
+
+/**
+ * A CSV row that could not be imported.
+ *
+ * @param line     line in the source file on which the row starts
+ * @param username username from the row, or empty if it had none
+ * @param message  why the row was rejected
+ */
+public record ImportError(long line, String username, String message) {
+}
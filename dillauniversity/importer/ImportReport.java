@@ -0,0 +1,37 @@
+package dillauniversity.importer;
+
+import java.util.List;
+
+/**
+ * Progress or final result of a {@link UserImporter} run.
+ *
+ * Counts cover the whole import, including rows committed by earlier runs that
+ * were resumed from a checkpoint. {@code errors} holds at most the first
+ * {@link UserImporter#MAX_REPORTED_ERRORS} rejected rows of this run; the full list
+ * is written to the errors file next to the source.
+ *
+ * @param rowsRead  data rows read so far (header excluded)
+ * @param imported  rows inserted
+ * @param skipped   rows whose username already existed
+ * @param failed    rows rejected by validation or the database
+ * @param resumedAt data rows skipped because a previous run had committed them
+ * @param completed {@code true} once the whole file has been processed
+ */
+public record ImportReport(long rowsRead, long imported, long skipped, long failed, long resumedAt,
+                           long elapsedMillis, boolean completed, List<ImportError> errors) {
+
+    /**
+     * Rows processed by this run per second of wall-clock time.
+     */
+    public double rowsPerSecond() {
+        long processed = rowsRead - resumedAt;
+        return elapsedMillis == 0 ? 0 : processed * 1000.0 / elapsedMillis;
+    }
+
+    @Override
+    public String toString() {
+        return String.format("read=%d imported=%d skipped=%d failed=%d in %.1fs (%.0f rows/s)%s",
+                rowsRead, imported, skipped, failed, elapsedMillis / 1000.0, rowsPerSecond(),
+                completed ? "" : " [incomplete]");
+    }
+}
@@ -0,0 +1,63 @@
+package dillauniversity.importer;
+
+import dillauniversity.database.ConnectionPool;
+import dillauniversity.roles.RoleRegistry;
+import dillauniversity.security.PasswordVerifier;
+
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.sql.SQLException;
+import java.util.Arrays;
+
+/**
+ * Command-line entry point for term-start imports:
+ * <pre>
+ * java dillauniversity.importer.UserImportTool users.csv [--chunk 500] [--threads N]
+ * </pre>
+ * Connects with the usual {@code dillauniversity.db.*} properties. Run it again
+ * after a failure to continue from the last committed chunk.
+ */
+public final class UserImportTool {
+
+    private UserImportTool() {
+    }
+
+    public static void main(String[] args) throws Exception {
+        if (args.length == 0) {
+            System.err.println("Usage: UserImportTool <users.csv> [--chunk rows] [--threads n]");
+            System.exit(2);
+        }
+        Path csv = Paths.get(args[0]);
+        int chunk = 500;
+        int threads = Runtime.getRuntime().availableProcessors();
+        // args[0] is the file; every option after it takes a value
+        if (args.length % 2 == 0) {
+            throw new IllegalArgumentException("Options take a value: " + Arrays.toString(args));
+        }
+        for (int i = 1; i + 1 < args.length; i += 2) {
+            switch (args[i]) {
+                case "--chunk" -> chunk = Integer.parseInt(args[i + 1]);
+                case "--threads" -> threads = Integer.parseInt(args[i + 1]);
+                default -> throw new IllegalArgumentException("Unknown option: " + args[i]);
+            }
+        }
+
+        // Accept exactly the roles the login form offers
+        RoleRegistry roles = RoleRegistry.shared();
+        try {
+            roles.refresh();
+        } catch (SQLException e) {
+            System.err.println("Role tables unavailable, using built-in roles: " + e.getMessage());
+        }
+        UserImporter importer = new UserImporter(ConnectionPool.shared(), PasswordVerifier.shared().getHasher(),
+                roles.names(), chunk, threads);
+        ImportReport report = importer.importFile(csv, progress ->
+                System.out.printf("%,d rows, %,d failed, %.0f rows/s%n",
+                        progress.rowsRead(), progress.failed(), progress.rowsPerSecond()));
+        System.out.println(report);
+        if (report.failed() > 0) {
+            System.out.println("Rejected rows: " + csv.resolveSibling(csv.getFileName() + ".errors.csv"));
+        }
+        ConnectionPool.shared().close();
+    }
+}
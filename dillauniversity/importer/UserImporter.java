@@ -0,0 +1,420 @@
+package dillauniversity.importer;
+
+import dillauniversity.database.ConnectionPool;
+import dillauniversity.logging.Log;
+import dillauniversity.logging.Logger;
+import dillauniversity.security.PasswordHasher;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.sql.BatchUpdateException;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Bulk-creates accounts from a CSV file, e.g. a term's new students and teachers.
+ *
+ * The file needs a header row with at least {@code username}, {@code password} and
+ * {@code role}; {@code full_name} and {@code email} are optional. It is read
+ * incrementally, one chunk of {@code chunkSize} rows at a time. Passwords of the
+ * next chunk are hashed in parallel while the previous chunk is inserted, so at most
+ * two chunks are in memory.
+ *
+ * Each chunk is written with one JDBC batch and committed on its own. If the batch
+ * fails, the chunk is rolled back and retried row by row, so one bad row does not
+ * reject its neighbours. An existing username counts as skipped, not failed.
+ * Rejected rows are written to {@code <file>.errors.csv}.
+ *
+ * After every commit a checkpoint is saved next to the file. Running the import
+ * again on the same, unchanged file continues after the last committed chunk. If a
+ * run stops between a commit and its checkpoint, that chunk is inserted again and
+ * its rows show up as skipped.
+ */
+public final class UserImporter {
+
+    private static final Logger LOG = Log.get(UserImporter.class);
+
+    public static final int MAX_REPORTED_ERRORS = 1000;
+
+    static final String INSERT_USER =
+            "INSERT INTO users (username, password, role, full_name, email) VALUES (?, ?, ?, ?, ?)";
+
+    private static final int MAX_USERNAME_LENGTH = 64;
+
+    /**
+     * Receives progress after every committed chunk, on the importing thread.
+     */
+    @FunctionalInterface
+    public interface ProgressListener {
+        void onProgress(ImportReport progress);
+    }
+
+    private final ConnectionPool pool;
+    private final PasswordHasher hasher;
+    private final Map<String, String> roles = new HashMap<>();
+    private final int chunkSize;
+    private final int hashThreads;
+
+    /**
+     * @param roles       accepted role names; matched case-insensitively and stored in
+     *                    the spelling given here
+     * @param hashThreads threads used for password hashing during the import
+     */
+    public UserImporter(ConnectionPool pool, PasswordHasher hasher, Collection<String> roles,
+                        int chunkSize, int hashThreads) {
+        this.pool = pool;
+        this.hasher = hasher;
+        for (String role : roles) {
+            this.roles.put(role.toLowerCase(Locale.ROOT), role);
+        }
+        this.chunkSize = Math.max(1, chunkSize);
+        this.hashThreads = Math.max(1, hashThreads);
+    }
+
+    /**
+     * Imports {@code csv}, resuming from its checkpoint if there is one.
+     *
+     * @throws IOException  if the file cannot be read or has no usable header
+     * @throws SQLException if the database fails in a way that is not specific to a
+     *                      row, e.g. the connection is lost; progress up to the last
+     *                      commit is kept
+     */
+    public ImportReport importFile(Path csv, ProgressListener listener)
+            throws IOException, SQLException, InterruptedException {
+        long start = System.nanoTime();
+        ImportCheckpoint checkpoint = ImportCheckpoint.load(csv);
+        Run run = new Run(csv, checkpoint);
+        if (checkpoint != null) {
+            LOG.info("import.resumed", "file", csv.getFileName(), "committedRows", checkpoint.committedRows);
+        }
+
+        ExecutorService hashing = Executors.newFixedThreadPool(hashThreads, new HashThreadFactory());
+        Path errorsFile = csv.resolveSibling(csv.getFileName() + ".errors.csv");
+        try (CsvReader reader = new CsvReader(Files.newBufferedReader(csv, StandardCharsets.UTF_8));
+             BufferedWriter errors = openErrors(errorsFile, checkpoint != null);
+             ConnectionPool.PooledConnection connection = pool.borrow()) {
+            Columns columns = Columns.from(reader.next());
+            connection.connection().setAutoCommit(false);
+
+            Chunk previous = null;
+            while (true) {
+                Chunk chunk = readChunk(reader, columns, run, hashing);
+                if (previous != null) {
+                    write(connection, previous, run, errors);
+                    report(run, start, false, listener);
+                }
+                if (chunk == null) {
+                    break;
+                }
+                previous = chunk;
+            }
+        } finally {
+            hashing.shutdownNow();
+        }
+
+        ImportCheckpoint.delete(csv);
+        ImportReport report = run.report(start, true);
+        LOG.info("import.completed", "file", csv.getFileName(), "result", report);
+        return report;
+    }
+
+    // Returns null once the file is exhausted
+    private Chunk readChunk(CsvReader reader, Columns columns, Run run, ExecutorService hashing)
+            throws IOException {
+        Chunk chunk = new Chunk();
+        Set<String> seen = new HashSet<>();
+        while (chunk.size() < chunkSize) {
+            List<String> record = reader.next();
+            if (record == null) {
+                break;
+            }
+            run.rowsRead++;
+            chunk.lastRow = run.rowsRead;
+            if (run.rowsRead <= run.resumedAt) {
+                continue;
+            }
+            long line = reader.recordLine();
+            Row row;
+            try {
+                row = columns.parse(record, line, roles);
+            } catch (IllegalArgumentException e) {
+                chunk.errors.add(new ImportError(line, columns.username(record), e.getMessage()));
+                continue;
+            }
+            if (!seen.add(row.username.toLowerCase(Locale.ROOT))) {
+                chunk.errors.add(new ImportError(line, row.username, "Duplicate username in this chunk"));
+                continue;
+            }
+            String password = row.password;
+            row.password = null;
+            row.hash = CompletableFuture.supplyAsync(() -> hasher.hash(password), hashing);
+            chunk.rows.add(row);
+        }
+        return chunk.lastRow == 0 ? null : chunk;
+    }
+
+    private void write(ConnectionPool.PooledConnection pooled, Chunk chunk, Run run, BufferedWriter errors)
+            throws SQLException, IOException, InterruptedException {
+        Connection connection = pooled.connection();
+        List<Row> ready = new ArrayList<>(chunk.rows.size());
+        for (Row row : chunk.rows) {
+            try {
+                row.hashed = row.hash.get();
+                ready.add(row);
+            } catch (ExecutionException e) {
+                chunk.errors.add(new ImportError(row.line, row.username, "Hashing failed: " + e.getCause()));
+            }
+        }
+
+        PreparedStatement insert = pooled.prepareCached(INSERT_USER);
+        int imported = 0;
+        int skipped = 0;
+        try {
+            for (Row row : ready) {
+                bind(insert, row);
+                insert.addBatch();
+            }
+            insert.executeBatch();
+            connection.commit();
+            imported = ready.size();
+        } catch (BatchUpdateException e) {
+            insert.clearBatch();
+            connection.rollback();
+            // Find the offending rows one at a time; the rest still go in
+            for (Row row : ready) {
+                try {
+                    bind(insert, row);
+                    insert.executeUpdate();
+                    connection.commit();
+                    imported++;
+                } catch (SQLException rowError) {
+                    connection.rollback();
+                    if (isDuplicateKey(rowError)) {
+                        skipped++;
+                    } else {
+                        chunk.errors.add(new ImportError(row.line, row.username, rowError.getMessage()));
+                    }
+                }
+            }
+        }
+
+        for (ImportError error : chunk.errors) {
+            writeError(errors, error);
+            if (run.errors.size() < MAX_REPORTED_ERRORS) {
+                run.errors.add(error);
+            }
+        }
+        errors.flush();
+
+        run.imported += imported;
+        run.skipped += skipped;
+        run.failed += chunk.errors.size();
+        new ImportCheckpoint(chunk.lastRow, run.imported, run.skipped, run.failed).save(run.csv);
+    }
+
+    private static void bind(PreparedStatement insert, Row row) throws SQLException {
+        insert.setString(1, row.username);
+        insert.setString(2, row.hashed);
+        insert.setString(3, row.role);
+        insert.setString(4, row.fullName);
+        insert.setString(5, row.email);
+    }
+
+    // 23505 is the standard unique violation; MySQL reports 23000 with error 1062
+    private static boolean isDuplicateKey(SQLException e) {
+        String state = e.getSQLState();
+        return "23505".equals(state) || ("23000".equals(state) && e.getErrorCode() == 1062);
+    }
+
+    private void report(Run run, long start, boolean completed, ProgressListener listener) {
+        ImportReport progress = run.report(start, completed);
+        LOG.info("import.progress", "rows", progress.rowsRead(), "failed", progress.failed(),
+                "rowsPerSecond", Math.round(progress.rowsPerSecond()));
+        if (listener != null) {
+            listener.onProgress(progress);
+        }
+    }
+
+    // A resumed import appends to the errors of the interrupted run; a new file
+    // always starts with the header, also when the previous one was deleted
+    private static BufferedWriter openErrors(Path file, boolean append) throws IOException {
+        boolean resume = append && Files.exists(file);
+        BufferedWriter writer = resume
+                ? Files.newBufferedWriter(file, StandardCharsets.UTF_8, StandardOpenOption.APPEND)
+                : Files.newBufferedWriter(file, StandardCharsets.UTF_8);
+        if (!resume) {
+            writer.write("line,username,error\n");
+        }
+        return writer;
+    }
+
+    private static void writeError(BufferedWriter out, ImportError error) throws IOException {
+        out.write(Long.toString(error.line()));
+        out.write(',');
+        out.write(quote(error.username()));
+        out.write(',');
+        out.write(quote(error.message()));
+        out.write('\n');
+    }
+
+    private static String quote(String value) {
+        if (value == null) {
+            return "";
+        }
+        return "\"" + value.replace("\"", "\"\"") + "\"";
+    }
+
+    /**
+     * Column positions taken from the header row.
+     */
+    private record Columns(int username, int password, int role, int fullName, int email) {
+
+        static Columns from(List<String> header) throws IOException {
+            if (header == null) {
+                throw new IOException("File is empty");
+            }
+            Map<String, Integer> index = new HashMap<>();
+            for (int i = 0; i < header.size(); i++) {
+                String name = header.get(i);
+                if (i == 0 && name.startsWith("\uFEFF")) {
+                    // Byte order mark written by Excel's "CSV UTF-8"
+                    name = name.substring(1);
+                }
+                index.put(name.trim().toLowerCase(Locale.ROOT), i);
+            }
+            for (String required : List.of("username", "password", "role")) {
+                if (!index.containsKey(required)) {
+                    throw new IOException("Missing column: " + required);
+                }
+            }
+            return new Columns(index.get("username"), index.get("password"), index.get("role"),
+                    index.getOrDefault("full_name", -1), index.getOrDefault("email", -1));
+        }
+
+        Row parse(List<String> record, long line, Map<String, String> roles) {
+            String name = field(record, username);
+            // Leading or trailing spaces may be part of the password
+            String secret = rawField(record, password);
+            String roleName = field(record, role);
+            if (name.isEmpty()) {
+                throw new IllegalArgumentException("Missing username");
+            }
+            if (name.length() > MAX_USERNAME_LENGTH) {
+                throw new IllegalArgumentException("Username longer than " + MAX_USERNAME_LENGTH + " characters");
+            }
+            if (secret.isBlank()) {
+                throw new IllegalArgumentException("Missing password");
+            }
+            String canonicalRole = roles.get(roleName.toLowerCase(Locale.ROOT));
+            if (canonicalRole == null) {
+                throw new IllegalArgumentException("Unknown role: " + roleName);
+            }
+            return new Row(line, name, secret, canonicalRole, emptyToNull(field(record, fullName)),
+                    emptyToNull(field(record, email)));
+        }
+
+        String username(List<String> record) {
+            return field(record, username);
+        }
+
+        private static String field(List<String> record, int column) {
+            return rawField(record, column).trim();
+        }
+
+        private static String rawField(List<String> record, int column) {
+            return column >= 0 && column < record.size() ? record.get(column) : "";
+        }
+
+        private static String emptyToNull(String value) {
+            return value.isEmpty() ? null : value;
+        }
+    }
+
+    private static final class Row {
+        final long line;
+        final String username;
+        final String role;
+        final String fullName;
+        final String email;
+        String password;
+        CompletableFuture<String> hash;
+        String hashed;
+
+        Row(long line, String username, String password, String role, String fullName, String email) {
+            this.line = line;
+            this.username = username;
+            this.password = password;
+            this.role = role;
+            this.fullName = fullName;
+            this.email = email;
+        }
+    }
+
+    private static final class Chunk {
+        final List<Row> rows = new ArrayList<>();
+        final List<ImportError> errors = new ArrayList<>();
+        long lastRow;
+
+        int size() {
+            return rows.size() + errors.size();
+        }
+    }
+
+    // Totals across this run and any run it resumes
+    private static final class Run {
+        final Path csv;
+        final long resumedAt;
+        final List<ImportError> errors = new ArrayList<>();
+        long rowsRead;
+        long imported;
+        long skipped;
+        long failed;
+
+        Run(Path csv, ImportCheckpoint checkpoint) {
+            this.csv = csv;
+            this.resumedAt = checkpoint != null ? checkpoint.committedRows : 0;
+            if (checkpoint != null) {
+                imported = checkpoint.imported;
+                skipped = checkpoint.skipped;
+                failed = checkpoint.failed;
+            }
+        }
+
+        ImportReport report(long startNanos, boolean completed) {
+            long elapsedMillis = (System.nanoTime() - startNanos) / 1_000_000;
+            return new ImportReport(rowsRead, imported, skipped, failed, resumedAt, elapsedMillis,
+                    completed, List.copyOf(errors));
+        }
+    }
+
+    private static final class HashThreadFactory implements ThreadFactory {
+        private final AtomicInteger counter = new AtomicInteger();
+
+        @Override
+        public Thread newThread(Runnable r) {
+            Thread thread = new Thread(r, "user-import-hash-" + counter.incrementAndGet());
+            thread.setDaemon(true);
+            thread.setPriority(Thread.NORM_PRIORITY - 1);
+            return thread;
+        }
+    }
+}
@@ -0,0 +1,280 @@
+package dillauniversity.logging;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.PrintWriter;
+import java.io.StringWriter;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Writes log events from a background thread.
+ *
+ * Callers only offer the event to a bounded ring buffer and never block: when the
+ * buffer is full the event is dropped and counted, and the count is logged once
+ * there is room again. The writer thread drains events in batches, formats them and
+ * appends to a size-rolled file ({@code client.log}, {@code client.log.1}, ...).
+ */
+final class AsyncAppender {
+
+    private static final int BATCH_SIZE = 256;
+
+    // Queued by close() behind everything still buffered; the writer stops when it gets there
+    private static final LogEvent STOP = new LogEvent(0, Level.INFO, "", "", "", null, null);
+
+    private final Path file;
+    private final long maxBytes;
+    private final int maxFiles;
+    private final boolean console;
+    private final ArrayBlockingQueue<LogEvent> buffer;
+    private final LongAdder dropped = new LongAdder();
+    // flush() waits until every accepted event has been written or dropped
+    private final AtomicLong accepted = new AtomicLong();
+    private final AtomicLong droppedTotal = new AtomicLong();
+    private volatile long written;
+    private final Thread writerThread;
+    private final Object flushLock = new Object();
+
+    private volatile boolean running = true;
+    private Writer writer;
+    private long fileSize;
+
+    AsyncAppender(Path file, long maxBytes, int maxFiles, int bufferSize, boolean console) {
+        this.file = file;
+        this.maxBytes = maxBytes;
+        this.maxFiles = Math.max(1, maxFiles);
+        this.console = console;
+        this.buffer = new ArrayBlockingQueue<>(bufferSize);
+        this.writerThread = new Thread(this::run, "log-writer");
+        writerThread.setDaemon(true);
+        writerThread.setPriority(Thread.NORM_PRIORITY - 1);
+        writerThread.start();
+    }
+
+    void append(LogEvent event) {
+        // Counted before the offer, so the writer can never have written more than was accepted
+        accepted.incrementAndGet();
+        if (!buffer.offer(event)) {
+            dropped.increment();
+            droppedTotal.incrementAndGet();
+        }
+    }
+
+    /**
+     * Blocks until every event queued before this call has been written, for at
+     * most two seconds.
+     */
+    void flush() {
+        long target = accepted.get();
+        synchronized (flushLock) {
+            long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(2);
+            while (written + droppedTotal.get() < target && System.nanoTime() < deadline
+                    && writerThread.isAlive()) {
+                try {
+                    flushLock.wait(20);
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                    return;
+                }
+            }
+        }
+    }
+
+    /**
+     * Writes what is still buffered and stops the writer. The writer is not
+     * interrupted: it appends through a FileChannel, which an interrupt would close
+     * in the middle of the last batch.
+     */
+    void close() {
+        flush();
+        running = false;
+        // When the buffer is full the writer stops anyway once it has drained it
+        buffer.offer(STOP);
+        try {
+            writerThread.join(1000);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    private void run() {
+        List<LogEvent> batch = new ArrayList<>(BATCH_SIZE);
+        StringBuilder line = new StringBuilder(256);
+        boolean stop = false;
+        while (!stop) {
+            LogEvent first;
+            try {
+                first = buffer.poll(500, TimeUnit.MILLISECONDS);
+            } catch (InterruptedException e) {
+                // Only close() stops the writer
+                continue;
+            }
+            if (first == null) {
+                stop = !running;
+                continue;
+            }
+            batch.add(first);
+            buffer.drainTo(batch, BATCH_SIZE - 1);
+            stop = batch.removeIf(event -> event == STOP);
+            try {
+                write(batch, line);
+            } finally {
+                written += batch.size();
+                batch.clear();
+                synchronized (flushLock) {
+                    flushLock.notifyAll();
+                }
+            }
+        }
+        closeWriter();
+    }
+
+    private void write(List<LogEvent> batch, StringBuilder line) {
+        if (batch.isEmpty()) {
+            return;
+        }
+        try {
+            long lost = dropped.sumThenReset();
+            if (lost > 0) {
+                writeLine("logging.dropped", lost, line);
+            }
+            for (LogEvent event : batch) {
+                line.setLength(0);
+                format(event, line);
+                writeRaw(line);
+            }
+            if (writer != null) {
+                writer.flush();
+            }
+        } catch (IOException e) {
+            // Nowhere left to report to but stderr; keep the writer thread alive
+            System.err.println("Log write failed: " + e.getMessage());
+            closeWriter();
+        }
+    }
+
+    private void writeLine(String event, long count, StringBuilder line) throws IOException {
+        line.setLength(0);
+        line.append(Instant.now()).append(" WARN  [log-writer] AsyncAppender ")
+                .append(event).append(" count=").append(count).append('\n');
+        writeRaw(line);
+    }
+
+    private void writeRaw(CharSequence text) throws IOException {
+        if (console) {
+            System.err.print(text);
+        }
+        Writer out = writer();
+        if (out == null) {
+            return;
+        }
+        out.append(text);
+        fileSize += text.length();
+        if (fileSize >= maxBytes) {
+            roll();
+        }
+    }
+
+    private static void format(LogEvent event, StringBuilder sb) {
+        sb.append(Instant.ofEpochMilli(event.timestampMillis())).append(' ');
+        String level = event.level().name();
+        sb.append(level);
+        for (int i = level.length(); i < 5; i++) {
+            sb.append(' ');
+        }
+        sb.append(" [").append(event.thread()).append("] ")
+                .append(event.logger()).append(' ')
+                .append(event.event());
+        Object[] fields = event.fields();
+        if (fields != null) {
+            for (int i = 0; i + 1 < fields.length; i += 2) {
+                sb.append(' ').append(fields[i]).append('=');
+                appendValue(sb, fields[i + 1]);
+            }
+        }
+        if (event.error() != null) {
+            sb.append(" error=");
+            appendValue(sb, event.error().toString());
+            sb.append('\n');
+            StringWriter trace = new StringWriter();
+            event.error().printStackTrace(new PrintWriter(trace));
+            sb.append(trace);
+        } else {
+            sb.append('\n');
+        }
+    }
+
+    private static void appendValue(StringBuilder sb, Object value) {
+        String text = String.valueOf(value);
+        boolean quote = text.isEmpty() || text.indexOf(' ') >= 0 || text.indexOf('=') >= 0
+                || text.indexOf('"') >= 0 || text.indexOf('\n') >= 0;
+        if (!quote) {
+            sb.append(text);
+            return;
+        }
+        sb.append('"');
+        for (int i = 0; i < text.length(); i++) {
+            char c = text.charAt(i);
+            if (c == '"' || c == '\\') {
+                sb.append('\\').append(c);
+            } else if (c == '\n') {
+                sb.append("\\n");
+            } else {
+                sb.append(c);
+            }
+        }
+        sb.append('"');
+    }
+
+    private Writer writer() {
+        if (writer == null) {
+            try {
+                Files.createDirectories(file.toAbsolutePath().getParent());
+                fileSize = Files.exists(file) ? Files.size(file) : 0;
+                writer = new BufferedWriter(Files.newBufferedWriter(file, StandardCharsets.UTF_8,
+                        StandardOpenOption.CREATE, StandardOpenOption.APPEND), 64 * 1024);
+            } catch (IOException e) {
+                System.err.println("Unable to open log file " + file + ": " + e.getMessage());
+                return null;
+            }
+        }
+        return writer;
+    }
+
+    private void roll() throws IOException {
+        closeWriter();
+        for (int i = maxFiles - 1; i >= 1; i--) {
+            Path source = i == 1 ? file : file.resolveSibling(file.getFileName() + "." + (i - 1));
+            Path target = file.resolveSibling(file.getFileName() + "." + i);
+            if (Files.exists(source)) {
+                Files.move(source, target, StandardCopyOption.REPLACE_EXISTING);
+            }
+        }
+        if (maxFiles == 1) {
+            Files.deleteIfExists(file);
+        }
+        fileSize = 0;
+    }
+
+    private void closeWriter() {
+        if (writer != null) {
+            try {
+                writer.close();
+            } catch (IOException ignored) {
+                // Already failing; nothing more to do
+            }
+            writer = null;
+        }
+    }
+}
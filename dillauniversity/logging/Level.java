@@ -0,0 +1,5 @@
+package dillauniversity.logging;
+
+public enum Level {
+    TRACE, DEBUG, INFO, WARN, ERROR, OFF
+}
@@ -0,0 +1,183 @@
+package dillauniversity.logging;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.AtomicMoveNotSupportedException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.attribute.PosixFilePermissions;
+import java.security.GeneralSecurityException;
+import java.security.SecureRandom;
+import java.util.HexFormat;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import javax.crypto.Mac;
+import javax.crypto.spec.SecretKeySpec;
+
+/**
+ * Entry point of the logging facade.
+ *
+ * <pre>
+ * private static final Logger LOG = Log.get(LoginController.class);
+ * LOG.info("login.attempt", "user", Log.user(username), "role", role);
+ * </pre>
+ *
+ * Configuration (system properties):
+ * <ul>
+ *   <li>{@code dillauniversity.log.level}: TRACE, DEBUG, INFO (default), WARN, ERROR, OFF</li>
+ *   <li>{@code dillauniversity.log.file}: log file, default {@code ~/.dillauniversity/logs/client.log}</li>
+ *   <li>{@code dillauniversity.log.maxBytes} / {@code dillauniversity.log.maxFiles}: rolling limits</li>
+ *   <li>{@code dillauniversity.log.console}: also write to stderr (default false)</li>
+ * </ul>
+ */
+public final class Log {
+
+    private static volatile Level threshold = parseLevel(System.getProperty("dillauniversity.log.level", "INFO"));
+    private static final Map<String, Logger> LOGGERS = new ConcurrentHashMap<>();
+
+    private Log() {
+    }
+
+    public static Logger get(Class<?> type) {
+        return get(type.getSimpleName());
+    }
+
+    public static Logger get(String name) {
+        return LOGGERS.computeIfAbsent(name, Logger::new);
+    }
+
+    public static Level threshold() {
+        return threshold;
+    }
+
+    public static void setLevel(Level level) {
+        threshold = level;
+    }
+
+    /**
+     * Reference to a username for log fields, so log lines about the same user can
+     * be correlated without writing the name itself.
+     *
+     * The reference is an HMAC-SHA256 of the lower-cased name under a random
+     * per-install key ({@code log.key} next to the other client files), truncated
+     * to 8 hex digits. Without the key the name cannot be confirmed by hashing
+     * candidate usernames; the key never leaves the workstation. The HMAC is only
+     * computed when the line is written, on the appender thread, so passing this
+     * to a disabled level costs one small allocation.
+     */
+    public static Object user(String username) {
+        if (username == null || username.isEmpty()) {
+            return "-";
+        }
+        return new UserRef(username);
+    }
+
+    /**
+     * Flushes queued events. Called automatically on JVM shutdown.
+     */
+    public static void flush() {
+        appender().flush();
+    }
+
+    static AsyncAppender appender() {
+        return AppenderHolder.INSTANCE;
+    }
+
+    private static Level parseLevel(String value) {
+        try {
+            return Level.valueOf(value.trim().toUpperCase(Locale.ROOT));
+        } catch (IllegalArgumentException e) {
+            return Level.INFO;
+        }
+    }
+
+    private static final class UserRef {
+        private final String username;
+
+        private UserRef(String username) {
+            this.username = username;
+        }
+
+        @Override
+        public String toString() {
+            Mac mac = UserKeyHolder.newMac();
+            if (mac == null) {
+                return "u:?";
+            }
+            byte[] digest = mac.doFinal(username.toLowerCase(Locale.ROOT).getBytes(StandardCharsets.UTF_8));
+            return "u:" + HexFormat.of().formatHex(digest, 0, 4);
+        }
+    }
+
+    // Read or created on the first username that is actually written
+    private static final class UserKeyHolder {
+        private static final int KEY_BYTES = 32;
+        private static final SecretKeySpec KEY = loadOrCreate();
+
+        static Mac newMac() {
+            try {
+                Mac mac = Mac.getInstance("HmacSHA256");
+                mac.init(KEY);
+                return mac;
+            } catch (GeneralSecurityException e) {
+                return null;
+            }
+        }
+
+        private static SecretKeySpec loadOrCreate() {
+            Path file = Paths.get(System.getProperty("dillauniversity.home",
+                    System.getProperty("user.home") + "/.dillauniversity"), "log.key");
+            byte[] key = new byte[KEY_BYTES];
+            try {
+                if (Files.isRegularFile(file) && Files.size(file) == KEY_BYTES) {
+                    return new SecretKeySpec(Files.readAllBytes(file), "HmacSHA256");
+                }
+                new SecureRandom().nextBytes(key);
+                Files.createDirectories(file.getParent());
+                Path temp = Files.createTempFile(file.getParent(), "log.key", ".tmp");
+                try {
+                    try {
+                        Files.setPosixFilePermissions(temp, PosixFilePermissions.fromString("rw-------"));
+                    } catch (UnsupportedOperationException e) {
+                        // Not a POSIX file system; the user profile ACL applies
+                    }
+                    Files.write(temp, key);
+                    try {
+                        Files.move(temp, file, StandardCopyOption.ATOMIC_MOVE);
+                    } catch (AtomicMoveNotSupportedException e) {
+                        Files.move(temp, file, StandardCopyOption.REPLACE_EXISTING);
+                    }
+                } finally {
+                    Files.deleteIfExists(temp);
+                }
+                // Another client may have created it first; use whichever key won
+                return new SecretKeySpec(Files.readAllBytes(file), "HmacSHA256");
+            } catch (IOException | RuntimeException e) {
+                // References then only correlate within this run
+                new SecureRandom().nextBytes(key);
+                return new SecretKeySpec(key, "HmacSHA256");
+            }
+        }
+    }
+
+    // Created on first log call, so a disabled logger never starts the writer thread
+    private static final class AppenderHolder {
+        private static final AsyncAppender INSTANCE = create();
+
+        private static AsyncAppender create() {
+            Path file = Paths.get(System.getProperty("dillauniversity.log.file",
+                    System.getProperty("user.home") + "/.dillauniversity/logs/client.log"));
+            AsyncAppender appender = new AsyncAppender(
+                    file,
+                    Long.getLong("dillauniversity.log.maxBytes", 5L * 1024 * 1024),
+                    Integer.getInteger("dillauniversity.log.maxFiles", 5),
+                    Integer.getInteger("dillauniversity.log.bufferSize", 8192),
+                    Boolean.getBoolean("dillauniversity.log.console"));
+            Runtime.getRuntime().addShutdownHook(new Thread(appender::close, "log-shutdown"));
+            return appender;
+        }
+    }
+}
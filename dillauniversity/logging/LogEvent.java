@@ -0,0 +1,9 @@
+package dillauniversity.logging;
+
+/**
+ * One log record as handed to the appender. Fields are alternating key/value
+ * pairs and are only turned into text on the appender thread.
+ */
+record LogEvent(long timestampMillis, Level level, String logger, String thread,
+                String event, Object[] fields, Throwable error) {
+}
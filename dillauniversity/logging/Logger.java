@@ -0,0 +1,136 @@
+package dillauniversity.logging;
+
+/**
+ * Structured logger.
+ *
+ * A call names an event and passes up to three key/value fields, for example
+ * {@code log.info("login.result", "role", role, "ok", true)}. The fixed-arity
+ * overloads mean a disabled level costs one comparison: no varargs array, no
+ * string building. Formatting and I/O happen on the appender thread, and field
+ * values are only turned into text there, so a value whose {@code toString()} is
+ * costly (such as {@link Log#user}) is free at a disabled level. Wrap calls whose
+ * arguments are themselves expensive to compute in {@link #isEnabled(Level)}.
+ */
+public final class Logger {
+
+    private final String name;
+
+    Logger(String name) {
+        this.name = name;
+    }
+
+    public String getName() {
+        return name;
+    }
+
+    public boolean isEnabled(Level level) {
+        return level.ordinal() >= Log.threshold().ordinal() && level != Level.OFF;
+    }
+
+    public boolean isDebugEnabled() {
+        return isEnabled(Level.DEBUG);
+    }
+
+    // DEBUG
+
+    public void debug(String event) {
+        if (isEnabled(Level.DEBUG)) {
+            emit(Level.DEBUG, event, null, null);
+        }
+    }
+
+    public void debug(String event, String k1, Object v1) {
+        if (isEnabled(Level.DEBUG)) {
+            emit(Level.DEBUG, event, new Object[] {k1, v1}, null);
+        }
+    }
+
+    public void debug(String event, String k1, Object v1, String k2, Object v2) {
+        if (isEnabled(Level.DEBUG)) {
+            emit(Level.DEBUG, event, new Object[] {k1, v1, k2, v2}, null);
+        }
+    }
+
+    public void debug(String event, String k1, Object v1, String k2, Object v2, String k3, Object v3) {
+        if (isEnabled(Level.DEBUG)) {
+            emit(Level.DEBUG, event, new Object[] {k1, v1, k2, v2, k3, v3}, null);
+        }
+    }
+
+    // INFO
+
+    public void info(String event) {
+        if (isEnabled(Level.INFO)) {
+            emit(Level.INFO, event, null, null);
+        }
+    }
+
+    public void info(String event, String k1, Object v1) {
+        if (isEnabled(Level.INFO)) {
+            emit(Level.INFO, event, new Object[] {k1, v1}, null);
+        }
+    }
+
+    public void info(String event, String k1, Object v1, String k2, Object v2) {
+        if (isEnabled(Level.INFO)) {
+            emit(Level.INFO, event, new Object[] {k1, v1, k2, v2}, null);
+        }
+    }
+
+    public void info(String event, String k1, Object v1, String k2, Object v2, String k3, Object v3) {
+        if (isEnabled(Level.INFO)) {
+            emit(Level.INFO, event, new Object[] {k1, v1, k2, v2, k3, v3}, null);
+        }
+    }
+
+    // WARN
+
+    public void warn(String event) {
+        if (isEnabled(Level.WARN)) {
+            emit(Level.WARN, event, null, null);
+        }
+    }
+
+    public void warn(String event, String k1, Object v1) {
+        if (isEnabled(Level.WARN)) {
+            emit(Level.WARN, event, new Object[] {k1, v1}, null);
+        }
+    }
+
+    public void warn(String event, String k1, Object v1, String k2, Object v2) {
+        if (isEnabled(Level.WARN)) {
+            emit(Level.WARN, event, new Object[] {k1, v1, k2, v2}, null);
+        }
+    }
+
+    public void warn(String event, Throwable error, String k1, Object v1) {
+        if (isEnabled(Level.WARN)) {
+            emit(Level.WARN, event, new Object[] {k1, v1}, error);
+        }
+    }
+
+    // ERROR
+
+    public void error(String event, Throwable error) {
+        if (isEnabled(Level.ERROR)) {
+            emit(Level.ERROR, event, null, error);
+        }
+    }
+
+    public void error(String event, Throwable error, String k1, Object v1) {
+        if (isEnabled(Level.ERROR)) {
+            emit(Level.ERROR, event, new Object[] {k1, v1}, error);
+        }
+    }
+
+    public void error(String event, Throwable error, String k1, Object v1, String k2, Object v2) {
+        if (isEnabled(Level.ERROR)) {
+            emit(Level.ERROR, event, new Object[] {k1, v1, k2, v2}, error);
+        }
+    }
+
+    private void emit(Level level, String event, Object[] fields, Throwable error) {
+        Log.appender().append(new LogEvent(System.currentTimeMillis(), level, name,
+                Thread.currentThread().getName(), event, fields, error));
+    }
+}
@@ -0,0 +1,137 @@
+package dillauniversity.metrics;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Instruments of the login-to-dashboard path.
+ *
+ * The histograms split a slow login into its parts: time queued for a login worker,
+ * time spent authenticating against the database, FXML load and the scene switch
+ * up to the first layout pulse. Database health check latency is recorded
+ * separately so it can be compared with authentication time.
+ *
+ * Per-role and per-route counters are created on first use and cached, so
+ * recording after warm-up is a map lookup plus an add.
+ */
+public final class LoginMetrics {
+
+    // Roles and routes come from fixed lists; cap the series anyway
+    private static final int MAX_LABELS = 32;
+    private static final String OTHER = "other";
+
+    private static final LoginMetrics SHARED = new LoginMetrics(MetricsRegistry.shared());
+
+    private final MetricsRegistry registry;
+    private final LatencyHistogram queueWait;
+    private final LatencyHistogram authentication;
+    private final LatencyHistogram fxmlLoad;
+    private final LatencyHistogram sceneSwitch;
+    private final LatencyHistogram dbHealthCheck;
+    private final Map<String, RoleCounters> roles = new ConcurrentHashMap<>();
+    private final Map<String, LongAdder> navigationErrors = new ConcurrentHashMap<>();
+
+    public LoginMetrics(MetricsRegistry registry) {
+        this.registry = registry;
+        this.queueWait = registry.histogram("login_queue_wait",
+                "Time a login attempt waited for a login worker");
+        this.authentication = registry.histogram("login_authentication",
+                "Time spent verifying credentials against the database");
+        this.fxmlLoad = registry.histogram("navigation_fxml_load",
+                "Time to parse a route's FXML or take its preloaded graph");
+        this.sceneSwitch = registry.histogram("navigation_scene_switch",
+                "Time from swapping the scene root to the first layout pulse");
+        this.dbHealthCheck = registry.histogram("db_health_check",
+                "Latency of background database health checks");
+    }
+
+    public static LoginMetrics shared() {
+        return SHARED;
+    }
+
+    public MetricsRegistry getRegistry() {
+        return registry;
+    }
+
+    public void recordQueueWait(long nanos) {
+        queueWait.record(nanos);
+    }
+
+    public void recordAuthentication(long nanos) {
+        authentication.record(nanos);
+    }
+
+    public void recordFxmlLoad(long nanos) {
+        fxmlLoad.record(nanos);
+    }
+
+    public void recordSceneSwitch(long nanos) {
+        sceneSwitch.record(nanos);
+    }
+
+    public void recordDbHealthCheck(long nanos) {
+        dbHealthCheck.record(nanos);
+    }
+
+    public void loginAttempt(String role) {
+        countersFor(role).attempts.increment();
+    }
+
+    public void loginSuccess(String role) {
+        countersFor(role).successes.increment();
+    }
+
+    /**
+     * Counts an attempt that did not produce a session: wrong credentials, throttled,
+     * timed out or failed with an error.
+     */
+    public void loginFailure(String role) {
+        countersFor(role).failures.increment();
+    }
+
+    public void navigationError(String route) {
+        LongAdder counter = navigationErrors.get(route);
+        if (counter == null) {
+            String label = navigationErrors.size() < MAX_LABELS ? route : OTHER;
+            counter = navigationErrors.computeIfAbsent(label, r -> registry.counter("navigation_errors",
+                    "Navigations that failed to load, by route", "route", r));
+        }
+        counter.increment();
+    }
+
+    public LatencyHistogram getAuthentication() {
+        return authentication;
+    }
+
+    public LatencyHistogram getFxmlLoad() {
+        return fxmlLoad;
+    }
+
+    public LatencyHistogram getSceneSwitch() {
+        return sceneSwitch;
+    }
+
+    private RoleCounters countersFor(String role) {
+        String key = role != null ? role : OTHER;
+        RoleCounters counters = roles.get(key);
+        if (counters == null) {
+            String label = roles.size() < MAX_LABELS ? key : OTHER;
+            counters = roles.computeIfAbsent(label, r -> new RoleCounters(registry, r));
+        }
+        return counters;
+    }
+
+    private static final class RoleCounters {
+        final LongAdder attempts;
+        final LongAdder successes;
+        final LongAdder failures;
+
+        RoleCounters(MetricsRegistry registry, String role) {
+            attempts = registry.counter("login_attempts", "Login attempts, by role", "role", role);
+            successes = registry.counter("login_successes", "Logins that produced a session, by role", "role", role);
+            failures = registry.counter("login_failures", "Logins that did not produce a session, by role",
+                    "role", role);
+        }
+    }
+}
@@ -0,0 +1,134 @@
+package dillauniversity.metrics;
+
+import dillauniversity.logging.Log;
+import dillauniversity.logging.Logger;
+
+import javax.management.JMException;
+import javax.management.ObjectName;
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.OutputStream;
+import java.lang.management.ManagementFactory;
+import java.net.InetAddress;
+import java.net.ServerSocket;
+import java.net.Socket;
+import java.nio.charset.StandardCharsets;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * Publishes the shared {@link MetricsRegistry}.
+ *
+ * It is always registered in JMX as {@code dillauniversity:type=Metrics}. When
+ * {@code dillauniversity.metrics.port} is set, the Prometheus text format is also
+ * served on {@code http://127.0.0.1:<port>/metrics}; the endpoint only binds to the
+ * loopback interface and is served by a single daemon thread, so it never keeps
+ * the client process alive.
+ */
+public final class MetricsExporter {
+
+    private static final Logger LOG = Log.get(MetricsExporter.class);
+    private static final String OBJECT_NAME = "dillauniversity:type=Metrics";
+    private static final AtomicBoolean INSTALLED = new AtomicBoolean();
+
+    private static volatile ServerSocket server;
+
+    private MetricsExporter() {
+    }
+
+    /**
+     * Registers the MBean and starts the HTTP endpoint if configured. Safe to call
+     * more than once.
+     */
+    public static void install() {
+        if (!INSTALLED.compareAndSet(false, true)) {
+            return;
+        }
+        MetricsRegistry registry = MetricsRegistry.shared();
+        try {
+            ManagementFactory.getPlatformMBeanServer()
+                    .registerMBean(new MetricsMBean(registry), new ObjectName(OBJECT_NAME));
+        } catch (JMException e) {
+            LOG.warn("metrics.jmx_failed", e, "name", OBJECT_NAME);
+        }
+
+        int port = Integer.getInteger("dillauniversity.metrics.port", -1);
+        if (port >= 0) {
+            startHttp(registry, port);
+        }
+    }
+
+    public static void stop() {
+        ServerSocket running = server;
+        server = null;
+        if (running != null) {
+            try {
+                running.close();
+            } catch (IOException ignored) {
+                // Closing only unblocks the accept loop
+            }
+        }
+    }
+
+    private static void startHttp(MetricsRegistry registry, int port) {
+        try {
+            ServerSocket socket = new ServerSocket(port, 8, InetAddress.getLoopbackAddress());
+            server = socket;
+            Thread thread = new Thread(() -> acceptLoop(socket, registry), "metrics-http");
+            thread.setDaemon(true);
+            thread.start();
+            LOG.info("metrics.http_started", "port", socket.getLocalPort());
+        } catch (IOException e) {
+            LOG.warn("metrics.http_failed", e, "port", port);
+        }
+    }
+
+    // A scrape every few seconds from one local collector does not need more than
+    // one thread; requests are served in turn.
+    private static void acceptLoop(ServerSocket socket, MetricsRegistry registry) {
+        while (!socket.isClosed()) {
+            try (Socket client = socket.accept()) {
+                client.setSoTimeout(2_000);
+                serve(client, registry);
+            } catch (IOException e) {
+                if (!socket.isClosed()) {
+                    LOG.debug("metrics.http_request_failed", "error", e.getMessage());
+                }
+            }
+        }
+    }
+
+    private static void serve(Socket client, MetricsRegistry registry) throws IOException {
+        BufferedReader in = new BufferedReader(
+                new InputStreamReader(client.getInputStream(), StandardCharsets.US_ASCII));
+        String requestLine = in.readLine();
+        if (requestLine == null) {
+            return;
+        }
+        // Skip the headers; nothing in them changes the response
+        String header = in.readLine();
+        while (header != null && !header.isEmpty()) {
+            header = in.readLine();
+        }
+
+        String[] parts = requestLine.split(" ");
+        OutputStream out = client.getOutputStream();
+        if (parts.length < 2 || !"GET".equals(parts[0])) {
+            respond(out, "405 Method Not Allowed", new byte[0]);
+        } else if (!parts[1].equals("/metrics") && !parts[1].startsWith("/metrics?")) {
+            respond(out, "404 Not Found", new byte[0]);
+        } else {
+            respond(out, "200 OK", registry.renderPrometheus().getBytes(StandardCharsets.UTF_8));
+        }
+    }
+
+    private static void respond(OutputStream out, String status, byte[] body) throws IOException {
+        String head = "HTTP/1.1 " + status + "\r\n"
+                + "Content-Type: text/plain; version=0.0.4; charset=utf-8\r\n"
+                + "Content-Length: " + body.length + "\r\n"
+                + "Connection: close\r\n\r\n";
+        out.write(head.getBytes(StandardCharsets.US_ASCII));
+        out.write(body);
+        out.flush();
+    }
+}
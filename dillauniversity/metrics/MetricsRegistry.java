@@ -0,0 +1,132 @@
+package dillauniversity.metrics;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentSkipListMap;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.DoubleSupplier;
+
+/**
+ * Holds the client's counters, gauges and latency histograms and renders them in
+ * the Prometheus text format.
+ *
+ * Look metrics up once and keep the returned {@link LongAdder} or
+ * {@link LatencyHistogram}; recording on them is then allocation-free. Labelled
+ * series are identified by name plus one label, e.g. {@code role="Student"}.
+ */
+public final class MetricsRegistry {
+
+    private static final double[] QUANTILES = {0.5, 0.9, 0.95, 0.99};
+    private static final MetricsRegistry SHARED = new MetricsRegistry("dilla");
+
+    private final String prefix;
+    private final Map<String, String> help = new ConcurrentHashMap<>();
+    private final Map<String, LongAdder> counters = new ConcurrentSkipListMap<>();
+    private final Map<String, DoubleSupplier> gauges = new ConcurrentSkipListMap<>();
+    private final Map<String, LatencyHistogram> histograms = new ConcurrentSkipListMap<>();
+
+    public MetricsRegistry(String prefix) {
+        this.prefix = prefix;
+    }
+
+    public static MetricsRegistry shared() {
+        return SHARED;
+    }
+
+    public LongAdder counter(String name, String description) {
+        help.putIfAbsent(name, description);
+        return counters.computeIfAbsent(prefix + "_" + name + "_total", k -> new LongAdder());
+    }
+
+    public LongAdder counter(String name, String description, String label, String value) {
+        help.putIfAbsent(name, description);
+        return counters.computeIfAbsent(series(name + "_total", label, value), k -> new LongAdder());
+    }
+
+    public void gauge(String name, String description, DoubleSupplier supplier) {
+        help.putIfAbsent(name, description);
+        gauges.put(prefix + "_" + name, supplier);
+    }
+
+    public LatencyHistogram histogram(String name, String description) {
+        help.putIfAbsent(name, description);
+        return histograms.computeIfAbsent(prefix + "_" + name + "_seconds", k -> new LatencyHistogram());
+    }
+
+    /**
+     * Flat view of every series for JMX: counters and gauges by name, histograms as
+     * {@code <name>_count}, {@code _mean_ms}, {@code _p50_ms} ... {@code _max_ms}.
+     */
+    public Map<String, Number> snapshot() {
+        Map<String, Number> values = new LinkedHashMap<>();
+        counters.forEach((name, adder) -> values.put(name, adder.sum()));
+        gauges.forEach((name, supplier) -> values.put(name, supplier.getAsDouble()));
+        histograms.forEach((name, h) -> {
+            String base = name.substring(0, name.length() - "_seconds".length());
+            values.put(base + "_count", h.getCount());
+            values.put(base + "_mean_ms", h.getMeanNanos() / 1_000_000.0);
+            for (double q : QUANTILES) {
+                values.put(base + "_p" + (int) Math.round(q * 100) + "_ms", h.getValueAtQuantileMillis(q));
+            }
+            values.put(base + "_max_ms", h.getMaxNanos() / 1_000_000.0);
+        });
+        return values;
+    }
+
+    /**
+     * Prometheus text exposition format (version 0.0.4). Histograms are exported as
+     * summaries with quantiles in seconds.
+     */
+    public String renderPrometheus() {
+        StringBuilder out = new StringBuilder(4096);
+        String lastFamily = null;
+        for (Map.Entry<String, LongAdder> e : counters.entrySet()) {
+            String family = family(e.getKey());
+            if (!family.equals(lastFamily)) {
+                header(out, family, "counter");
+                lastFamily = family;
+            }
+            out.append(e.getKey()).append(' ').append(e.getValue().sum()).append('\n');
+        }
+        for (Map.Entry<String, DoubleSupplier> e : gauges.entrySet()) {
+            header(out, e.getKey(), "gauge");
+            out.append(e.getKey()).append(' ').append(e.getValue().getAsDouble()).append('\n');
+        }
+        for (Map.Entry<String, LatencyHistogram> e : histograms.entrySet()) {
+            String name = e.getKey();
+            LatencyHistogram h = e.getValue();
+            header(out, name, "summary");
+            for (double q : QUANTILES) {
+                out.append(name).append("{quantile=\"").append(q).append("\"} ")
+                        .append(h.getValueAtQuantile(q) / 1e9).append('\n');
+            }
+            out.append(name).append("_sum ").append(h.getSumNanos() / 1e9).append('\n');
+            out.append(name).append("_count ").append(h.getCount()).append('\n');
+        }
+        return out.toString();
+    }
+
+    private String series(String name, String label, String value) {
+        return prefix + "_" + name + "{" + label + "=\"" + escape(value) + "\"}";
+    }
+
+    private void header(StringBuilder out, String family, String type) {
+        String shortName = family.substring(prefix.length() + 1)
+                .replaceFirst("_(total|seconds)$", "");
+        String description = help.get(shortName);
+        if (description != null) {
+            out.append("# HELP ").append(family).append(' ').append(description).append('\n');
+        }
+        out.append("# TYPE ").append(family).append(' ').append(type).append('\n');
+    }
+
+    private static String family(String series) {
+        int brace = series.indexOf('{');
+        return brace < 0 ? series : series.substring(0, brace);
+    }
+
+    private static String escape(String value) {
+        return value == null ? "" : value.replace("\\", "\\\\").replace("\"", "\\\"").replace("\n", "\\n");
+    }
+}
@@ -0,0 +1,143 @@
+package dillauniversity.metrics;
+
+import dillauniversity.logging.Log;
+import dillauniversity.logging.Logger;
+
+import java.io.IOException;
+import java.lang.management.ClassLoadingMXBean;
+import java.lang.management.ManagementFactory;
+import java.lang.management.MemoryUsage;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardOpenOption;
+import java.time.Instant;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Startup cost of the client, for comparing builds and packaging on the lab
+ * machines.
+ *
+ * {@link #mark} records a milestone the first time it is reached: JVM uptime,
+ * classes loaded so far, heap in use and, on Linux, the resident set size. The
+ * milestone is logged as {@code startup.milestone} and published as gauges. With
+ * {@code -Ddillauniversity.startup.report=<file>} each milestone is also appended
+ * to that CSV file, one line per run and milestone, so repeated cold starts can be
+ * compared, e.g. with and without {@code -Ddillauniversity.modules.eager=true}.
+ */
+public final class StartupReport {
+
+    private static final Logger LOG = Log.get(StartupReport.class);
+
+    static final String CSV_HEADER =
+            "timestamp,milestone,uptimeMs,loadedClasses,heapUsedKb,heapCommittedKb,rssKb,modules,eager";
+
+    /**
+     * What the process had loaded when a milestone was reached.
+     *
+     * @param rssKb resident set size, or -1 where the platform does not report it
+     */
+    public record Milestone(String name, long uptimeMillis, int loadedClasses, long heapUsedKb,
+                            long heapCommittedKb, long rssKb, String modules) {
+    }
+
+    private static final Map<String, Milestone> MILESTONES = new ConcurrentHashMap<>();
+
+    private StartupReport() {
+    }
+
+    /**
+     * Records {@code name} unless it was already reached in this process.
+     *
+     * @param modules what has been loaded lazily so far, e.g. the module names
+     */
+    public static Milestone mark(String name, String modules) {
+        Milestone existing = MILESTONES.get(name);
+        if (existing != null) {
+            return existing;
+        }
+        ClassLoadingMXBean classes = ManagementFactory.getClassLoadingMXBean();
+        MemoryUsage heap = ManagementFactory.getMemoryMXBean().getHeapMemoryUsage();
+        Milestone milestone = new Milestone(name,
+                ManagementFactory.getRuntimeMXBean().getUptime(),
+                classes.getLoadedClassCount(),
+                heap.getUsed() / 1024,
+                heap.getCommitted() / 1024,
+                residentKb(),
+                modules == null ? "" : modules);
+        if (MILESTONES.putIfAbsent(name, milestone) != null) {
+            return MILESTONES.get(name);
+        }
+
+        LOG.info("startup.milestone", "name", name, "uptimeMs", milestone.uptimeMillis(),
+                "classes", milestone.loadedClasses());
+        LOG.info("startup.memory", "name", name, "heapUsedKb", milestone.heapUsedKb(),
+                "rssKb", milestone.rssKb());
+
+        MetricsRegistry metrics = MetricsRegistry.shared();
+        metrics.gauge("startup_" + name + "_uptime_ms", "JVM uptime when " + name + " was reached",
+                milestone::uptimeMillis);
+        metrics.gauge("startup_" + name + "_classes", "Classes loaded when " + name + " was reached",
+                milestone::loadedClasses);
+        metrics.gauge("startup_" + name + "_heap_used_kb", "Heap in use when " + name + " was reached",
+                milestone::heapUsedKb);
+
+        String report = System.getProperty("dillauniversity.startup.report");
+        if (report != null && !report.isEmpty()) {
+            append(Paths.get(report), milestone);
+        }
+        return milestone;
+    }
+
+    /**
+     * The milestone {@code name}, or {@code null} if it has not been reached.
+     */
+    public static Milestone get(String name) {
+        return MILESTONES.get(name);
+    }
+
+    // One short line per milestone and run; not worth a background thread
+    private static void append(Path file, Milestone milestone) {
+        String line = String.join(",",
+                Instant.now().toString(),
+                milestone.name(),
+                Long.toString(milestone.uptimeMillis()),
+                Integer.toString(milestone.loadedClasses()),
+                Long.toString(milestone.heapUsedKb()),
+                Long.toString(milestone.heapCommittedKb()),
+                Long.toString(milestone.rssKb()),
+                milestone.modules().replace(',', '|'),
+                Boolean.toString(Boolean.getBoolean("dillauniversity.modules.eager")));
+        try {
+            if (file.getParent() != null) {
+                Files.createDirectories(file.getParent());
+            }
+            List<String> lines = Files.exists(file) ? List.of(line) : List.of(CSV_HEADER, line);
+            Files.write(file, lines, StandardCharsets.UTF_8,
+                    StandardOpenOption.CREATE, StandardOpenOption.APPEND);
+        } catch (IOException e) {
+            LOG.warn("startup.report_failed", e, "file", file);
+        }
+    }
+
+    // VmRSS from /proc; -1 elsewhere
+    private static long residentKb() {
+        Path status = Paths.get("/proc/self/status");
+        if (!Files.isReadable(status)) {
+            return -1;
+        }
+        try {
+            for (String line : Files.readAllLines(status, StandardCharsets.US_ASCII)) {
+                if (line.startsWith("VmRSS:")) {
+                    return Long.parseLong(line.substring(6).replace("kB", "").trim());
+                }
+            }
+        } catch (IOException | NumberFormatException e) {
+            LOG.debug("startup.rss_unavailable", "error", e.getMessage());
+        }
+        return -1;
+    }
+}
@@ -0,0 +1,40 @@
+package dillauniversity.model;
+
+import java.time.Instant;
+import java.util.Objects;
+import java.util.Set;
+
+/**
+ * Everything a dashboard needs to know about the signed-in user.
+ *
+ * Built once from the row read during authentication, so dashboards can render
+ * the user's name and check permissions without querying the users table again.
+ */
+public record UserSession(
+        long userId,
+        String username,
+        String role,
+        String fullName,
+        String email,
+        Set<String> permissions,
+        Instant authenticatedAt) {
+
+    public UserSession {
+        Objects.requireNonNull(username, "username");
+        Objects.requireNonNull(role, "role");
+        permissions = permissions == null ? Set.of() : Set.copyOf(permissions);
+        authenticatedAt = authenticatedAt == null ? Instant.now() : authenticatedAt;
+    }
+
+    public boolean hasPermission(String permission) {
+        return permissions.contains(permission);
+    }
+
+    /**
+     * Name to greet the user with: the full name when the profile has one,
+     * otherwise the username.
+     */
+    public String displayName() {
+        return fullName == null || fullName.isBlank() ? username : fullName;
+    }
+}
@@ -0,0 +1,186 @@
+package dillauniversity.navigation;
+
+import dillauniversity.logging.Log;
+import dillauniversity.logging.Logger;
+import javafx.fxml.FXMLLoader;
+import javafx.scene.Parent;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.net.URL;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+
+/**
+ * Parses dashboard FXML in the background so the scene graph is ready by the
+ * time the user finishes typing their password.
+ *
+ * Entries are single-use: {@link #take} removes the graph from the cache, so a
+ * graph that has been shown to one user is never handed to the next one.
+ * {@link #clear()} runs on sign-out to drop anything that was preloaded for the
+ * previous session.
+ */
+public final class DashboardSceneCache {
+
+    private static final Logger LOG = Log.get(DashboardSceneCache.class);
+
+    /**
+     * A parsed FXML graph and the controller FXMLLoader created for it.
+     */
+    public record LoadedView(Parent root, Object controller, URL location) {
+    }
+
+    private static final long MAX_AGE_MS = Long.getLong("dillauniversity.dashboardCache.maxAgeMs", 600_000L);
+    private static final int MAX_ENTRIES = Integer.getInteger("dillauniversity.dashboardCache.maxEntries", 2);
+    // How long take() waits for a preload still running before parsing itself; a
+    // preload that far from done would not beat a cold parse by much anyway
+    private static final long TAKE_WAIT_MS = Long.getLong("dillauniversity.dashboardCache.takeWaitMs", 200L);
+
+    private static final DashboardSceneCache SHARED = new DashboardSceneCache();
+
+    private final Map<String, Entry> entries = new ConcurrentHashMap<>();
+    private final ExecutorService loader = Executors.newSingleThreadExecutor(r -> {
+        Thread thread = new Thread(r, "dashboard-preload");
+        thread.setDaemon(true);
+        thread.setPriority(Thread.MIN_PRIORITY);
+        return thread;
+    });
+
+    public static DashboardSceneCache shared() {
+        return SHARED;
+    }
+
+    /**
+     * Starts parsing {@code fxml} for {@code key} in the background unless a
+     * fresh graph is already cached or loading. {@code classLoader} resolves the
+     * controller and FXML imports; {@code null} uses FXMLLoader's default.
+     */
+    public void preload(String key, URL fxml, ClassLoader classLoader) {
+        if (key == null || fxml == null) {
+            return;
+        }
+        evictStale();
+        entries.compute(key, (k, existing) -> {
+            if (existing != null && existing.sameLocation(fxml) && !existing.isExpired()) {
+                existing.touch();
+                return existing;
+            }
+            return new Entry(fxml, CompletableFuture.supplyAsync(() -> load(fxml, classLoader), loader));
+        });
+        evictOverflow();
+    }
+
+    /**
+     * Returns the preloaded graph for {@code key} and removes it from the cache,
+     * or parses {@code fxml} on the calling thread when nothing usable is cached.
+     * A preload that is still running is waited for only briefly, so the FX
+     * thread is never held much longer than by a cold parse.
+     */
+    public LoadedView take(String key, URL fxml, ClassLoader classLoader) throws IOException {
+        Entry entry = key == null ? null : entries.remove(key);
+        if (entry != null && entry.sameLocation(fxml) && !entry.isExpired()) {
+            try {
+                return entry.view.get(TAKE_WAIT_MS, TimeUnit.MILLISECONDS);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            } catch (TimeoutException e) {
+                entry.view.cancel(false);
+                LOG.debug("dashboard.preload_too_slow", "key", key, "waitedMs", TAKE_WAIT_MS);
+            } catch (ExecutionException e) {
+                LOG.warn("dashboard.preload_failed", e, "key", key);
+            }
+        }
+        return loadChecked(fxml, classLoader);
+    }
+
+    public void invalidate(String key) {
+        Entry entry = entries.remove(key);
+        if (entry != null) {
+            entry.view.cancel(false);
+        }
+    }
+
+    /**
+     * Drops every cached graph. Called on sign-out
+     * ({@link dillauniversity.controller.DashboardController#signOut}) so nothing
+     * prepared during the previous session survives into the next one.
+     */
+    public void clear() {
+        for (String key : entries.keySet()) {
+            invalidate(key);
+        }
+    }
+
+    private void evictStale() {
+        entries.forEach((key, entry) -> {
+            if (entry.isExpired()) {
+                entries.remove(key, entry);
+            }
+        });
+    }
+
+    private void evictOverflow() {
+        while (entries.size() > MAX_ENTRIES) {
+            String oldestKey = null;
+            long oldest = Long.MAX_VALUE;
+            for (Map.Entry<String, Entry> e : entries.entrySet()) {
+                if (e.getValue().lastAccess < oldest) {
+                    oldest = e.getValue().lastAccess;
+                    oldestKey = e.getKey();
+                }
+            }
+            if (oldestKey == null) {
+                return;
+            }
+            invalidate(oldestKey);
+        }
+    }
+
+    private static LoadedView load(URL fxml, ClassLoader classLoader) {
+        try {
+            return loadChecked(fxml, classLoader);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    private static LoadedView loadChecked(URL fxml, ClassLoader classLoader) throws IOException {
+        FXMLLoader fxmlLoader = new FXMLLoader(fxml);
+        if (classLoader != null) {
+            fxmlLoader.setClassLoader(classLoader);
+        }
+        Parent root = fxmlLoader.load();
+        return new LoadedView(root, fxmlLoader.getController(), fxml);
+    }
+
+    private static final class Entry {
+        private final URL location;
+        private final CompletableFuture<LoadedView> view;
+        private final long createdAt = System.currentTimeMillis();
+        private volatile long lastAccess = createdAt;
+
+        private Entry(URL location, CompletableFuture<LoadedView> view) {
+            this.location = location;
+            this.view = view;
+        }
+
+        // Compare external forms: URL.equals may resolve host names
+        private boolean sameLocation(URL other) {
+            return location.toExternalForm().equals(other.toExternalForm());
+        }
+
+        private void touch() {
+            lastAccess = System.currentTimeMillis();
+        }
+
+        private boolean isExpired() {
+            return System.currentTimeMillis() - createdAt > MAX_AGE_MS;
+        }
+    }
+}
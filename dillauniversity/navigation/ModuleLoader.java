@@ -0,0 +1,97 @@
+package dillauniversity.navigation;
+
+import dillauniversity.logging.Log;
+import dillauniversity.logging.Logger;
+
+import java.net.MalformedURLException;
+import java.net.URL;
+import java.net.URLClassLoader;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeSet;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Class loaders for the role modules.
+ *
+ * Every route names the module that holds its FXML, stylesheets and controller.
+ * A packaged client ships each module as {@code <module>.jar} in the modules
+ * directory, outside the application class path. The jar is opened the first time
+ * one of its routes is preloaded or shown, so a Teacher login never loads the
+ * Student, Dean or Admin controllers or reads their FXML and CSS. When a module has
+ * no jar (running from the IDE, or a single-jar build) its resources come from the
+ * application class loader as before.
+ *
+ * Module jars must not also be on the class path: class loading is parent-first,
+ * so a copy there would win and be loaded by the application class loader.
+ *
+ * The directory is {@code dillauniversity.modules.dir} (default {@code modules}).
+ */
+public final class ModuleLoader {
+
+    private static final Logger LOG = Log.get(ModuleLoader.class);
+
+    private static final ModuleLoader SHARED = new ModuleLoader(
+            Paths.get(System.getProperty("dillauniversity.modules.dir", "modules")),
+            ModuleLoader.class.getClassLoader());
+
+    private final Path directory;
+    private final ClassLoader parent;
+    private final Map<String, ClassLoader> loaders = new ConcurrentHashMap<>();
+
+    public ModuleLoader(Path directory, ClassLoader parent) {
+        this.directory = directory;
+        this.parent = parent;
+    }
+
+    public static ModuleLoader shared() {
+        return SHARED;
+    }
+
+    /**
+     * The class loader for {@code module}, opening its jar on first use. The
+     * application class loader for {@code null} or a module without a jar.
+     */
+    public ClassLoader classLoader(String module) {
+        if (module == null) {
+            return parent;
+        }
+        return loaders.computeIfAbsent(module, this::open);
+    }
+
+    /**
+     * Resolves a classpath location such as {@code /dillauniversity/resources/x.fxml}
+     * in {@code module}, or {@code null} if it does not exist.
+     */
+    public URL getResource(String module, String path) {
+        String name = path.startsWith("/") ? path.substring(1) : path;
+        return classLoader(module).getResource(name);
+    }
+
+    /**
+     * Modules resolved so far, in name order.
+     */
+    public Set<String> getLoadedModules() {
+        return new TreeSet<>(loaders.keySet());
+    }
+
+    private ClassLoader open(String module) {
+        Path jar = directory.resolve(module + ".jar");
+        if (!Files.isRegularFile(jar)) {
+            LOG.debug("module.on_classpath", "module", module);
+            return parent;
+        }
+        URL url;
+        try {
+            url = jar.toUri().toURL();
+        } catch (MalformedURLException e) {
+            throw new IllegalStateException("Bad module path: " + jar, e);
+        }
+        ClassLoader loader = new URLClassLoader("module-" + module, new URL[] {url}, parent);
+        LOG.info("module.opened", "module", module, "jar", jar);
+        return loader;
+    }
+}
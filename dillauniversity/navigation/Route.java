@@ -0,0 +1,26 @@
+package dillauniversity.navigation;
+
+import java.util.List;
+
+/**
+ * A screen the application can navigate to.
+ *
+ * @param name        route key, e.g. {@code "student-dashboard"}
+ * @param fxml        classpath location of the FXML
+ * @param stylesheets classpath locations of stylesheets applied on top of the base stylesheet
+ * @param title       window title while the route is shown
+ * @param maximized   whether the window is maximized, or sized to its content and centered
+ * @param module      module holding the route's FXML, stylesheets and controller (see
+ *                    {@link ModuleLoader}), or {@code null} for the application itself
+ */
+public record Route(String name, String fxml, List<String> stylesheets, String title, boolean maximized,
+                    String module) {
+
+    public Route {
+        stylesheets = stylesheets == null ? List.of() : List.copyOf(stylesheets);
+    }
+
+    public Route(String name, String fxml, List<String> stylesheets, String title, boolean maximized) {
+        this(name, fxml, stylesheets, title, maximized, null);
+    }
+}
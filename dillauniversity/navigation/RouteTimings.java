@@ -0,0 +1,79 @@
+package dillauniversity.navigation;
+
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Load and render timings for one route.
+ *
+ * "Load" covers resolving and parsing the FXML (or taking the preloaded graph);
+ * "render" runs from swapping the root until the first layout pulse afterwards.
+ */
+public final class RouteTimings {
+
+    private final String route;
+    private final LongAdder loads = new LongAdder();
+    private final LongAdder loadNanos = new LongAdder();
+    private final AtomicLong maxLoadNanos = new AtomicLong();
+    private final LongAdder renders = new LongAdder();
+    private final LongAdder renderNanos = new LongAdder();
+    private final AtomicLong maxRenderNanos = new AtomicLong();
+    private final LongAdder failures = new LongAdder();
+
+    RouteTimings(String route) {
+        this.route = route;
+    }
+
+    void recordLoad(long nanos) {
+        loads.increment();
+        loadNanos.add(nanos);
+        maxLoadNanos.accumulateAndGet(nanos, Math::max);
+    }
+
+    void recordRender(long nanos) {
+        renders.increment();
+        renderNanos.add(nanos);
+        maxRenderNanos.accumulateAndGet(nanos, Math::max);
+    }
+
+    void recordFailure() {
+        failures.increment();
+    }
+
+    public String getRoute() {
+        return route;
+    }
+
+    public long getLoadCount() {
+        return loads.sum();
+    }
+
+    public double getAverageLoadMillis() {
+        long count = loads.sum();
+        return count == 0 ? 0 : loadNanos.sum() / 1_000_000.0 / count;
+    }
+
+    public double getMaxLoadMillis() {
+        return maxLoadNanos.get() / 1_000_000.0;
+    }
+
+    public double getAverageRenderMillis() {
+        long count = renders.sum();
+        return count == 0 ? 0 : renderNanos.sum() / 1_000_000.0 / count;
+    }
+
+    public double getMaxRenderMillis() {
+        return maxRenderNanos.get() / 1_000_000.0;
+    }
+
+    public long getFailureCount() {
+        return failures.sum();
+    }
+
+    @Override
+    public String toString() {
+        return String.format("%s: loads=%d avgLoad=%.1fms maxLoad=%.1fms avgRender=%.1fms maxRender=%.1fms failures=%d",
+                route, getLoadCount(), getAverageLoadMillis(), getMaxLoadMillis(),
+                getAverageRenderMillis(), getMaxRenderMillis(), getFailureCount());
+    }
+}
@@ -0,0 +1,202 @@
+package dillauniversity.navigation;
+
+import dillauniversity.logging.Log;
+import dillauniversity.logging.Logger;
+import dillauniversity.metrics.LoginMetrics;
+import javafx.scene.Parent;
+import javafx.scene.Scene;
+import javafx.stage.Stage;
+
+import java.io.FileNotFoundException;
+import java.io.IOException;
+import java.net.URL;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Consumer;
+
+/**
+ * Central navigation for the client.
+ *
+ * Every route is shown in the stage's existing {@link Scene} by swapping its root,
+ * so the base stylesheet is attached once and stays parsed for the lifetime of
+ * the window instead of being re-applied to a new Scene on every navigation.
+ * Routes can be preloaded through {@link DashboardSceneCache}.
+ *
+ * Routes only name their FXML and stylesheets, never controller classes, and each
+ * role's screens belong to their own module (see {@link ModuleLoader}). Nothing of
+ * a role's dashboard is loaded until that route is preloaded or shown.
+ */
+public final class Router {
+
+    private static final Logger LOG = Log.get(Router.class);
+
+    public static final String BASE_STYLESHEET = "/dillauniversity/resources/styles.css";
+
+    public static final String STUDENT_DASHBOARD = "student-dashboard";
+    public static final String TEACHER_DASHBOARD = "teacher-dashboard";
+    public static final String DEAN_DASHBOARD = "dean-dashboard";
+    public static final String ADMIN_DASHBOARD = "admin-dashboard";
+    public static final String REGISTRATION = "registration";
+
+    private static final Router SHARED = createDefault();
+
+    private final Map<String, Route> routes = new ConcurrentHashMap<>();
+    private final Map<String, RouteTimings> timings = new ConcurrentHashMap<>();
+    private final DashboardSceneCache cache;
+    private final ModuleLoader modules;
+    private final LoginMetrics metrics = LoginMetrics.shared();
+
+    public Router(DashboardSceneCache cache) {
+        this(cache, ModuleLoader.shared());
+    }
+
+    public Router(DashboardSceneCache cache, ModuleLoader modules) {
+        this.cache = cache;
+        this.modules = modules;
+    }
+
+    public static Router shared() {
+        return SHARED;
+    }
+
+    private static Router createDefault() {
+        Router router = new Router(DashboardSceneCache.shared());
+        router.register(new Route(STUDENT_DASHBOARD, "/dillauniversity/resources/StudentDashboard.fxml",
+                List.of(), "Dilla University - Student Dashboard", true, "student"));
+        router.register(new Route(TEACHER_DASHBOARD, "/dillauniversity/resources/teacher_dashboard.fxml",
+                List.of(), "Dilla University - Teacher Dashboard", true, "teacher"));
+        router.register(new Route(DEAN_DASHBOARD, "/dillauniversity/resources/dean_dashboard.fxml",
+                List.of(), "Dilla University - Dean Dashboard", true, "dean"));
+        router.register(new Route(ADMIN_DASHBOARD, "/dillauniversity/resources/admin_dashboard.fxml",
+                List.of(), "Dilla University - Admin Dashboard", true, "admin"));
+        router.register(new Route(REGISTRATION, "/dillauniversity/resources/RegistrationForm.fxml",
+                List.of("/dillauniversity/resources/registration-styles.css"),
+                "Dilla University - Registration", false, "registration"));
+        return router;
+    }
+
+    public void register(Route route) {
+        routes.put(route.name(), route);
+    }
+
+    public Route getRoute(String name) {
+        return routes.get(name);
+    }
+
+    /**
+     * Starts parsing the route's FXML in the background.
+     */
+    public void preload(String name) {
+        Route route = routes.get(name);
+        if (route != null) {
+            cache.preload(route.name(), modules.getResource(route.module(), route.fxml()),
+                    modules.classLoader(route.module()));
+        }
+    }
+
+    /**
+     * Shows {@code name} in {@code stage}. {@code beforeShow} receives the
+     * route's controller (possibly {@code null}) before the root is attached.
+     * Must be called on the FX thread.
+     *
+     * @return the route's controller
+     */
+    public Object navigate(Stage stage, String name, Consumer<Object> beforeShow) throws IOException {
+        Route route = routes.get(name);
+        if (route == null) {
+            throw new IllegalArgumentException("Unknown route: " + name);
+        }
+        RouteTimings routeTimings = timings.computeIfAbsent(name, RouteTimings::new);
+
+        long start = System.nanoTime();
+        DashboardSceneCache.LoadedView view;
+        try {
+            URL fxml = modules.getResource(route.module(), route.fxml());
+            if (fxml == null) {
+                throw new FileNotFoundException(route.fxml());
+            }
+            view = cache.take(route.name(), fxml, modules.classLoader(route.module()));
+        } catch (IOException | RuntimeException e) {
+            routeTimings.recordFailure();
+            metrics.navigationError(name);
+            throw e;
+        }
+        long loadNanos = System.nanoTime() - start;
+        routeTimings.recordLoad(loadNanos);
+        metrics.recordFxmlLoad(loadNanos);
+
+        if (beforeShow != null) {
+            beforeShow.accept(view.controller());
+        }
+
+        long renderStart = System.nanoTime();
+        Scene scene = stage.getScene();
+        if (scene == null) {
+            scene = new Scene(view.root());
+            stage.setScene(scene);
+        } else {
+            scene.setRoot(view.root());
+        }
+        applyStylesheets(scene, route);
+        recordRenderOnNextPulse(scene, routeTimings, metrics, renderStart);
+
+        stage.setTitle(route.title());
+        if (route.maximized()) {
+            stage.setMaximized(true);
+        } else {
+            stage.setMaximized(false);
+            stage.sizeToScene();
+            stage.centerOnScreen();
+        }
+        stage.show();
+        return view.controller();
+    }
+
+    public ModuleLoader getModules() {
+        return modules;
+    }
+
+    public Collection<RouteTimings> getTimings() {
+        return new ArrayList<>(timings.values());
+    }
+
+    public RouteTimings getTimings(String name) {
+        return timings.get(name);
+    }
+
+    // Only touch the stylesheet list when it actually differs, so moving between
+    // routes that share the base stylesheet does not trigger a CSS reapply.
+    private void applyStylesheets(Scene scene, Route route) {
+        List<String> wanted = new ArrayList<>();
+        URL base = Router.class.getResource(BASE_STYLESHEET);
+        if (base != null) {
+            wanted.add(base.toExternalForm());
+        } else {
+            LOG.warn("navigation.stylesheet_missing", "path", BASE_STYLESHEET);
+        }
+        for (String stylesheet : route.stylesheets()) {
+            URL url = modules.getResource(route.module(), stylesheet);
+            if (url != null) {
+                wanted.add(url.toExternalForm());
+            }
+        }
+        if (!scene.getStylesheets().equals(wanted)) {
+            scene.getStylesheets().setAll(wanted);
+        }
+    }
+
+    private static void recordRenderOnNextPulse(Scene scene, RouteTimings routeTimings, LoginMetrics metrics,
+                                                long renderStart) {
+        Runnable[] listener = new Runnable[1];
+        listener[0] = () -> {
+            long renderNanos = System.nanoTime() - renderStart;
+            routeTimings.recordRender(renderNanos);
+            metrics.recordSceneSwitch(renderNanos);
+            scene.removePostLayoutPulseListener(listener[0]);
+        };
+        scene.addPostLayoutPulseListener(listener[0]);
+    }
+}
@@ -0,0 +1,119 @@
+package dillauniversity.roles;
+
+import java.io.IOException;
+import java.net.URI;
+import java.net.URLDecoder;
+import java.net.URLEncoder;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.charset.StandardCharsets;
+import java.sql.SQLException;
+import java.sql.SQLTransientConnectionException;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Reads the roles from the auth server's {@code GET /v1/roles}, for clients that
+ * log in through it and have no database connection of their own.
+ *
+ * The body has one role per line in display order, each line form-encoded as
+ * {@code name=...&route=...&permissions=a,b} ({@link #encode}). An unreachable
+ * server is reported as a {@link SQLTransientConnectionException}, like the
+ * database being down, so callers of {@link RoleRegistry#refresh()} need not care
+ * where the roles came from.
+ */
+public final class RemoteRoles implements RoleRegistry.Loader {
+
+    public static final String CONTENT_TYPE = "text/plain; charset=utf-8";
+
+    private final URI rolesUri;
+    private final Duration timeout;
+    private final HttpClient http;
+
+    public RemoteRoles(URI baseUri, Duration timeout) {
+        this.rolesUri = baseUri.resolve("/v1/roles");
+        this.timeout = timeout;
+        this.http = HttpClient.newBuilder()
+                .connectTimeout(timeout)
+                .version(HttpClient.Version.HTTP_1_1)
+                .build();
+    }
+
+    @Override
+    public List<RoleDefinition> load() throws SQLException {
+        HttpRequest request = HttpRequest.newBuilder(rolesUri).timeout(timeout).GET().build();
+        HttpResponse<String> response;
+        try {
+            response = http.send(request, HttpResponse.BodyHandlers.ofString());
+        } catch (IOException e) {
+            throw new SQLTransientConnectionException("Auth server unreachable: " + e.getMessage(), "08001", e);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new SQLTransientConnectionException("Interrupted while loading roles", "08001", e);
+        }
+        switch (response.statusCode()) {
+            case 200:
+                try {
+                    return decode(response.body());
+                } catch (IllegalArgumentException e) {
+                    throw new SQLException("Auth server sent malformed roles: " + e.getMessage(), e);
+                }
+            case 503:
+                throw new SQLTransientConnectionException("Auth server reports the database unavailable", "08001");
+            default:
+                throw new SQLException("Auth server answered " + response.statusCode());
+        }
+    }
+
+    /**
+     * The {@code /v1/roles} body for {@code roles}.
+     */
+    public static String encode(List<RoleDefinition> roles) {
+        StringBuilder sb = new StringBuilder(64 * roles.size());
+        for (RoleDefinition role : roles) {
+            sb.append("name=").append(URLEncoder.encode(role.name(), StandardCharsets.UTF_8))
+                    .append("&route=").append(URLEncoder.encode(role.dashboardRoute(), StandardCharsets.UTF_8))
+                    .append("&permissions=")
+                    .append(URLEncoder.encode(String.join(",", role.permissions()), StandardCharsets.UTF_8))
+                    .append('\n');
+        }
+        return sb.toString();
+    }
+
+    /**
+     * @throws IllegalArgumentException if a line lacks the name or route
+     */
+    static List<RoleDefinition> decode(String body) {
+        List<RoleDefinition> roles = new ArrayList<>();
+        for (String line : body.split("\n")) {
+            if (line.isBlank()) {
+                continue;
+            }
+            Map<String, String> fields = new LinkedHashMap<>();
+            for (String pair : line.strip().split("&")) {
+                int eq = pair.indexOf('=');
+                if (eq > 0) {
+                    fields.put(pair.substring(0, eq), URLDecoder.decode(pair.substring(eq + 1), StandardCharsets.UTF_8));
+                }
+            }
+            String name = fields.get("name");
+            String route = fields.get("route");
+            if (name == null || name.isEmpty() || route == null || route.isEmpty()) {
+                throw new IllegalArgumentException("Role line without name or route: " + line);
+            }
+            String permissions = fields.getOrDefault("permissions", "");
+            Set<String> granted = permissions.isEmpty()
+                    ? Set.of()
+                    : new LinkedHashSet<>(Arrays.asList(permissions.split(",")));
+            roles.add(new RoleDefinition(name, route, granted));
+        }
+        return roles;
+    }
+}
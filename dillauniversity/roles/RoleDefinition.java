@@ -0,0 +1,19 @@
+package dillauniversity.roles;
+
+import java.util.Set;
+
+/**
+ * One role as configured in the database.
+ *
+ * @param name           role name as stored in {@code users.role} and shown on the
+ *                       login form
+ * @param dashboardRoute name of the {@link dillauniversity.navigation.Router} route
+ *                       opened after login
+ * @param permissions    permissions granted to every user with this role
+ */
+public record RoleDefinition(String name, String dashboardRoute, Set<String> permissions) {
+
+    public RoleDefinition {
+        permissions = Set.copyOf(permissions);
+    }
+}
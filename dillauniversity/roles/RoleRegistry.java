@@ -0,0 +1,259 @@
+package dillauniversity.roles;
+
+import dillauniversity.database.ConnectionPool;
+import dillauniversity.logging.Log;
+import dillauniversity.logging.Logger;
+import dillauniversity.navigation.Router;
+
+import java.net.URI;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.function.Consumer;
+
+/**
+ * Roles, their dashboards and their permissions, loaded from the database.
+ *
+ * Readers get an immutable {@link Snapshot} from a single volatile read, so the
+ * login form, the DAO and navigation never lock. {@link #refresh()} loads a complete
+ * new snapshot and swaps it in atomically; readers see either the old or the new
+ * role set, never a mix. Until the first successful load, and whenever the role
+ * tables are missing, the built-in Student/Teacher/Dean/Admin set is used.
+ *
+ * Tables read:
+ * <pre>
+ * roles(name, dashboard_route, display_order)
+ * role_permissions(role_name, permission)
+ * </pre>
+ * Setting {@code dillauniversity.roles.refreshMs} re-reads them periodically;
+ * otherwise call {@link #refresh()} after changing them. Clients that log in
+ * through the auth server ({@code dillauniversity.auth.url}) read the roles from
+ * its {@code /v1/roles} instead ({@link RemoteRoles}) and never open a database
+ * connection for them.
+ */
+public final class RoleRegistry {
+
+    private static final Logger LOG = Log.get(RoleRegistry.class);
+
+    static final String ROLES_QUERY =
+            "SELECT r.name, r.dashboard_route, p.permission FROM roles r "
+                    + "LEFT JOIN role_permissions p ON p.role_name = r.name "
+                    + "ORDER BY r.display_order, r.name";
+
+    /**
+     * Immutable view of all roles, in display order.
+     */
+    public record Snapshot(List<RoleDefinition> roles, Map<String, RoleDefinition> byName,
+                           long loadedAtMillis, boolean builtIn) {
+
+        static Snapshot of(List<RoleDefinition> roles, boolean builtIn) {
+            Map<String, RoleDefinition> byName = new HashMap<>();
+            for (RoleDefinition role : roles) {
+                byName.put(role.name().toLowerCase(Locale.ROOT), role);
+            }
+            return new Snapshot(List.copyOf(roles), Collections.unmodifiableMap(byName),
+                    System.currentTimeMillis(), builtIn);
+        }
+
+        /**
+         * The role named {@code name} (case-insensitive), or {@code null}.
+         */
+        public RoleDefinition get(String name) {
+            return name == null ? null : byName.get(name.toLowerCase(Locale.ROOT));
+        }
+
+        public List<String> names() {
+            List<String> names = new ArrayList<>(roles.size());
+            for (RoleDefinition role : roles) {
+                names.add(role.name());
+            }
+            return names;
+        }
+    }
+
+    /**
+     * Where a registry reads its roles from.
+     */
+    @FunctionalInterface
+    public interface Loader {
+        /**
+         * All roles in display order; empty when none are configured.
+         */
+        List<RoleDefinition> load() throws SQLException;
+    }
+
+    static final List<RoleDefinition> BUILT_IN = List.of(
+            new RoleDefinition("Student", Router.STUDENT_DASHBOARD, Set.of()),
+            new RoleDefinition("Teacher", Router.TEACHER_DASHBOARD, Set.of()),
+            new RoleDefinition("Dean", Router.DEAN_DASHBOARD, Set.of()),
+            new RoleDefinition("Admin", Router.ADMIN_DASHBOARD, Set.of()));
+
+    private static final RoleRegistry SHARED = create();
+
+    private final Loader loader;
+    private final AtomicReference<Snapshot> snapshot = new AtomicReference<>(Snapshot.of(BUILT_IN, true));
+    private final List<Consumer<Snapshot>> listeners = new CopyOnWriteArrayList<>();
+    private final AtomicReference<CompletableFuture<Snapshot>> refreshInFlight = new AtomicReference<>();
+
+    public RoleRegistry(ConnectionPool pool) {
+        this(() -> load(pool));
+    }
+
+    public RoleRegistry(Loader loader) {
+        this.loader = loader;
+    }
+
+    public static RoleRegistry shared() {
+        return SHARED;
+    }
+
+    private static RoleRegistry create() {
+        String url = System.getProperty("dillauniversity.auth.url");
+        RoleRegistry registry = url == null || url.isBlank()
+                ? new RoleRegistry(ConnectionPool.shared())
+                : new RoleRegistry(new RemoteRoles(URI.create(url),
+                        Duration.ofMillis(Long.getLong("dillauniversity.auth.timeoutMs", 5_000L))));
+        long refreshMillis = Long.getLong("dillauniversity.roles.refreshMs", 0L);
+        if (refreshMillis > 0) {
+            Refresher.EXECUTOR.scheduleWithFixedDelay(registry::refreshAsync, refreshMillis, refreshMillis,
+                    TimeUnit.MILLISECONDS);
+        }
+        registry.refreshAsync();
+        return registry;
+    }
+
+    public Snapshot snapshot() {
+        return snapshot.get();
+    }
+
+    public RoleDefinition get(String role) {
+        return snapshot.get().get(role);
+    }
+
+    public List<String> names() {
+        return snapshot.get().names();
+    }
+
+    /**
+     * Route name of the role's dashboard, or {@code null} for an unknown role.
+     */
+    public String dashboardRoute(String role) {
+        RoleDefinition definition = snapshot.get().get(role);
+        return definition == null ? null : definition.dashboardRoute();
+    }
+
+    public Set<String> permissions(String role) {
+        RoleDefinition definition = snapshot.get().get(role);
+        return definition == null ? Set.of() : definition.permissions();
+    }
+
+    /**
+     * Reloads the roles on the calling thread and publishes them. On failure the
+     * current snapshot stays in place.
+     */
+    public Snapshot refresh() throws SQLException {
+        List<RoleDefinition> roles = loader.load();
+        if (roles.isEmpty()) {
+            LOG.warn("roles.empty", "kept", snapshot.get().roles().size());
+            return snapshot.get();
+        }
+        Snapshot next = Snapshot.of(roles, false);
+        Snapshot previous = snapshot.getAndSet(next);
+        if (!previous.roles().equals(next.roles())) {
+            LOG.info("roles.loaded", "count", roles.size(), "names", String.join("|", next.names()));
+            for (Consumer<Snapshot> listener : listeners) {
+                try {
+                    listener.accept(next);
+                } catch (RuntimeException e) {
+                    LOG.warn("roles.listener_failed", e, "count", roles.size());
+                }
+            }
+        }
+        return next;
+    }
+
+    /**
+     * Runs {@link #refresh()} on the registry's background thread. Concurrent calls
+     * share one load.
+     */
+    public CompletableFuture<Snapshot> refreshAsync() {
+        CompletableFuture<Snapshot> running = refreshInFlight.get();
+        if (running != null && !running.isDone()) {
+            return running;
+        }
+        CompletableFuture<Snapshot> next = new CompletableFuture<>();
+        if (!refreshInFlight.compareAndSet(running, next)) {
+            return refreshInFlight.get();
+        }
+        Refresher.EXECUTOR.execute(() -> {
+            try {
+                next.complete(refresh());
+            } catch (SQLException | RuntimeException e) {
+                LOG.warn("roles.refresh_failed", "error", e.getMessage(), "using",
+                        snapshot.get().builtIn() ? "built-in" : "last loaded");
+                next.complete(snapshot.get());
+            }
+        });
+        return next;
+    }
+
+    /**
+     * Called with each new snapshot whose roles differ from the previous one, on the
+     * thread that refreshed. UI code must hop to the FX thread.
+     */
+    public void addListener(Consumer<Snapshot> listener) {
+        listeners.add(listener);
+    }
+
+    public void removeListener(Consumer<Snapshot> listener) {
+        listeners.remove(listener);
+    }
+
+    private static List<RoleDefinition> load(ConnectionPool pool) throws SQLException {
+        Map<String, String> routes = new LinkedHashMap<>();
+        Map<String, Set<String>> permissions = new HashMap<>();
+        try (Connection connection = pool.getConnection();
+             PreparedStatement statement = connection.prepareStatement(ROLES_QUERY);
+             ResultSet rs = statement.executeQuery()) {
+            while (rs.next()) {
+                String name = rs.getString(1);
+                routes.putIfAbsent(name, rs.getString(2));
+                String permission = rs.getString(3);
+                Set<String> granted = permissions.computeIfAbsent(name, n -> new LinkedHashSet<>());
+                if (permission != null) {
+                    granted.add(permission);
+                }
+            }
+        }
+        List<RoleDefinition> roles = new ArrayList<>(routes.size());
+        routes.forEach((name, route) -> roles.add(new RoleDefinition(name, route, permissions.get(name))));
+        return roles;
+    }
+
+    // One daemon thread for every registry's loads and periodic refreshes; created
+    // on the first refresh, so registries that are never refreshed start nothing
+    private static final class Refresher {
+        private static final ScheduledExecutorService EXECUTOR = Executors.newSingleThreadScheduledExecutor(r -> {
+            Thread thread = new Thread(r, "role-registry-refresh");
+            thread.setDaemon(true);
+            return thread;
+        });
+    }
+}
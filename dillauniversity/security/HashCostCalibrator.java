@@ -0,0 +1,140 @@
+package dillauniversity.security;
+
+import dillauniversity.logging.Log;
+import dillauniversity.logging.Logger;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.util.Properties;
+
+/**
+ * Picks the PBKDF2 iteration count for this machine.
+ *
+ * A short built-in benchmark measures how long a fixed number of iterations takes
+ * here and scales it so one hash costs about {@code targetMillis}, never going
+ * below {@link PasswordHasher#MIN_ITERATIONS}. The result is saved to
+ * {@code password-cost.properties} together with the target, CPU count and Java
+ * version, and the benchmark runs again only when one of those changes.
+ * Setting {@code dillauniversity.password.iterations} skips calibration entirely,
+ * as does {@link #fixed} for a single instance.
+ */
+public final class HashCostCalibrator {
+
+    private static final Logger LOG = Log.get(HashCostCalibrator.class);
+
+    private static final int PROBE_ITERATIONS = 20_000;
+    private static final int PROBE_ROUNDS = 5;
+
+    private final Path file;
+    private final long targetMillis;
+    private final int fixedIterations;
+
+    public HashCostCalibrator(Path file, long targetMillis) {
+        this(file, targetMillis, 0);
+    }
+
+    private HashCostCalibrator(Path file, long targetMillis, int fixedIterations) {
+        this.file = file;
+        this.targetMillis = targetMillis;
+        this.fixedIterations = fixedIterations;
+    }
+
+    /**
+     * A calibrator that always returns {@code iterations}, e.g. so benchmarks hash
+     * at the same cost their seed data was written with.
+     */
+    public static HashCostCalibrator fixed(int iterations) {
+        if (iterations < 1) {
+            throw new IllegalArgumentException("iterations must be positive: " + iterations);
+        }
+        return new HashCostCalibrator(null, 0, iterations);
+    }
+
+    /**
+     * Returns the configured, saved or freshly measured iteration count.
+     */
+    public int iterations() {
+        if (fixedIterations > 0) {
+            return fixedIterations;
+        }
+        Integer configured = Integer.getInteger("dillauniversity.password.iterations");
+        if (configured != null) {
+            return Math.max(1, configured);
+        }
+        Properties saved = load();
+        if (saved != null && fingerprint().equals(saved.getProperty("fingerprint"))) {
+            try {
+                return Math.max(PasswordHasher.MIN_ITERATIONS, Integer.parseInt(saved.getProperty("iterations")));
+            } catch (NumberFormatException e) {
+                // Fall through and measure again
+            }
+        }
+        int iterations = measure();
+        save(iterations);
+        return iterations;
+    }
+
+    /**
+     * Runs the benchmark without reading or writing the saved result.
+     */
+    public int measure() {
+        byte[] salt = new byte[16];
+        // The first rounds warm up the JIT; keep the fastest of the rest
+        long best = Long.MAX_VALUE;
+        for (int round = 0; round < PROBE_ROUNDS; round++) {
+            long start = System.nanoTime();
+            PasswordHasher.derive("calibration", salt, PROBE_ITERATIONS, 256);
+            long elapsed = System.nanoTime() - start;
+            if (round >= 2) {
+                best = Math.min(best, elapsed);
+            }
+        }
+        double nanosPerIteration = (double) best / PROBE_ITERATIONS;
+        long scaled = (long) (targetMillis * 1_000_000L / nanosPerIteration);
+        int iterations = (int) Math.max(PasswordHasher.MIN_ITERATIONS, Math.min(Integer.MAX_VALUE, scaled));
+        // Round to a readable number; the precision is not meaningful anyway
+        iterations = (iterations / 10_000) * 10_000;
+        LOG.info("password.calibrated", "iterations", iterations, "targetMs", targetMillis,
+                "nsPerIteration", String.format("%.1f", nanosPerIteration));
+        return iterations;
+    }
+
+    private String fingerprint() {
+        return targetMillis + "ms/" + Runtime.getRuntime().availableProcessors() + "cpu/"
+                + System.getProperty("java.version");
+    }
+
+    private Properties load() {
+        if (!Files.isRegularFile(file)) {
+            return null;
+        }
+        Properties properties = new Properties();
+        try (InputStream in = Files.newInputStream(file)) {
+            properties.load(in);
+            return properties;
+        } catch (IOException e) {
+            LOG.warn("password.calibration_unreadable", e, "file", file);
+            return null;
+        }
+    }
+
+    private void save(int iterations) {
+        Properties properties = new Properties();
+        properties.setProperty("iterations", Integer.toString(iterations));
+        properties.setProperty("fingerprint", fingerprint());
+        try {
+            Files.createDirectories(file.toAbsolutePath().getParent());
+            Path temp = file.resolveSibling(file.getFileName() + ".tmp");
+            try (OutputStream out = Files.newOutputStream(temp)) {
+                properties.store(out, "PBKDF2 cost calibrated for this machine");
+            }
+            Files.move(temp, file, StandardCopyOption.REPLACE_EXISTING);
+        } catch (IOException e) {
+            LOG.warn("password.calibration_not_saved", e, "file", file);
+        }
+    }
+}
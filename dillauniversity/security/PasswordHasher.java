@@ -0,0 +1,206 @@
+package dillauniversity.security;
+
+import java.nio.charset.StandardCharsets;
+import java.security.GeneralSecurityException;
+import java.security.MessageDigest;
+import java.security.SecureRandom;
+import java.util.Arrays;
+import java.util.Base64;
+import java.util.HexFormat;
+import javax.crypto.SecretKeyFactory;
+import javax.crypto.spec.PBEKeySpec;
+
+/**
+ * Salted, versioned password hashes.
+ *
+ * New hashes are PBKDF2-HMAC-SHA256 in the form
+ * <pre>
+ * $pbkdf2-sha256$v=1$i=&lt;iterations&gt;$&lt;salt&gt;$&lt;hash&gt;
+ * </pre>
+ * with base64 (no padding) salt and hash. The iteration count is stored with every
+ * hash, so raising the cost only affects hashes written afterwards.
+ *
+ * Older values are recognised explicitly (see {@link Format}): unsalted MD5,
+ * SHA-1 and SHA-256 hex digests, and plaintext passwords from before hashing was
+ * introduced. They still verify, but {@link #needsRehash} reports them so they are
+ * replaced on the user's next successful login. Anything else starting with
+ * {@code $} (bcrypt, crypt(3), a newer scheme) is {@link Format#UNSUPPORTED} and
+ * never matches.
+ */
+public final class PasswordHasher {
+
+    /**
+     * What a stored password value is.
+     */
+    public enum Format {
+        PBKDF2,
+        /** Unsalted hex digests; compared against the digest of the password */
+        SHA256_HEX,
+        SHA1_HEX,
+        MD5_HEX,
+        /** Legacy rows without any hash */
+        PLAINTEXT,
+        /**
+         * A {@code $}-prefixed scheme this hasher cannot check, e.g. bcrypt
+         * {@code $2b$}, or no password at all (NULL or empty)
+         */
+        UNSUPPORTED
+    }
+
+    public static final String SCHEME = "pbkdf2-sha256";
+    public static final int VERSION = 1;
+    public static final int MIN_ITERATIONS = 100_000;
+
+    private static final String ALGORITHM = "PBKDF2WithHmacSHA256";
+    private static final int SALT_BYTES = 16;
+    private static final int KEY_BITS = 256;
+    private static final Base64.Encoder ENCODER = Base64.getEncoder().withoutPadding();
+    private static final Base64.Decoder DECODER = Base64.getDecoder();
+
+    private final int iterations;
+    private final SecureRandom random = new SecureRandom();
+
+    public PasswordHasher(int iterations) {
+        if (iterations < 1) {
+            throw new IllegalArgumentException("iterations must be positive: " + iterations);
+        }
+        this.iterations = iterations;
+    }
+
+    public int getIterations() {
+        return iterations;
+    }
+
+    public String hash(String password) {
+        byte[] salt = new byte[SALT_BYTES];
+        random.nextBytes(salt);
+        byte[] key = derive(password, salt, iterations, KEY_BITS);
+        return "$" + SCHEME + "$v=" + VERSION + "$i=" + iterations
+                + "$" + ENCODER.encodeToString(salt) + "$" + ENCODER.encodeToString(key);
+    }
+
+    /**
+     * Checks {@code password} against a stored value in constant time. Unknown or
+     * malformed hashes never match.
+     */
+    public boolean verify(String password, String stored) {
+        if (password == null || stored == null) {
+            return false;
+        }
+        switch (formatOf(stored)) {
+            case PBKDF2:
+                Parsed parsed = parse(stored);
+                if (parsed == null) {
+                    return false;
+                }
+                byte[] actual = derive(password, parsed.salt, parsed.iterations, parsed.hash.length * 8);
+                return MessageDigest.isEqual(actual, parsed.hash);
+            case SHA256_HEX:
+                return digestMatches("SHA-256", password, stored);
+            case SHA1_HEX:
+                return digestMatches("SHA-1", password, stored);
+            case MD5_HEX:
+                return digestMatches("MD5", password, stored);
+            case PLAINTEXT:
+                return MessageDigest.isEqual(stored.getBytes(StandardCharsets.UTF_8),
+                        password.getBytes(StandardCharsets.UTF_8));
+            default:
+                return false;
+        }
+    }
+
+    /**
+     * True when {@code stored} was not produced by this hasher's current scheme,
+     * version and cost, i.e. it should be replaced after a successful login.
+     */
+    public boolean needsRehash(String stored) {
+        if (stored == null || formatOf(stored) != Format.PBKDF2) {
+            return true;
+        }
+        Parsed parsed = parse(stored);
+        return parsed == null || parsed.version < VERSION || parsed.iterations < iterations;
+    }
+
+    /**
+     * Classifies a stored value. A hex string of digest length is taken to be a
+     * digest, never a plaintext password; a missing or empty value is
+     * {@link Format#UNSUPPORTED}.
+     */
+    public static Format formatOf(String stored) {
+        if (stored == null || stored.isEmpty()) {
+            return Format.UNSUPPORTED;
+        }
+        if (stored.startsWith("$")) {
+            return stored.startsWith("$" + SCHEME + "$") ? Format.PBKDF2 : Format.UNSUPPORTED;
+        }
+        if (isHex(stored)) {
+            switch (stored.length()) {
+                case 64:
+                    return Format.SHA256_HEX;
+                case 40:
+                    return Format.SHA1_HEX;
+                case 32:
+                    return Format.MD5_HEX;
+                default:
+                    break;
+            }
+        }
+        return Format.PLAINTEXT;
+    }
+
+    private static boolean digestMatches(String algorithm, String password, String storedHex) {
+        try {
+            byte[] actual = MessageDigest.getInstance(algorithm).digest(password.getBytes(StandardCharsets.UTF_8));
+            return MessageDigest.isEqual(actual, HexFormat.of().parseHex(storedHex));
+        } catch (GeneralSecurityException e) {
+            return false;
+        }
+    }
+
+    private static boolean isHex(String value) {
+        for (int i = 0; i < value.length(); i++) {
+            char c = value.charAt(i);
+            if ((c < '0' || c > '9') && (c < 'a' || c > 'f') && (c < 'A' || c > 'F')) {
+                return false;
+            }
+        }
+        return !value.isEmpty();
+    }
+
+    private static Parsed parse(String stored) {
+        // "", scheme, v=, i=, salt, hash
+        String[] parts = stored.split("\\$");
+        if (parts.length != 6 || !SCHEME.equals(parts[1])
+                || !parts[2].startsWith("v=") || !parts[3].startsWith("i=")) {
+            return null;
+        }
+        try {
+            int version = Integer.parseInt(parts[2].substring(2));
+            int iterations = Integer.parseInt(parts[3].substring(2));
+            byte[] salt = DECODER.decode(parts[4]);
+            byte[] hash = DECODER.decode(parts[5]);
+            if (iterations < 1 || salt.length == 0 || hash.length == 0) {
+                return null;
+            }
+            return new Parsed(version, iterations, salt, hash);
+        } catch (IllegalArgumentException e) {
+            return null;
+        }
+    }
+
+    static byte[] derive(String password, byte[] salt, int iterations, int keyBits) {
+        char[] chars = password.toCharArray();
+        PBEKeySpec spec = new PBEKeySpec(chars, salt, iterations, keyBits);
+        try {
+            return SecretKeyFactory.getInstance(ALGORITHM).generateSecret(spec).getEncoded();
+        } catch (GeneralSecurityException e) {
+            throw new IllegalStateException(ALGORITHM + " unavailable", e);
+        } finally {
+            spec.clearPassword();
+            Arrays.fill(chars, '\0');
+        }
+    }
+
+    private record Parsed(int version, int iterations, byte[] salt, byte[] hash) {
+    }
+}
@@ -0,0 +1,151 @@
+package dillauniversity.security;
+
+import dillauniversity.metrics.LatencyHistogram;
+import dillauniversity.metrics.MetricsRegistry;
+
+import java.nio.file.Paths;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Runs password hashing on its own small, bounded pool.
+ *
+ * PBKDF2 is deliberately slow. It never runs on the FX thread, and login workers
+ * hand it to this pool only after returning their database connection, so a burst
+ * of logins queues here instead of holding connections. The pool's threads run
+ * below normal priority so the UI stays responsive while hashes are computed. When
+ * the queue is full, calls fail with {@link RejectedExecutionException}, which the
+ * login screen already reports as "busy".
+ *
+ * The cost for new hashes comes from {@link HashCostCalibrator}; it is determined
+ * on the pool the first time a hash is written, never on the login path.
+ */
+public final class PasswordVerifier {
+
+    private static final int THREADS = Integer.getInteger("dillauniversity.password.threads",
+            Math.max(1, Runtime.getRuntime().availableProcessors() / 2));
+    private static final int QUEUE_CAPACITY = Integer.getInteger("dillauniversity.password.queue", 32);
+    private static final long TARGET_MS = Long.getLong("dillauniversity.password.targetMs", 250L);
+
+    private static final PasswordVerifier SHARED = new PasswordVerifier(
+            new HashCostCalibrator(Paths.get(System.getProperty("dillauniversity.home",
+                    System.getProperty("user.home") + "/.dillauniversity"), "password-cost.properties"),
+                    TARGET_MS),
+            THREADS, QUEUE_CAPACITY);
+
+    private final HashCostCalibrator calibrator;
+    private final ThreadPoolExecutor executor;
+    private final LatencyHistogram verifyTime = MetricsRegistry.shared()
+            .histogram("password_verify", "Time to verify a password hash, excluding queueing");
+    // Verification reads the cost from the stored hash, so it never needs calibration;
+    // this instance also stands in for unknown usernames until calibration has run
+    private final PasswordHasher baseline = new PasswordHasher(PasswordHasher.MIN_ITERATIONS);
+    private volatile PasswordHasher current;
+
+    /**
+     * Verifier with the configured pool size and queue, e.g. for a standalone
+     * database in benchmarks.
+     */
+    public PasswordVerifier(HashCostCalibrator calibrator) {
+        this(calibrator, THREADS, QUEUE_CAPACITY);
+    }
+
+    public PasswordVerifier(HashCostCalibrator calibrator, int threads, int queueCapacity) {
+        this.calibrator = calibrator;
+        this.executor = new ThreadPoolExecutor(threads, threads, 0L, TimeUnit.MILLISECONDS,
+                new ArrayBlockingQueue<>(queueCapacity), new HashThreadFactory(),
+                new ThreadPoolExecutor.AbortPolicy());
+    }
+
+    public static PasswordVerifier shared() {
+        return SHARED;
+    }
+
+    /**
+     * Completes with whether {@code password} matches {@code stored}.
+     */
+    public CompletableFuture<Boolean> verify(String password, String stored) {
+        return CompletableFuture.supplyAsync(() -> {
+            long start = System.nanoTime();
+            try {
+                return baseline.verify(password, stored);
+            } finally {
+                verifyTime.recordSince(start);
+            }
+        }, executor);
+    }
+
+    /**
+     * Does the work of a verification without a stored hash, so a login for an
+     * unknown username takes about as long as one with a wrong password.
+     */
+    public CompletableFuture<Boolean> verifyNothing(String password) {
+        PasswordHasher hasher = current != null ? current : baseline;
+        return CompletableFuture.supplyAsync(() -> {
+            hasher.hash(password == null ? "" : password);
+            return false;
+        }, executor);
+    }
+
+    /**
+     * Completes with a new hash of {@code password} when {@code stored} uses an older
+     * scheme or a lower cost than the current one, or with {@code null} when it is
+     * already up to date.
+     */
+    public CompletableFuture<String> rehashIfNeeded(String password, String stored) {
+        return CompletableFuture.supplyAsync(() -> {
+            PasswordHasher hasher = getHasher();
+            return hasher.needsRehash(stored) ? hasher.hash(password) : null;
+        }, executor);
+    }
+
+    /**
+     * Hashes {@code password} with the current cost, e.g. when an account is created.
+     */
+    public CompletableFuture<String> hash(String password) {
+        return CompletableFuture.supplyAsync(() -> getHasher().hash(password), executor);
+    }
+
+    /**
+     * The hasher for new hashes at the calibrated cost, e.g. for bulk imports that
+     * hash on their own threads. Calibrates on first use.
+     */
+    public PasswordHasher getHasher() {
+        PasswordHasher hasher = current;
+        if (hasher == null) {
+            synchronized (this) {
+                hasher = current;
+                if (hasher == null) {
+                    hasher = new PasswordHasher(calibrator.iterations());
+                    current = hasher;
+                }
+            }
+        }
+        return hasher;
+    }
+
+    public int getQueueSize() {
+        return executor.getQueue().size();
+    }
+
+    public void shutdown() {
+        executor.shutdownNow();
+    }
+
+    private static final class HashThreadFactory implements ThreadFactory {
+        private final AtomicInteger counter = new AtomicInteger();
+
+        @Override
+        public Thread newThread(Runnable r) {
+            Thread thread = new Thread(r, "password-hash-" + counter.incrementAndGet());
+            thread.setDaemon(true);
+            thread.setPriority(Thread.NORM_PRIORITY - 1);
+            return thread;
+        }
+    }
+}
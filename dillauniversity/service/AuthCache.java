@@ -0,0 +1,255 @@
+package dillauniversity.service;
+
+import dillauniversity.model.UserSession;
+
+import java.nio.charset.StandardCharsets;
+import java.security.GeneralSecurityException;
+import java.security.MessageDigest;
+import java.security.SecureRandom;
+import java.time.Instant;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.atomic.LongAdder;
+import javax.crypto.Mac;
+import javax.crypto.spec.SecretKeySpec;
+
+/**
+ * Remembers recently verified logins so a repeat sign-in on the same workstation
+ * skips the password hash verification.
+ *
+ * Entries are keyed by username and role and hold an HMAC of a random per-entry
+ * salt and the password, never the password itself. Lookups compare in constant
+ * time. The cache is LRU-bounded to {@code maxEntries} and every entry expires
+ * {@code ttlMillis} after it was verified against the database.
+ *
+ * The cache only lives in this process, while passwords and roles can be changed
+ * from anywhere. Every hit is therefore checked against the user's current
+ * {@link CredentialStamp} (the stored hash and role, read with one indexed
+ * query): an entry verified against a different stamp is not used, so a password
+ * or role change takes effect on the next login. {@link #invalidate(String)}
+ * additionally drops entries right away, and a failed database check for a key
+ * drops its entry.
+ */
+public final class AuthCache {
+
+    private static final int SALT_BYTES = 16;
+
+    /**
+     * Reads what a cached login was verified against, e.g. the stored password
+     * hash and role of the user, or {@code null} when the user does not exist.
+     * Must change whenever the password or role does.
+     */
+    @FunctionalInterface
+    public interface CredentialStamp {
+        String current(String username) throws Exception;
+    }
+
+    private static final AuthCache SHARED = new AuthCache(
+            Integer.getInteger("dillauniversity.authCache.maxEntries", 512),
+            Long.getLong("dillauniversity.authCache.ttlMs", 10 * 60_000L));
+
+    private final int maxEntries;
+    private final long ttlMillis;
+    private final SecureRandom random = new SecureRandom();
+    private final SecretKeySpec processKey;
+    private final LinkedHashMap<String, Entry> entries;
+
+    private final LongAdder hits = new LongAdder();
+    private final LongAdder misses = new LongAdder();
+    private final LongAdder evictions = new LongAdder();
+    private final LongAdder invalidations = new LongAdder();
+
+    public AuthCache(int maxEntries, long ttlMillis) {
+        this.maxEntries = maxEntries;
+        this.ttlMillis = ttlMillis;
+        byte[] key = new byte[32];
+        random.nextBytes(key);
+        this.processKey = new SecretKeySpec(key, "HmacSHA256");
+        this.entries = new LinkedHashMap<>(64, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<String, Entry> eldest) {
+                if (size() > AuthCache.this.maxEntries) {
+                    evictions.increment();
+                    return true;
+                }
+                return false;
+            }
+        };
+    }
+
+    public static AuthCache shared() {
+        return SHARED;
+    }
+
+    /**
+     * Wraps {@code delegate} so verified logins are served from this cache until
+     * they expire or {@code stamps} reports a different credential stamp.
+     */
+    public LoginService.Authenticator cached(LoginService.Authenticator delegate, CredentialStamp stamps) {
+        return (username, password, role) -> {
+            // Read before verifying: if the row changes in between, the stored stamp is
+            // already stale and the next login verifies again
+            String stamp = stamps.current(username);
+            if (stamp == null) {
+                invalidate(username);
+                return delegate.authenticate(username, password, role);
+            }
+            UserSession cached = lookup(username, password, role, stamp);
+            if (cached != null) {
+                return cached;
+            }
+            UserSession session = delegate.authenticate(username, password, role);
+            if (session != null) {
+                put(username, password, role, stamp, session);
+            } else {
+                invalidate(username, role);
+            }
+            return session;
+        };
+    }
+
+    /**
+     * Returns a fresh session for a cached, unexpired entry whose password matches
+     * and that was verified against {@code stamp}, or {@code null}.
+     */
+    public UserSession lookup(String username, String password, String role, String stamp) {
+        String key = key(username, role);
+        Entry entry;
+        synchronized (entries) {
+            entry = entries.get(key);
+        }
+        if (entry == null || entry.expiresAt < System.currentTimeMillis()) {
+            if (entry != null) {
+                remove(key, entry);
+            }
+            misses.increment();
+            return null;
+        }
+        if (!MessageDigest.isEqual(entry.stamp, hash(entry.salt, stamp))) {
+            // Password or role changed since this entry was verified
+            remove(key, entry);
+            misses.increment();
+            return null;
+        }
+        if (!MessageDigest.isEqual(entry.hash, hash(entry.salt, password))) {
+            misses.increment();
+            return null;
+        }
+        hits.increment();
+        UserSession s = entry.session;
+        return new UserSession(s.userId(), s.username(), s.role(), s.fullName(), s.email(),
+                s.permissions(), Instant.now());
+    }
+
+    public void put(String username, String password, String role, String stamp, UserSession session) {
+        byte[] salt = new byte[SALT_BYTES];
+        random.nextBytes(salt);
+        Entry entry = new Entry(salt, hash(salt, password), hash(salt, stamp), session,
+                System.currentTimeMillis() + ttlMillis);
+        synchronized (entries) {
+            entries.put(key(username, role), entry);
+        }
+    }
+
+    /**
+     * Drops every cached login for {@code username}, whatever the role. Call after a
+     * password or role change made through this process.
+     */
+    public void invalidate(String username) {
+        String prefix = username + '\n';
+        synchronized (entries) {
+            Iterator<String> it = entries.keySet().iterator();
+            while (it.hasNext()) {
+                if (it.next().startsWith(prefix)) {
+                    it.remove();
+                    invalidations.increment();
+                }
+            }
+        }
+    }
+
+    public void invalidate(String username, String role) {
+        synchronized (entries) {
+            if (entries.remove(key(username, role)) != null) {
+                invalidations.increment();
+            }
+        }
+    }
+
+    public void invalidateAll() {
+        synchronized (entries) {
+            invalidations.add(entries.size());
+            entries.clear();
+        }
+    }
+
+    public int size() {
+        synchronized (entries) {
+            return entries.size();
+        }
+    }
+
+    public long getHitCount() {
+        return hits.sum();
+    }
+
+    public long getMissCount() {
+        return misses.sum();
+    }
+
+    public long getEvictionCount() {
+        return evictions.sum();
+    }
+
+    public long getInvalidationCount() {
+        return invalidations.sum();
+    }
+
+    @Override
+    public String toString() {
+        return "AuthCache[size=" + size() + ", hits=" + getHitCount() + ", misses=" + getMissCount()
+                + ", evictions=" + getEvictionCount() + ", invalidations=" + getInvalidationCount() + "]";
+    }
+
+    private void remove(String key, Entry entry) {
+        synchronized (entries) {
+            if (entries.get(key) == entry) {
+                entries.remove(key);
+                evictions.increment();
+            }
+        }
+    }
+
+    private static String key(String username, String role) {
+        return username + '\n' + (role == null ? "" : role.toLowerCase(Locale.ROOT));
+    }
+
+    private byte[] hash(byte[] salt, String password) {
+        try {
+            Mac mac = Mac.getInstance("HmacSHA256");
+            mac.init(processKey);
+            mac.update(salt);
+            return mac.doFinal(password.getBytes(StandardCharsets.UTF_8));
+        } catch (GeneralSecurityException e) {
+            throw new IllegalStateException("HmacSHA256 not available", e);
+        }
+    }
+
+    private static final class Entry {
+        private final byte[] salt;
+        private final byte[] hash;
+        private final byte[] stamp;
+        private final UserSession session;
+        private final long expiresAt;
+
+        private Entry(byte[] salt, byte[] hash, byte[] stamp, UserSession session, long expiresAt) {
+            this.salt = salt;
+            this.hash = hash;
+            this.stamp = stamp;
+            this.session = session;
+            this.expiresAt = expiresAt;
+        }
+    }
+}
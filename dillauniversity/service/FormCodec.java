@@ -0,0 +1,90 @@
+package dillauniversity.service;
+
+import dillauniversity.model.UserSession;
+
+import java.net.URLDecoder;
+import java.net.URLEncoder;
+import java.nio.charset.StandardCharsets;
+import java.time.Instant;
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * {@code application/x-www-form-urlencoded} bodies used between
+ * {@link RemoteAuthenticator} and the auth server, plus the mapping of a
+ * {@link UserSession} to and from such a body.
+ */
+public final class FormCodec {
+
+    public static final String CONTENT_TYPE = "application/x-www-form-urlencoded; charset=utf-8";
+
+    private FormCodec() {
+    }
+
+    public static String encode(Map<String, String> fields) {
+        StringBuilder sb = new StringBuilder(128);
+        for (Map.Entry<String, String> field : fields.entrySet()) {
+            if (field.getValue() == null) {
+                continue;
+            }
+            if (sb.length() > 0) {
+                sb.append('&');
+            }
+            sb.append(URLEncoder.encode(field.getKey(), StandardCharsets.UTF_8)).append('=')
+                    .append(URLEncoder.encode(field.getValue(), StandardCharsets.UTF_8));
+        }
+        return sb.toString();
+    }
+
+    public static Map<String, String> decode(String body) {
+        Map<String, String> fields = new LinkedHashMap<>();
+        if (body == null || body.isEmpty()) {
+            return fields;
+        }
+        for (String pair : body.split("&")) {
+            int eq = pair.indexOf('=');
+            String key = eq < 0 ? pair : pair.substring(0, eq);
+            String value = eq < 0 ? "" : pair.substring(eq + 1);
+            fields.put(URLDecoder.decode(key, StandardCharsets.UTF_8), URLDecoder.decode(value, StandardCharsets.UTF_8));
+        }
+        return fields;
+    }
+
+    public static Map<String, String> fromSession(UserSession session) {
+        Map<String, String> fields = new LinkedHashMap<>();
+        fields.put("userId", Long.toString(session.userId()));
+        fields.put("username", session.username());
+        fields.put("role", session.role());
+        fields.put("fullName", session.fullName());
+        fields.put("email", session.email());
+        fields.put("permissions", String.join(",", session.permissions()));
+        fields.put("authenticatedAt", Long.toString(session.authenticatedAt().toEpochMilli()));
+        return fields;
+    }
+
+    /**
+     * @throws IllegalArgumentException if a required field is missing or malformed
+     */
+    public static UserSession toSession(Map<String, String> fields) {
+        String username = fields.get("username");
+        String role = fields.get("role");
+        if (username == null || role == null) {
+            throw new IllegalArgumentException("Session is missing username or role");
+        }
+        String permissions = fields.getOrDefault("permissions", "");
+        Set<String> granted = permissions.isEmpty()
+                ? Set.of()
+                : new LinkedHashSet<>(Arrays.asList(permissions.split(",")));
+        return new UserSession(
+                Long.parseLong(fields.getOrDefault("userId", "0")),
+                username,
+                role,
+                fields.get("fullName"),
+                fields.get("email"),
+                granted,
+                Instant.ofEpochMilli(Long.parseLong(fields.getOrDefault("authenticatedAt", "0"))));
+    }
+}
@@ -0,0 +1,470 @@
+package dillauniversity.service;
+
+import dillauniversity.dao.RememberTokenDAO;
+import dillauniversity.dao.UserAuthDAO;
+import dillauniversity.database.ConnectionPool;
+import dillauniversity.database.DatabaseHealthMonitor;
+import dillauniversity.metrics.LoginMetrics;
+import dillauniversity.metrics.MetricsExporter;
+import dillauniversity.metrics.MetricsRegistry;
+import dillauniversity.model.UserSession;
+import dillauniversity.roles.RoleRegistry;
+
+import java.net.InetAddress;
+import java.net.URI;
+import java.net.UnknownHostException;
+import java.sql.SQLException;
+import java.sql.SQLNonTransientConnectionException;
+import java.sql.SQLTransientConnectionException;
+import java.time.Duration;
+import java.util.Map;
+import java.util.Objects;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Future;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Runs login attempts off the JavaFX application thread.
+ *
+ * Attempts are executed on a small bounded pool, identical submissions that are
+ * still in flight share one result, and every attempt is bounded by a timeout.
+ * Callers get a {@link CompletableFuture} and are responsible for hopping back
+ * to the FX thread (Platform.runLater) before touching any UI.
+ */
+public final class LoginService {
+
+    /**
+     * Verifies credentials and returns the user's session, or {@code null} when
+     * they are wrong.
+     */
+    @FunctionalInterface
+    public interface Authenticator {
+        UserSession authenticate(String username, String password, String role) throws Exception;
+
+        /**
+         * Called when {@code username} signs out, for authenticators that hold a
+         * session on the user's behalf. Must not block.
+         */
+        default void logout(String username) {
+        }
+    }
+
+    /**
+     * Server side of "remember me". The client keeps only the token
+     * ({@link RememberMeStore}); whoever implements this keeps what it stands for.
+     */
+    public interface RememberTokens {
+        /**
+         * Creates a resume token for the user of {@code session}, or {@code null}
+         * when nothing can be remembered for it (its server session has ended).
+         */
+        String issue(UserSession session) throws Exception;
+
+        /**
+         * The session for {@code token}, built from the user's current role and
+         * permissions, or {@code null} when the token is unknown, expired or revoked.
+         */
+        UserSession resume(String token) throws Exception;
+
+        void revoke(String token) throws Exception;
+    }
+
+    private static final int WORKERS = Integer.getInteger("dillauniversity.login.workers", 2);
+    private static final int QUEUE_CAPACITY = Integer.getInteger("dillauniversity.login.queue", 16);
+    private static final long DEFAULT_TIMEOUT_MS = Long.getLong("dillauniversity.login.timeoutMs", 15_000L);
+
+    private static final String LOCAL_CLIENT = localClientName();
+
+    private static volatile LoginService shared;
+
+    private final Authenticator authenticator;
+    private final RememberTokens rememberTokens;
+    private final DatabaseHealthMonitor health;
+    private final LoginThrottle throttle;
+    private final ExecutorService executor;
+    private final long timeoutMillis;
+    private final LoginMetrics metrics = LoginMetrics.shared();
+    private final Map<AttemptKey, CompletableFuture<UserSession>> inFlight = new ConcurrentHashMap<>();
+
+    /**
+     * @param health   monitor consulted before each attempt so logins fail fast while
+     *                 the database is known to be down; may be {@code null}
+     * @param throttle rate limiter applied before an attempt is queued; may be {@code null}
+     */
+    public LoginService(Authenticator authenticator, DatabaseHealthMonitor health, LoginThrottle throttle,
+                        int workers, int queueCapacity, long timeoutMillis) {
+        this(authenticator, null, health, throttle, workers, queueCapacity, timeoutMillis);
+    }
+
+    /**
+     * @param rememberTokens backs {@link #remember}, {@link #resume} and {@link #forget};
+     *                       may be {@code null} when "remember me" is not offered
+     */
+    public LoginService(Authenticator authenticator, RememberTokens rememberTokens, DatabaseHealthMonitor health,
+                        LoginThrottle throttle, int workers, int queueCapacity, long timeoutMillis) {
+        this.authenticator = Objects.requireNonNull(authenticator, "authenticator");
+        this.rememberTokens = rememberTokens;
+        this.health = health;
+        this.throttle = throttle;
+        this.timeoutMillis = timeoutMillis;
+        this.executor = new ThreadPoolExecutor(workers, workers, 0L, TimeUnit.MILLISECONDS,
+                new ArrayBlockingQueue<>(queueCapacity), new WorkerThreadFactory(),
+                new ThreadPoolExecutor.AbortPolicy());
+    }
+
+    /**
+     * Process-wide instance used by the login screen. It outlives individual
+     * LoginController instances so returning to the login form does not spin up
+     * a new pool.
+     *
+     * When {@code dillauniversity.auth.url} is set, logins go through the shared auth
+     * server ({@link RemoteAuthenticator}); unless {@code dillauniversity.auth.fallback}
+     * is {@code none}, they fall back to the database while the server is unreachable.
+     * Otherwise the client authenticates against the database directly.
+     */
+    public static LoginService shared() {
+        LoginService service = shared;
+        if (service == null) {
+            synchronized (LoginService.class) {
+                service = shared;
+                if (service == null) {
+                    service = create(WORKERS, QUEUE_CAPACITY, DEFAULT_TIMEOUT_MS);
+                    MetricsExporter.install();
+                    shared = service;
+                }
+            }
+        }
+        return service;
+    }
+
+    /**
+     * A new instance configured like {@link #shared()}, with its own worker pool
+     * of the given size. The auth server uses this so that its sizing does not
+     * follow the client's {@code dillauniversity.login.*} properties.
+     */
+    public static LoginService create(int workers, int queueCapacity, long timeoutMillis) {
+        String url = System.getProperty("dillauniversity.auth.url");
+        Authenticator authenticator;
+        RememberTokens rememberTokens;
+        if (url == null || url.isBlank()) {
+            authenticator = directAuthenticator();
+            rememberTokens = directRememberTokens();
+        } else {
+            // The database is opened only if the fallback is ever used
+            boolean fallback = !"none".equalsIgnoreCase(System.getProperty("dillauniversity.auth.fallback", "direct"));
+            RemoteAuthenticator remote = new RemoteAuthenticator(URI.create(url),
+                    Duration.ofMillis(Long.getLong("dillauniversity.auth.timeoutMs", 5_000L)),
+                    fallback ? LoginService::directAuthenticator : null,
+                    fallback ? LoginService::directRememberTokens : null,
+                    Long.getLong("dillauniversity.auth.retryMs", 30_000L));
+            authenticator = remote;
+            rememberTokens = remote;
+        }
+        LoginService service = new LoginService(authenticator, rememberTokens, DatabaseHealthMonitor.shared(),
+                LoginThrottle.shared(), workers, queueCapacity, timeoutMillis);
+        registerGauges(MetricsRegistry.shared(), (ThreadPoolExecutor) service.executor);
+        return service;
+    }
+
+    /**
+     * Submits a login attempt. The future completes with the user's session, or
+     * with {@code null} when the credentials are wrong. If an identical attempt (same username, role and
+     * password) is already running, its future is returned instead of queuing a
+     * second database round trip.
+     *
+     * The returned future completes exceptionally with {@link TimeoutException}
+     * when the attempt exceeds the configured timeout, with
+     * {@link CancellationException} after {@link #cancelAll()}, and with
+     * {@link RejectedExecutionException} when the queue is full. While the health
+     * monitor reports the database down it fails immediately with
+     * {@link SQLTransientConnectionException} instead of waiting for a connect timeout,
+     * and it fails with {@link LoginThrottledException} when the user or this
+     * computer has made too many attempts.
+     */
+    public CompletableFuture<UserSession> login(String username, String password, String role) {
+        return login(username, password, role, LOCAL_CLIENT);
+    }
+
+    /**
+     * Same as {@link #login(String, String, String)} for an attempt made on behalf
+     * of {@code client} (used for throttling).
+     */
+    public CompletableFuture<UserSession> login(String username, String password, String role, String client) {
+        if (health != null && health.isKnownDown()) {
+            health.checkNow();
+            metrics.loginAttempt(role);
+            metrics.loginFailure(role);
+            return CompletableFuture.failedFuture(new SQLTransientConnectionException(
+                    "Database is unreachable: " + health.getStatus().error()));
+        }
+
+        AttemptKey key = new AttemptKey(username, role, password);
+        CompletableFuture<UserSession> existing = inFlight.get(key);
+        if (existing != null) {
+            return existing;
+        }
+
+        CompletableFuture<UserSession> result = new CompletableFuture<>();
+        existing = inFlight.putIfAbsent(key, result);
+        if (existing != null) {
+            return existing;
+        }
+        metrics.loginAttempt(role);
+        result.whenComplete((session, error) -> {
+            if (session != null) {
+                metrics.loginSuccess(role);
+            } else {
+                metrics.loginFailure(role);
+            }
+        });
+
+        // Merged duplicates above are not counted; only attempts that would run are
+        if (throttle != null) {
+            try {
+                throttle.acquire(username, client);
+            } catch (LoginThrottledException e) {
+                inFlight.remove(key, result);
+                result.completeExceptionally(e);
+                return result;
+            }
+        }
+
+        try {
+            long submittedAt = System.nanoTime();
+            Future<?> task = executor.submit(() -> {
+                long startedAt = System.nanoTime();
+                metrics.recordQueueWait(startedAt - submittedAt);
+                try {
+                    UserSession session;
+                    try {
+                        session = authenticator.authenticate(username, password, role);
+                    } finally {
+                        metrics.recordAuthentication(System.nanoTime() - startedAt);
+                    }
+                    if (throttle != null) {
+                        if (session != null) {
+                            throttle.recordSuccess(username);
+                        } else {
+                            throttle.recordFailure(username);
+                        }
+                    }
+                    result.complete(session);
+                } catch (Throwable t) {
+                    if (health != null && isConnectionFailure(t)) {
+                        health.reportFailure(t);
+                    }
+                    result.completeExceptionally(t);
+                }
+            });
+            // Interrupt the worker when the caller gives up, so a hung JDBC call
+            // does not keep holding one of the few login threads.
+            result.whenComplete((ok, error) -> {
+                inFlight.remove(key, result);
+                if (error != null) {
+                    task.cancel(true);
+                }
+            });
+        } catch (RejectedExecutionException e) {
+            inFlight.remove(key, result);
+            result.completeExceptionally(e);
+            return result;
+        }
+
+        if (timeoutMillis > 0) {
+            result.orTimeout(timeoutMillis, TimeUnit.MILLISECONDS);
+        }
+        return result;
+    }
+
+    /**
+     * Issues a "remember me" token for {@code session} on a login worker. The future
+     * completes with {@code null} when there is nothing to remember.
+     */
+    public CompletableFuture<String> remember(UserSession session) {
+        return submit(() -> rememberTokens().issue(session));
+    }
+
+    /**
+     * Looks up a stored "remember me" token on a login worker. The future completes
+     * with a session rebuilt from the user's current role and permissions, or with
+     * {@code null} when the token is no longer valid; it fails like {@link #login}
+     * when the database is unreachable, the queue is full or the lookup times out.
+     */
+    public CompletableFuture<UserSession> resume(String token) {
+        if (health != null && health.isKnownDown()) {
+            health.checkNow();
+            return CompletableFuture.failedFuture(new SQLTransientConnectionException(
+                    "Database is unreachable: " + health.getStatus().error()));
+        }
+        return submit(() -> rememberTokens().resume(token));
+    }
+
+    /**
+     * Revokes a "remember me" token on a login worker.
+     */
+    public CompletableFuture<Void> forget(String token) {
+        return submit(() -> {
+            rememberTokens().revoke(token);
+            return null;
+        });
+    }
+
+    /**
+     * Signs {@code session}'s user out; with the auth server it ends the user's
+     * server session. Called through {@link dillauniversity.controller.DashboardController#signOut}.
+     */
+    public void logout(UserSession session) {
+        authenticator.logout(session.username());
+    }
+
+    /**
+     * Cancels every attempt that has not finished yet.
+     */
+    public void cancelAll() {
+        for (CompletableFuture<UserSession> future : inFlight.values()) {
+            future.cancel(true);
+        }
+    }
+
+    public long getTimeoutMillis() {
+        return timeoutMillis;
+    }
+
+    public void shutdown() {
+        cancelAll();
+        executor.shutdownNow();
+    }
+
+    // Same worker pool and timeout as logins, without merging or throttling
+    private <T> CompletableFuture<T> submit(Callable<T> work) {
+        CompletableFuture<T> result = new CompletableFuture<>();
+        try {
+            Future<?> task = executor.submit(() -> {
+                try {
+                    result.complete(work.call());
+                } catch (Throwable t) {
+                    if (health != null && isConnectionFailure(t)) {
+                        health.reportFailure(t);
+                    }
+                    result.completeExceptionally(t);
+                }
+            });
+            result.whenComplete((ok, error) -> {
+                if (error != null) {
+                    task.cancel(true);
+                }
+            });
+        } catch (RejectedExecutionException e) {
+            result.completeExceptionally(e);
+            return result;
+        }
+        if (timeoutMillis > 0) {
+            result.orTimeout(timeoutMillis, TimeUnit.MILLISECONDS);
+        }
+        return result;
+    }
+
+    private RememberTokens rememberTokens() {
+        if (rememberTokens == null) {
+            throw new UnsupportedOperationException("Remember me is not available");
+        }
+        return rememberTokens;
+    }
+
+    private static Authenticator directAuthenticator() {
+        UserAuthDAO dao = UserAuthDAO.shared();
+        AuthCache cache = AuthCache.shared();
+        // Cached sessions carry the role's permissions; drop them when the roles change
+        RoleRegistry.shared().addListener(roles -> cache.invalidateAll());
+        registerDatabaseGauges(MetricsRegistry.shared(), ConnectionPool.shared(), cache);
+        return cache.cached(dao::authenticate, dao::credentialStamp);
+    }
+
+    private static RememberTokens directRememberTokens() {
+        RememberTokenDAO dao = RememberTokenDAO.shared();
+        return new RememberTokens() {
+            @Override
+            public String issue(UserSession session) throws SQLException {
+                return dao.issue(session);
+            }
+
+            @Override
+            public UserSession resume(String token) throws SQLException {
+                return dao.resume(token);
+            }
+
+            @Override
+            public void revoke(String token) throws SQLException {
+                dao.revoke(token);
+            }
+        };
+    }
+
+    private static void registerGauges(MetricsRegistry registry, ThreadPoolExecutor workers) {
+        registry.gauge("login_workers_active", "Login workers currently authenticating", workers::getActiveCount);
+        registry.gauge("login_queue_depth", "Login attempts waiting for a worker", () -> workers.getQueue().size());
+
+        LoginThrottle throttle = LoginThrottle.shared();
+        registry.gauge("login_throttled", "Attempts rejected by the login throttle", throttle::getRejectedCount);
+
+        DatabaseHealthMonitor health = DatabaseHealthMonitor.shared();
+        registry.gauge("db_up", "1 when the last health check succeeded, 0 otherwise",
+                () -> health.getStatus().isUp() ? 1 : 0);
+    }
+
+    // Registered when the database is first used, so clients of the auth server never open the pool
+    private static void registerDatabaseGauges(MetricsRegistry registry, ConnectionPool pool, AuthCache cache) {
+        registry.gauge("db_pool_active", "Connections currently borrowed", pool::getActiveCount);
+        registry.gauge("db_pool_idle", "Idle pooled connections", pool::getIdleCount);
+        registry.gauge("db_pool_waiting", "Threads waiting for a connection", () -> pool.getStats().waitingThreads());
+        registry.gauge("db_pool_borrow_timeouts", "Borrows that gave up waiting for a connection",
+                () -> pool.getStats().borrowTimeouts());
+
+        registry.gauge("auth_cache_hits", "Logins answered from the credential cache", cache::getHitCount);
+        registry.gauge("auth_cache_misses", "Logins that had to query the database", cache::getMissCount);
+    }
+
+    private static String localClientName() {
+        try {
+            return InetAddress.getLocalHost().getHostName();
+        } catch (UnknownHostException e) {
+            return "localhost";
+        }
+    }
+
+    // SQLState class 08 is "connection exception"
+    private static boolean isConnectionFailure(Throwable t) {
+        if (t instanceof SQLTransientConnectionException || t instanceof SQLNonTransientConnectionException) {
+            return true;
+        }
+        if (t instanceof SQLException) {
+            String state = ((SQLException) t).getSQLState();
+            return state != null && state.startsWith("08");
+        }
+        return false;
+    }
+
+    private record AttemptKey(String username, String role, String password) {
+    }
+
+    private static final class WorkerThreadFactory implements ThreadFactory {
+        private final AtomicInteger counter = new AtomicInteger();
+
+        @Override
+        public Thread newThread(Runnable r) {
+            Thread thread = new Thread(r, "login-worker-" + counter.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        }
+    }
+}
@@ -0,0 +1,154 @@
+package dillauniversity.service;
+
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Rejects login attempts before they reach the database when a user or a client
+ * is making too many of them.
+ *
+ * Two limits apply, both over a sliding window:
+ * <ul>
+ *   <li>per client: at most {@code maxAttemptsPerClient} attempts of any outcome;</li>
+ *   <li>per username: once {@code maxFailuresPerUser} failures are reached, further
+ *       attempts are blocked for {@code baseBackoffMillis}, doubling with every
+ *       additional failure up to {@code maxBackoffMillis}. A successful login clears
+ *       the user's failures.</li>
+ * </ul>
+ * Counters are lock-free ({@link SlidingWindowCounter}) in concurrent maps, and
+ * idle entries are swept periodically so memory stays bounded.
+ */
+public final class LoginThrottle {
+
+    private static final int SLOTS = 12;
+    private static final int SWEEP_EVERY = 256;
+
+    private static final LoginThrottle SHARED = new LoginThrottle(
+            Long.getLong("dillauniversity.throttle.windowMs", 60_000L),
+            Integer.getInteger("dillauniversity.throttle.maxFailuresPerUser", 5),
+            Integer.getInteger("dillauniversity.throttle.maxAttemptsPerClient", 30),
+            Long.getLong("dillauniversity.throttle.baseBackoffMs", 2_000L),
+            Long.getLong("dillauniversity.throttle.maxBackoffMs", 5 * 60_000L));
+
+    private final long windowMillis;
+    private final int maxFailuresPerUser;
+    private final int maxAttemptsPerClient;
+    private final long baseBackoffMillis;
+    private final long maxBackoffMillis;
+
+    private final Map<String, UserState> users = new ConcurrentHashMap<>();
+    private final Map<String, SlidingWindowCounter> clients = new ConcurrentHashMap<>();
+    private final AtomicInteger sweepCountdown = new AtomicInteger(SWEEP_EVERY);
+
+    private final LongAdder passed = new LongAdder();
+    private final LongAdder rejectedUser = new LongAdder();
+    private final LongAdder rejectedClient = new LongAdder();
+
+    public LoginThrottle(long windowMillis, int maxFailuresPerUser, int maxAttemptsPerClient,
+                         long baseBackoffMillis, long maxBackoffMillis) {
+        // Counters are created lazily; reject a bad window here rather than on the first login
+        SlidingWindowCounter.checkArguments(windowMillis, SLOTS);
+        this.windowMillis = windowMillis;
+        this.maxFailuresPerUser = maxFailuresPerUser;
+        this.maxAttemptsPerClient = maxAttemptsPerClient;
+        this.baseBackoffMillis = baseBackoffMillis;
+        this.maxBackoffMillis = maxBackoffMillis;
+    }
+
+    public static LoginThrottle shared() {
+        return SHARED;
+    }
+
+    /**
+     * Lets an attempt through or rejects it.
+     *
+     * @throws LoginThrottledException when the user is backing off or the client is over its limit
+     */
+    public void acquire(String username, String client) throws LoginThrottledException {
+        long now = System.currentTimeMillis();
+        maybeSweep(now);
+
+        UserState user = users.get(userKey(username));
+        if (user != null) {
+            long blockedFor = user.blockedUntil - now;
+            if (blockedFor > 0) {
+                rejectedUser.increment();
+                throw new LoginThrottledException("Too many failed attempts for this account", blockedFor);
+            }
+        }
+
+        SlidingWindowCounter attempts = clients.computeIfAbsent(client,
+                c -> new SlidingWindowCounter(windowMillis, SLOTS));
+        if (attempts.increment(now) > maxAttemptsPerClient) {
+            rejectedClient.increment();
+            throw new LoginThrottledException("Too many login attempts from this computer",
+                    Math.max(1, attempts.millisUntilOldestExpires(now)));
+        }
+        passed.increment();
+    }
+
+    public void recordFailure(String username) {
+        long now = System.currentTimeMillis();
+        UserState user = users.computeIfAbsent(userKey(username),
+                u -> new UserState(new SlidingWindowCounter(windowMillis, SLOTS)));
+        int failures = user.failures.increment(now);
+        if (failures >= maxFailuresPerUser) {
+            int excess = Math.min(failures - maxFailuresPerUser, 20);
+            long backoff = Math.min(maxBackoffMillis, baseBackoffMillis << excess);
+            user.blockedUntil = now + backoff;
+        }
+    }
+
+    public void recordSuccess(String username) {
+        users.remove(userKey(username));
+    }
+
+    public long getPassedCount() {
+        return passed.sum();
+    }
+
+    public long getRejectedUserCount() {
+        return rejectedUser.sum();
+    }
+
+    public long getRejectedClientCount() {
+        return rejectedClient.sum();
+    }
+
+    public long getRejectedCount() {
+        return rejectedUser.sum() + rejectedClient.sum();
+    }
+
+    @Override
+    public String toString() {
+        return "LoginThrottle[passed=" + getPassedCount() + ", rejectedUser=" + getRejectedUserCount()
+                + ", rejectedClient=" + getRejectedClientCount() + ", trackedUsers=" + users.size()
+                + ", trackedClients=" + clients.size() + "]";
+    }
+
+    private void maybeSweep(long now) {
+        if (sweepCountdown.decrementAndGet() > 0) {
+            return;
+        }
+        sweepCountdown.set(SWEEP_EVERY);
+        users.entrySet().removeIf(e -> e.getValue().blockedUntil < now
+                && now - e.getValue().failures.lastTouched() > windowMillis);
+        clients.entrySet().removeIf(e -> now - e.getValue().lastTouched() > windowMillis);
+    }
+
+    private static String userKey(String username) {
+        return username.toLowerCase(Locale.ROOT);
+    }
+
+    private static final class UserState {
+        private final SlidingWindowCounter failures;
+        private volatile long blockedUntil;
+
+        private UserState(SlidingWindowCounter failures) {
+            this.failures = failures;
+        }
+    }
+}
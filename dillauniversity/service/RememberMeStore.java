@@ -0,0 +1,104 @@
+package dillauniversity.service;
+
+import dillauniversity.logging.Log;
+import dillauniversity.logging.Logger;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.AtomicMoveNotSupportedException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.attribute.PosixFilePermissions;
+import java.util.Optional;
+
+/**
+ * Local half of "remember me": the resume token of this workstation.
+ *
+ * The file {@code remember.dat} under {@code ~/.dillauniversity} holds nothing
+ * but the random token handed out by {@link LoginService#remember}; the session,
+ * role, permissions and expiry live with the token on the server side and are
+ * looked up again on every resume, so editing or copying the file grants nothing
+ * the server does not confirm. The file is owner-only where the file system
+ * supports it and is replaced atomically.
+ */
+public final class RememberMeStore {
+
+    private static final Logger LOG = Log.get(RememberMeStore.class);
+
+    // Tokens are 43 URL-safe Base64 characters; anything much longer is not ours
+    private static final int MAX_TOKEN_LENGTH = 256;
+
+    private static final RememberMeStore SHARED = new RememberMeStore(
+            Paths.get(System.getProperty("dillauniversity.home",
+                    System.getProperty("user.home") + "/.dillauniversity")));
+
+    private final Path directory;
+    private final Path tokenFile;
+
+    public RememberMeStore(Path directory) {
+        this.directory = directory;
+        this.tokenFile = directory.resolve("remember.dat");
+    }
+
+    public static RememberMeStore shared() {
+        return SHARED;
+    }
+
+    /**
+     * Stores {@code token}, replacing any previous one.
+     */
+    public void save(String token) throws IOException {
+        Files.createDirectories(directory);
+        Path temp = Files.createTempFile(directory, tokenFile.getFileName().toString(), ".tmp");
+        try {
+            restrictToOwner(temp);
+            Files.write(temp, token.getBytes(StandardCharsets.US_ASCII));
+            try {
+                Files.move(temp, tokenFile, StandardCopyOption.ATOMIC_MOVE, StandardCopyOption.REPLACE_EXISTING);
+            } catch (AtomicMoveNotSupportedException e) {
+                Files.move(temp, tokenFile, StandardCopyOption.REPLACE_EXISTING);
+            }
+        } finally {
+            Files.deleteIfExists(temp);
+        }
+    }
+
+    /**
+     * The stored token, if there is one. Whether it is still valid is for the
+     * server to decide.
+     */
+    public Optional<String> load() {
+        if (!Files.isRegularFile(tokenFile)) {
+            return Optional.empty();
+        }
+        try {
+            String token = new String(Files.readAllBytes(tokenFile), StandardCharsets.US_ASCII).trim();
+            if (token.isEmpty() || token.length() > MAX_TOKEN_LENGTH) {
+                clear();
+                return Optional.empty();
+            }
+            return Optional.of(token);
+        } catch (IOException e) {
+            LOG.warn("remember_me.token_unreadable", e, "file", tokenFile);
+            return Optional.empty();
+        }
+    }
+
+    public void clear() {
+        try {
+            Files.deleteIfExists(tokenFile);
+        } catch (IOException e) {
+            LOG.warn("remember_me.clear_failed", e, "file", tokenFile);
+        }
+    }
+
+    private static void restrictToOwner(Path file) {
+        try {
+            Files.setPosixFilePermissions(file, PosixFilePermissions.fromString("rw-------"));
+        } catch (UnsupportedOperationException | IOException e) {
+            // Not a POSIX file system (Windows lab machines); the user profile ACL applies
+        }
+    }
+}
@@ -0,0 +1,317 @@
+package dillauniversity.service;
+
+import dillauniversity.database.DatabaseHealthMonitor;
+import dillauniversity.logging.Log;
+import dillauniversity.logging.Logger;
+import dillauniversity.model.UserSession;
+
+import java.io.IOException;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.net.http.HttpTimeoutException;
+import java.sql.SQLTransientConnectionException;
+import java.time.Duration;
+import java.util.LinkedHashMap;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.function.Supplier;
+
+/**
+ * Authenticates through the shared auth server instead of querying the database
+ * from this client, and keeps "remember me" tokens there as well.
+ *
+ * The server answers with the user's session and a session token; the token is
+ * kept here per username (the most recent {@value #MAX_TOKENS} users) so that
+ * {@link #issue} can ask the server for a resume token for that session and
+ * {@link #logout} can end it on sign-out. {@link #resume} validates a stored resume
+ * token against the server's {@code /v1/session}. Server answers
+ * are mapped to what the login screen already handles: wrong credentials give
+ * {@code null}, 429 a {@link LoginThrottledException}, 503 a
+ * {@link SQLTransientConnectionException}, or {@link RejectedExecutionException}
+ * when the server is only busy or does not answer within the timeout.
+ *
+ * When the server cannot be connected to at all and a fallback is configured, the attempt is
+ * made directly against the database instead, and the server is skipped for
+ * {@code retryMillis} so later logins do not each wait for a connect timeout.
+ */
+public final class RemoteAuthenticator implements LoginService.Authenticator, LoginService.RememberTokens {
+
+    private static final Logger LOG = Log.get(RemoteAuthenticator.class);
+
+    // A workstation has one user at a time; a few more cover quick user switches
+    static final int MAX_TOKENS = 32;
+
+    private final URI loginUri;
+    private final URI sessionUri;
+    private final URI rememberUri;
+    private final URI logoutUri;
+    private final Duration timeout;
+    private final Supplier<LoginService.Authenticator> fallback;
+    private final Supplier<LoginService.RememberTokens> fallbackTokens;
+    private final long retryMillis;
+    private final HttpClient http;
+    private final Map<String, String> tokens = new LinkedHashMap<>(16, 0.75f, true) {
+        @Override
+        protected boolean removeEldestEntry(Map.Entry<String, String> eldest) {
+            return size() > MAX_TOKENS;
+        }
+    };
+
+    private volatile LoginService.Authenticator fallbackInstance;
+    private volatile LoginService.RememberTokens fallbackTokensInstance;
+    private volatile long serverDownUntil;
+
+    /**
+     * @param fallback       direct authenticator used while the server is unreachable,
+     *                       created on first use; {@code null} to fail instead
+     * @param fallbackTokens direct "remember me" tokens, used for fallback logins (which
+     *                       have no server session) and while the server is unreachable;
+     *                       created on first use, {@code null} only together with
+     *                       {@code fallback}
+     */
+    public RemoteAuthenticator(URI baseUri, Duration timeout, Supplier<LoginService.Authenticator> fallback,
+                               Supplier<LoginService.RememberTokens> fallbackTokens, long retryMillis) {
+        this.loginUri = baseUri.resolve("/v1/login");
+        this.sessionUri = baseUri.resolve("/v1/session");
+        this.rememberUri = baseUri.resolve("/v1/remember");
+        this.logoutUri = baseUri.resolve("/v1/logout");
+        this.timeout = timeout;
+        this.fallback = fallback;
+        this.fallbackTokens = fallbackTokens;
+        this.retryMillis = retryMillis;
+        this.http = HttpClient.newBuilder()
+                .connectTimeout(timeout)
+                .version(HttpClient.Version.HTTP_1_1)
+                .build();
+    }
+
+    @Override
+    public UserSession authenticate(String username, String password, String role) throws Exception {
+        if (useFallback()) {
+            return fallback().authenticate(username, password, role);
+        }
+
+        Map<String, String> form = new LinkedHashMap<>();
+        form.put("username", username);
+        form.put("password", password);
+        form.put("role", role);
+        HttpResponse<String> response = send(post(loginUri, form), HttpResponse.BodyHandlers.ofString());
+        if (response == null) {
+            return fallback().authenticate(username, password, role);
+        }
+
+        switch (response.statusCode()) {
+            case 200:
+                return sessionFrom(response);
+            case 401:
+                return null;
+            case 429: {
+                long retryAfter = response.headers().firstValueAsLong("Retry-After").orElse(1L);
+                throw new LoginThrottledException("Too many login attempts", retryAfter * 1000L);
+            }
+            default:
+                throw unexpected(response);
+        }
+    }
+
+    /**
+     * Asks the server for a resume token for {@code session}'s server session. A
+     * fallback login has none; its token is issued directly. {@code null} when the
+     * server session has already ended, so there is nothing to remember.
+     */
+    @Override
+    public String issue(UserSession session) throws Exception {
+        String token;
+        synchronized (tokens) {
+            token = tokens.get(key(session.username()));
+        }
+        if (token == null || useFallback()) {
+            return fallbackTokens == null ? null : fallbackTokens().issue(session);
+        }
+        HttpResponse<String> response = send(post(rememberUri, Map.of("token", token)),
+                HttpResponse.BodyHandlers.ofString());
+        if (response == null) {
+            return fallbackTokens().issue(session);
+        }
+        switch (response.statusCode()) {
+            case 200: {
+                String rememberToken = FormCodec.decode(response.body()).get("rememberToken");
+                if (rememberToken == null) {
+                    throw new IOException("Auth server sent no remember token");
+                }
+                return rememberToken;
+            }
+            case 401:
+                synchronized (tokens) {
+                    tokens.remove(key(session.username()), token);
+                }
+                return null;
+            default:
+                throw unexpected(response);
+        }
+    }
+
+    /**
+     * Resumes a stored token through the server's {@code /v1/session}, which also
+     * opens a new server session for the user.
+     */
+    @Override
+    public UserSession resume(String rememberToken) throws Exception {
+        if (useFallback()) {
+            return fallbackTokens().resume(rememberToken);
+        }
+        HttpResponse<String> response = send(post(sessionUri, Map.of("rememberToken", rememberToken)),
+                HttpResponse.BodyHandlers.ofString());
+        if (response == null) {
+            return fallbackTokens().resume(rememberToken);
+        }
+        switch (response.statusCode()) {
+            case 200:
+                return sessionFrom(response);
+            case 401:
+                return null;
+            default:
+                throw unexpected(response);
+        }
+    }
+
+    @Override
+    public void revoke(String rememberToken) throws Exception {
+        if (useFallback()) {
+            fallbackTokens().revoke(rememberToken);
+            return;
+        }
+        HttpResponse<Void> response = send(post(logoutUri, Map.of("rememberToken", rememberToken)),
+                HttpResponse.BodyHandlers.discarding());
+        if (response == null) {
+            fallbackTokens().revoke(rememberToken);
+            return;
+        }
+        if (response.statusCode() != 204) {
+            throw new IOException("Auth server answered " + response.statusCode());
+        }
+    }
+
+    /**
+     * Ends {@code username}'s server session. Failures are logged, not thrown: the
+     * session expires on the server anyway.
+     */
+    @Override
+    public void logout(String username) {
+        String token;
+        synchronized (tokens) {
+            token = tokens.remove(key(username));
+        }
+        if (token == null) {
+            return;
+        }
+        http.sendAsync(post(logoutUri, Map.of("token", token)), HttpResponse.BodyHandlers.discarding())
+                .whenComplete((response, error) -> {
+                    if (error != null) {
+                        LOG.debug("auth.remote_logout_failed", "error", error.getMessage());
+                    }
+                });
+    }
+
+    private UserSession sessionFrom(HttpResponse<String> response) {
+        Map<String, String> fields = FormCodec.decode(response.body());
+        UserSession session = FormCodec.toSession(fields);
+        String token = fields.get("token");
+        if (token != null) {
+            synchronized (tokens) {
+                tokens.put(key(session.username()), token);
+            }
+        }
+        return session;
+    }
+
+    private static Exception unexpected(HttpResponse<?> response) {
+        if (response.statusCode() == 503) {
+            // Retry-After marks an overloaded server rather than a database outage
+            if (response.headers().firstValue("Retry-After").isPresent()) {
+                return new RejectedExecutionException("Auth server busy");
+            }
+            return new SQLTransientConnectionException("Auth server reports the database unavailable", "08001");
+        }
+        return new IOException("Auth server answered " + response.statusCode());
+    }
+
+    /**
+     * Sends {@code request}; {@code null} when the server cannot be reached and the
+     * caller should use the fallback. Only a failed connect counts as unreachable:
+     * a server that is merely slow under load is reported busy, so the lab clients
+     * do not all switch to the database in the middle of a login storm.
+     */
+    private <T> HttpResponse<T> send(HttpRequest request, HttpResponse.BodyHandler<T> handler) throws Exception {
+        try {
+            return http.send(request, handler);
+        } catch (HttpTimeoutException e) {
+            throw new RejectedExecutionException("Auth server did not answer within " + timeout.toMillis() + " ms", e);
+        } catch (IOException e) {
+            if (!DatabaseHealthMonitor.isConnectionFailure(e)) {
+                throw e;
+            }
+            serverUnreachable(e);
+            return null;
+        }
+    }
+
+    private boolean useFallback() {
+        return fallback != null && System.currentTimeMillis() < serverDownUntil;
+    }
+
+    // Returns only when a fallback is configured; the caller then uses it
+    private void serverUnreachable(IOException e) throws SQLTransientConnectionException {
+        if (fallback == null) {
+            throw new SQLTransientConnectionException("Auth server unreachable: " + e.getMessage(), "08001", e);
+        }
+        serverDownUntil = System.currentTimeMillis() + retryMillis;
+        LOG.warn("auth.remote_unreachable", e, "fallbackForMs", retryMillis);
+    }
+
+    private HttpRequest post(URI uri, Map<String, String> form) {
+        return HttpRequest.newBuilder(uri)
+                .timeout(timeout)
+                .header("Content-Type", FormCodec.CONTENT_TYPE)
+                .POST(HttpRequest.BodyPublishers.ofString(FormCodec.encode(form)))
+                .build();
+    }
+
+    private LoginService.Authenticator fallback() {
+        LoginService.Authenticator instance = fallbackInstance;
+        if (instance == null) {
+            synchronized (this) {
+                instance = fallbackInstance;
+                if (instance == null) {
+                    instance = fallback.get();
+                    fallbackInstance = instance;
+                }
+            }
+        }
+        return instance;
+    }
+
+    private LoginService.RememberTokens fallbackTokens() {
+        if (fallbackTokens == null) {
+            throw new UnsupportedOperationException("Remember me is not available without the auth server");
+        }
+        LoginService.RememberTokens instance = fallbackTokensInstance;
+        if (instance == null) {
+            synchronized (this) {
+                instance = fallbackTokensInstance;
+                if (instance == null) {
+                    instance = fallbackTokens.get();
+                    fallbackTokensInstance = instance;
+                }
+            }
+        }
+        return instance;
+    }
+
+    private static String key(String username) {
+        return username.toLowerCase(Locale.ROOT);
+    }
+}
@@ -0,0 +1,109 @@
+package dillauniversity.service;
+
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * Lock-free approximate sliding-window event counter.
+ *
+ * The window is split into {@code slots} buckets. Each bucket is one long holding
+ * the bucket's epoch (upper 40 bits) and its count (lower 24 bits), updated with
+ * CAS, so concurrent increments never block and stale buckets reset themselves.
+ *
+ * An epoch is {@code nowMillis / slotMillis} and must fit in 40 bits, so a bucket
+ * must span at least {@link #MIN_SLOT_MILLIS}; that keeps wall-clock epochs in
+ * range for centuries.
+ */
+final class SlidingWindowCounter {
+
+    private static final int COUNT_BITS = 24;
+    private static final long COUNT_MASK = (1L << COUNT_BITS) - 1;
+
+    static final long MIN_SLOT_MILLIS = 10;
+
+    private final long slotMillis;
+    private final AtomicLongArray slots;
+    private volatile long lastTouched;
+
+    SlidingWindowCounter(long windowMillis, int slotCount) {
+        checkArguments(windowMillis, slotCount);
+        this.slotMillis = windowMillis / slotCount;
+        this.slots = new AtomicLongArray(slotCount);
+    }
+
+    /**
+     * @throws IllegalArgumentException unless {@code windowMillis} splits into
+     *                                  {@code slotCount} buckets of at least {@link #MIN_SLOT_MILLIS}
+     */
+    static void checkArguments(long windowMillis, int slotCount) {
+        if (slotCount < 1) {
+            throw new IllegalArgumentException("Slot count must be positive: " + slotCount);
+        }
+        if (windowMillis / slotCount < MIN_SLOT_MILLIS) {
+            throw new IllegalArgumentException("Window too short: " + windowMillis + " ms over " + slotCount
+                    + " slots, need at least " + MIN_SLOT_MILLIS * slotCount + " ms");
+        }
+    }
+
+    /**
+     * Records one event and returns the count in the window including it.
+     */
+    int increment(long nowMillis) {
+        lastTouched = nowMillis;
+        long epoch = nowMillis / slotMillis;
+        int index = (int) (epoch % slots.length());
+        while (true) {
+            long current = slots.get(index);
+            long updated = (current >>> COUNT_BITS) == epoch
+                    ? Math.min(current + 1, (epoch << COUNT_BITS) | COUNT_MASK)
+                    : (epoch << COUNT_BITS) | 1;
+            if (slots.compareAndSet(index, current, updated)) {
+                break;
+            }
+        }
+        return count(nowMillis);
+    }
+
+    int count(long nowMillis) {
+        long epoch = nowMillis / slotMillis;
+        long oldest = epoch - slots.length() + 1;
+        int total = 0;
+        for (int i = 0; i < slots.length(); i++) {
+            long value = slots.get(i);
+            long slotEpoch = value >>> COUNT_BITS;
+            if (slotEpoch >= oldest && slotEpoch <= epoch) {
+                total += (int) (value & COUNT_MASK);
+            }
+        }
+        return total;
+    }
+
+    void reset() {
+        for (int i = 0; i < slots.length(); i++) {
+            slots.set(i, 0);
+        }
+    }
+
+    /**
+     * Milliseconds until the oldest non-empty bucket leaves the window.
+     */
+    long millisUntilOldestExpires(long nowMillis) {
+        long epoch = nowMillis / slotMillis;
+        long oldest = epoch - slots.length() + 1;
+        long earliest = Long.MAX_VALUE;
+        for (int i = 0; i < slots.length(); i++) {
+            long value = slots.get(i);
+            long slotEpoch = value >>> COUNT_BITS;
+            if ((value & COUNT_MASK) > 0 && slotEpoch >= oldest && slotEpoch < earliest) {
+                earliest = slotEpoch;
+            }
+        }
+        if (earliest == Long.MAX_VALUE) {
+            return 0;
+        }
+        return (earliest + slots.length()) * slotMillis - nowMillis;
+    }
+
+    long lastTouched() {
+        return lastTouched;
+    }
+}
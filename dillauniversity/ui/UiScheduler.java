@@ -0,0 +1,198 @@
+package dillauniversity.ui;
+
+import javafx.animation.Animation;
+import javafx.animation.KeyFrame;
+import javafx.animation.PauseTransition;
+import javafx.animation.Timeline;
+import javafx.application.Platform;
+import javafx.beans.value.ChangeListener;
+import javafx.scene.Node;
+import javafx.scene.Scene;
+import javafx.stage.Window;
+import javafx.util.Duration;
+
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Timed UI effects (auto-hide, toasts, debounce, periodic refresh) for every
+ * controller.
+ *
+ * Timers are JavaFX animations driven by the FX pulse, so no thread is created or
+ * put to sleep per timer. Each timer is keyed by its owner and a name: scheduling
+ * again under the same key cancels the previous timer and re-arms it, so the newest
+ * message always gets its full display time.
+ *
+ * A running timer keeps its owner reachable. When the owner is a {@link Node},
+ * its timers are stopped as soon as it leaves its scene (e.g. the router swapped
+ * the scene root) or the scene leaves its window, so a screen that has been
+ * navigated away from is not kept alive. Any other owner must call
+ * {@link #cancelAll} itself when it goes away.
+ *
+ * All methods may be called from any thread; work is done on the FX thread.
+ */
+public final class UiScheduler {
+
+    private static final UiScheduler SHARED = new UiScheduler();
+
+    // Only touched on the FX thread
+    private final Map<Object, Owned> timers = new HashMap<>();
+
+    public static UiScheduler shared() {
+        return SHARED;
+    }
+
+    /**
+     * Runs {@code action} once after {@code delay}, replacing any pending timer for
+     * the same owner and key. Calling it repeatedly debounces the action.
+     */
+    public void schedule(Object owner, String key, Duration delay, Runnable action) {
+        onFxThread(() -> {
+            cancelNow(owner, key);
+            PauseTransition pause = new PauseTransition(delay);
+            pause.setOnFinished(e -> {
+                remove(owner, key, pause);
+                action.run();
+            });
+            timersFor(owner).put(key, pause);
+            pause.play();
+        });
+    }
+
+    /**
+     * Same as {@link #schedule}; reads better at call sites that debounce input.
+     */
+    public void debounce(Object owner, String key, Duration delay, Runnable action) {
+        schedule(owner, key, delay, action);
+    }
+
+    /**
+     * Hides {@code node} (and removes it from layout) after {@code delay}. Showing a
+     * new message and calling this again restarts the countdown.
+     */
+    public void autoHide(Node node, Duration delay) {
+        schedule(node, "autoHide", delay, () -> {
+            node.setVisible(false);
+            node.setManaged(false);
+        });
+    }
+
+    /**
+     * Runs {@code action} every {@code period} until {@link #cancel} is called for the
+     * same owner and key.
+     */
+    public void every(Object owner, String key, Duration period, Runnable action) {
+        onFxThread(() -> {
+            cancelNow(owner, key);
+            Timeline timeline = new Timeline(new KeyFrame(period, e -> action.run()));
+            timeline.setCycleCount(Animation.INDEFINITE);
+            timersFor(owner).put(key, timeline);
+            timeline.play();
+        });
+    }
+
+    public void cancel(Object owner, String key) {
+        onFxThread(() -> cancelNow(owner, key));
+    }
+
+    /**
+     * Stops every timer belonging to {@code owner}, e.g. when a screen is closed.
+     */
+    public void cancelAll(Object owner) {
+        onFxThread(() -> cancelAllNow(owner));
+    }
+
+    private void cancelAllNow(Object owner) {
+        Owned owned = timers.remove(owner);
+        if (owned != null) {
+            owned.detach();
+            owned.animations.values().forEach(Animation::stop);
+        }
+    }
+
+    private void cancelNow(Object owner, String key) {
+        Owned owned = timers.get(owner);
+        if (owned != null) {
+            Animation previous = owned.animations.remove(key);
+            if (previous != null) {
+                previous.stop();
+            }
+            // Like remove(): an owner without timers must not stay reachable from here
+            if (owned.animations.isEmpty()) {
+                timers.remove(owner);
+                owned.detach();
+            }
+        }
+    }
+
+    private void remove(Object owner, String key, Animation animation) {
+        Owned owned = timers.get(owner);
+        if (owned != null && owned.animations.get(key) == animation) {
+            owned.animations.remove(key);
+            if (owned.animations.isEmpty()) {
+                timers.remove(owner);
+                owned.detach();
+            }
+        }
+    }
+
+    private Map<String, Animation> timersFor(Object owner) {
+        return timers.computeIfAbsent(owner, Owned::new).animations;
+    }
+
+    // An owner's timers, plus the listeners that cancel them when a Node owner is
+    // no longer shown
+    private final class Owned {
+        private final Map<String, Animation> animations = new HashMap<>(4);
+        private final Node node;
+        private final ChangeListener<Window> windowListener;
+        private final ChangeListener<Scene> sceneListener;
+
+        private Owned(Object owner) {
+            if (!(owner instanceof Node)) {
+                node = null;
+                windowListener = null;
+                sceneListener = null;
+                return;
+            }
+            node = (Node) owner;
+            windowListener = (obs, oldWindow, window) -> {
+                if (window == null) {
+                    cancelAllNow(node);
+                }
+            };
+            sceneListener = (obs, oldScene, scene) -> {
+                if (oldScene != null) {
+                    oldScene.windowProperty().removeListener(windowListener);
+                }
+                if (scene == null) {
+                    cancelAllNow(node);
+                } else {
+                    scene.windowProperty().addListener(windowListener);
+                }
+            };
+            node.sceneProperty().addListener(sceneListener);
+            if (node.getScene() != null) {
+                node.getScene().windowProperty().addListener(windowListener);
+            }
+        }
+
+        private void detach() {
+            if (node == null) {
+                return;
+            }
+            node.sceneProperty().removeListener(sceneListener);
+            if (node.getScene() != null) {
+                node.getScene().windowProperty().removeListener(windowListener);
+            }
+        }
+    }
+
+    private static void onFxThread(Runnable work) {
+        if (Platform.isFxApplicationThread()) {
+            work.run();
+        } else {
+            Platform.runLater(work);
+        }
+    }
+}
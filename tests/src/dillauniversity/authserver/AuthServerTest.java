@@ -0,0 +1,283 @@
+package dillauniversity.authserver;
+
+import dillauniversity.database.DatabaseHealthMonitor;
+import dillauniversity.model.UserSession;
+import dillauniversity.roles.RemoteRoles;
+import dillauniversity.roles.RoleDefinition;
+import dillauniversity.roles.RoleRegistry;
+import dillauniversity.service.FormCodec;
+import dillauniversity.service.LoginService;
+import dillauniversity.service.LoginThrottle;
+import dillauniversity.service.LoginThrottledException;
+import dillauniversity.service.RemoteAuthenticator;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.net.ServerSocket;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.sql.SQLTransientConnectionException;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * A loopback auth server against {@link RemoteAuthenticator}: every answer the
+ * server gives must reach the login screen as the result or exception it already
+ * handles, and only a server that cannot be connected to may send a login to the
+ * fallback.
+ */
+class AuthServerTest {
+
+    private static final Duration CLIENT_TIMEOUT = Duration.ofSeconds(5);
+    private static final List<RoleDefinition> ROLES = List.of(
+            new RoleDefinition("Student", "student-dashboard", Set.of("courses.view")),
+            new RoleDefinition("Teacher", "teacher-dashboard", Set.of("courses.view", "grades.edit")));
+
+    private final MapTokens tokens = new MapTokens();
+    private final HttpClient http = HttpClient.newHttpClient();
+    private AuthServer server;
+    private LoginService loginService;
+    private URI baseUri;
+
+    @AfterEach
+    void stopServer() {
+        if (server != null) {
+            server.stop();
+            loginService.shutdown();
+        }
+    }
+
+    @Test
+    void validCredentialsGiveTheSession() throws Exception {
+        start(PASSWORDS, 60_000);
+        UserSession session = client().authenticate("alice", "secret", "Teacher");
+        assertEquals("alice", session.username());
+        assertEquals("Teacher", session.role());
+        assertEquals(Set.of("grades.edit"), session.permissions());
+    }
+
+    @Test
+    void wrongCredentialsGiveNull() throws Exception {
+        start(PASSWORDS, 60_000);
+        assertNull(client().authenticate("alice", "wrong", "Teacher"));
+    }
+
+    @Test
+    void throttledLoginIsReportedWithItsRetryAfter() throws Exception {
+        start(PASSWORDS, 60_000);
+        RemoteAuthenticator client = client();
+        assertNull(client.authenticate("alice", "wrong1", "Teacher"));
+        assertNull(client.authenticate("alice", "wrong2", "Teacher"));
+        LoginThrottledException error = assertThrows(LoginThrottledException.class,
+                () -> client.authenticate("alice", "secret", "Teacher"));
+        assertTrue(error.getRetryAfterSeconds() > 0);
+    }
+
+    @Test
+    void databaseOutageOnTheServerIsAConnectionFailure() throws Exception {
+        start((username, password, role) -> {
+            throw new SQLTransientConnectionException("Connection refused", "08001");
+        }, 60_000);
+        assertThrows(SQLTransientConnectionException.class,
+                () -> client().authenticate("alice", "secret", "Teacher"));
+    }
+
+    @Test
+    void slowServerIsBusyAndNotAReasonToFallBack() throws Exception {
+        start((username, password, role) -> {
+            Thread.sleep(2_000);
+            return null;
+        }, 60_000);
+        AtomicInteger fallbacks = new AtomicInteger();
+        RemoteAuthenticator client = new RemoteAuthenticator(baseUri, Duration.ofMillis(300),
+                () -> {
+                    fallbacks.incrementAndGet();
+                    return PASSWORDS;
+                }, () -> tokens, 60_000);
+        assertThrows(RejectedExecutionException.class, () -> client.authenticate("alice", "secret", "Teacher"));
+        assertEquals(0, fallbacks.get());
+    }
+
+    @Test
+    void unreachableServerUsesTheFallback() throws Exception {
+        RemoteAuthenticator client = new RemoteAuthenticator(closedPort(), CLIENT_TIMEOUT,
+                () -> PASSWORDS, () -> tokens, 60_000);
+        UserSession session = client.authenticate("alice", "secret", "Teacher");
+        assertEquals("alice", session.username());
+        // The fallback login has no server session, so its token is issued directly
+        String rememberToken = client.issue(session);
+        assertEquals(session.username(), tokens.resume(rememberToken).username());
+    }
+
+    @Test
+    void unreachableServerWithoutFallbackIsAConnectionFailure() throws Exception {
+        RemoteAuthenticator client = new RemoteAuthenticator(closedPort(), CLIENT_TIMEOUT, null, null, 60_000);
+        assertThrows(SQLTransientConnectionException.class,
+                () -> client.authenticate("alice", "secret", "Teacher"));
+    }
+
+    @Test
+    void rememberedSessionResumesUntilRevoked() throws Exception {
+        start(PASSWORDS, 60_000);
+        RemoteAuthenticator client = client();
+        UserSession session = client.authenticate("alice", "secret", "Teacher");
+
+        String rememberToken = client.issue(session);
+        assertNotNull(rememberToken);
+        assertEquals("alice", client.resume(rememberToken).username());
+
+        client.revoke(rememberToken);
+        // The server revokes in the background after answering
+        long deadline = System.currentTimeMillis() + 2_000;
+        while (tokens.contains(rememberToken) && System.currentTimeMillis() < deadline) {
+            Thread.sleep(10);
+        }
+        assertNull(client.resume(rememberToken));
+    }
+
+    @Test
+    void nothingIsRememberedForAnExpiredServerSession() throws Exception {
+        start(PASSWORDS, 100);
+        RemoteAuthenticator client = client();
+        UserSession session = client.authenticate("alice", "secret", "Teacher");
+        Thread.sleep(300);
+        assertNull(client.issue(session));
+        // The stale token is dropped rather than tried again
+        assertNull(client.issue(session));
+    }
+
+    @Test
+    void loggedOutTokenIsNoLongerASession() throws Exception {
+        start(PASSWORDS, 60_000);
+        HttpResponse<String> login = post("/v1/login", "username=alice&password=secret&role=Teacher");
+        assertEquals(200, login.statusCode());
+        String token = FormCodec.decode(login.body()).get("token");
+
+        assertEquals(200, post("/v1/session", "token=" + token).statusCode());
+        assertEquals(204, post("/v1/logout", "token=" + token).statusCode());
+        assertEquals(401, post("/v1/session", "token=" + token).statusCode());
+    }
+
+    @Test
+    void badRequestsAreAnsweredWith400() throws Exception {
+        start(PASSWORDS, 60_000);
+        assertEquals(400, post("/v1/login", "username=alice&password=%zz&role=Teacher").statusCode());
+        assertEquals(400, post("/v1/login", "username=alice&password=&role=Teacher").statusCode());
+        assertEquals(400, post("/v1/login", "username=alice&password=secret&role=+").statusCode());
+        assertEquals(400, post("/v1/login", "password=secret&role=Teacher").statusCode());
+    }
+
+    @Test
+    void wrongMethodIsRejected() throws Exception {
+        start(PASSWORDS, 60_000);
+        HttpResponse<String> response = http.send(HttpRequest.newBuilder(baseUri.resolve("/v1/login")).GET().build(),
+                HttpResponse.BodyHandlers.ofString());
+        assertEquals(405, response.statusCode());
+    }
+
+    @Test
+    void clientsLoadTheRolesFromTheServer() throws Exception {
+        start(PASSWORDS, 60_000);
+        assertEquals(ROLES, new RemoteRoles(baseUri, CLIENT_TIMEOUT).load());
+    }
+
+    @Test
+    void rolesAreUnavailableUntilLoaded() throws Exception {
+        RoleRegistry unloaded = new RoleRegistry(() -> {
+            throw new SQLTransientConnectionException("Connection refused", "08001");
+        });
+        start(PASSWORDS, 60_000, unloaded);
+        assertThrows(SQLTransientConnectionException.class, () -> new RemoteRoles(baseUri, CLIENT_TIMEOUT).load());
+    }
+
+    // alice/secret may sign in as a Teacher
+    private static final LoginService.Authenticator PASSWORDS = (username, password, role) ->
+            "alice".equals(username) && "secret".equals(password) && "Teacher".equals(role)
+                    ? new UserSession(1, "alice", "Teacher", "Alice Abebe", null, Set.of("grades.edit"), null)
+                    : null;
+
+    private void start(LoginService.Authenticator authenticator, long sessionTtlMillis) throws Exception {
+        RoleRegistry roles = new RoleRegistry(() -> ROLES);
+        roles.refresh();
+        start(authenticator, sessionTtlMillis, roles);
+    }
+
+    private void start(LoginService.Authenticator authenticator, long sessionTtlMillis, RoleRegistry roles)
+            throws IOException {
+        DatabaseHealthMonitor health = new DatabaseHealthMonitor(timeout -> {
+        }, 1_000, 60_000, 1_000, 60_000);
+        // Two failures block the user for a minute; the client limit stays out of the way
+        LoginThrottle throttle = new LoginThrottle(60_000, 2, 1_000, 60_000, 60_000);
+        loginService = new LoginService(authenticator, tokens, health, throttle, 4, 16, 10_000);
+        server = new AuthServer(new InetSocketAddress(InetAddress.getLoopbackAddress(), 0), loginService,
+                health, roles, sessionTtlMillis, 100, 4);
+        server.start();
+        baseUri = URI.create("http://127.0.0.1:" + server.getAddress().getPort());
+    }
+
+    private RemoteAuthenticator client() {
+        return new RemoteAuthenticator(baseUri, CLIENT_TIMEOUT, null, null, 60_000);
+    }
+
+    private HttpResponse<String> post(String path, String body) throws Exception {
+        HttpRequest request = HttpRequest.newBuilder(baseUri.resolve(path))
+                .header("Content-Type", FormCodec.CONTENT_TYPE)
+                .POST(HttpRequest.BodyPublishers.ofString(body))
+                .build();
+        return http.send(request, HttpResponse.BodyHandlers.ofString());
+    }
+
+    private static URI closedPort() throws IOException {
+        try (ServerSocket socket = new ServerSocket(0, 1, InetAddress.getLoopbackAddress())) {
+            return URI.create("http://127.0.0.1:" + socket.getLocalPort());
+        }
+    }
+
+    /**
+     * Remember-me tokens kept in memory instead of the remember_tokens table.
+     */
+    private static final class MapTokens implements LoginService.RememberTokens {
+        private final Map<String, UserSession> sessions = new ConcurrentHashMap<>();
+
+        @Override
+        public String issue(UserSession session) {
+            String token = UUID.randomUUID().toString();
+            sessions.put(token, session);
+            return token;
+        }
+
+        @Override
+        public UserSession resume(String token) {
+            UserSession session = sessions.get(token);
+            return session == null ? null : new UserSession(session.userId(), session.username(), session.role(),
+                    session.fullName(), session.email(), session.permissions(), Instant.now());
+        }
+
+        @Override
+        public void revoke(String token) {
+            sessions.remove(token);
+        }
+
+        boolean contains(String token) {
+            return sessions.containsKey(token);
+        }
+    }
+}
@@ -0,0 +1,97 @@
+package dillauniversity.importer;
+
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.io.StringReader;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+/**
+ * RFC 4180 input as spreadsheets write it: quoting, both line endings, line breaks
+ * inside fields, and the line numbers reported for rejected rows.
+ */
+class CsvReaderTest {
+
+    @Test
+    void splitsPlainFields() throws IOException {
+        assertEquals(List.of(List.of("alice", "secret", "Student")), readAll("alice,secret,Student\n"));
+    }
+
+    @Test
+    void keepsEmptyFields() throws IOException {
+        assertEquals(List.of(List.of("a", "", ""), List.of("", "b")), readAll("a,,\n,b"));
+    }
+
+    @Test
+    void quotedFieldsMayContainCommasAndDoubledQuotes() throws IOException {
+        assertEquals(List.of(List.of("Doe, Jane", "say \"hi\"", "")),
+                readAll("\"Doe, Jane\",\"say \"\"hi\"\"\",\"\"\n"));
+    }
+
+    @Test
+    void acceptsCrlfAndLf() throws IOException {
+        assertEquals(List.of(List.of("a", "b"), List.of("c", "d"), List.of("e", "f")),
+                readAll("a,b\r\nc,d\ne,f\r\n"));
+    }
+
+    @Test
+    void quotedFieldsKeepTheirLineBreaks() throws IOException {
+        assertEquals(List.of(List.of("line 1\nline 2", "x"), List.of("a\r\nb", "y")),
+                readAll("\"line 1\nline 2\",x\r\n\"a\r\nb\",y\r\n"));
+    }
+
+    @Test
+    void skipsBlankLines() throws IOException {
+        assertEquals(List.of(List.of("a"), List.of("b")), readAll("\n\r\na\n\n\r\nb\n\n"));
+    }
+
+    @Test
+    void quotesOnlyCountAtTheStartOfAField() throws IOException {
+        assertEquals(List.of(List.of("5\" floppy", "x")), readAll("5\" floppy,x\n"));
+    }
+
+    @Test
+    void reportsTheLineEachRecordStartsOn() throws IOException {
+        CsvReader reader = new CsvReader(new StringReader("h1,h2\n\n\"multi\nline\",x\r\nlast,y\n"));
+        reader.next();
+        assertEquals(1, reader.recordLine());
+        reader.next();
+        assertEquals(3, reader.recordLine());
+        reader.next();
+        assertEquals(5, reader.recordLine());
+        assertNull(reader.next());
+    }
+
+    @Test
+    void unterminatedQuoteIsAnError() {
+        CsvReader reader = new CsvReader(new StringReader("ok,1\n\"never closed,2\n"));
+        IOException error = assertThrows(IOException.class, () -> {
+            reader.next();
+            reader.next();
+        });
+        assertEquals("Unterminated quoted field starting on line 2", error.getMessage());
+    }
+
+    @Test
+    void fieldsMaySpanTheReadBuffer() throws IOException {
+        // Longer than the 64 KiB buffer, with an escaped quote right at its edge
+        String head = "x".repeat(64 * 1024 - 2);
+        List<List<String>> records = readAll("\"" + head + "\"\"tail\",next\nsecond\n");
+        assertEquals(List.of(List.of(head + "\"tail", "next"), List.of("second")), records);
+    }
+
+    private static List<List<String>> readAll(String csv) throws IOException {
+        List<List<String>> records = new ArrayList<>();
+        try (CsvReader reader = new CsvReader(new StringReader(csv))) {
+            for (List<String> record = reader.next(); record != null; record = reader.next()) {
+                records.add(record);
+            }
+        }
+        return records;
+    }
+}
@@ -0,0 +1,202 @@
+package dillauniversity.importer;
+
+import dillauniversity.database.ConnectionPool;
+import dillauniversity.security.PasswordHasher;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Imports into an in-memory H2 database: validation, duplicates, the errors file
+ * and resuming from a checkpoint.
+ */
+class UserImporterTest {
+
+    private static final String HEADER = "username,password,role,full_name,email\n";
+
+    // Low cost keeps the suite fast
+    private final PasswordHasher hasher = new PasswordHasher(1_000);
+
+    @TempDir
+    Path dir;
+
+    private ConnectionPool pool;
+
+    @BeforeEach
+    void createDatabase() throws SQLException {
+        pool = new ConnectionPool("jdbc:h2:mem:" + UUID.randomUUID() + ";DB_CLOSE_DELAY=-1", "sa", "",
+                1, 2, 60_000L, 10_000L, 32);
+        try (Connection connection = pool.getConnection(); Statement statement = connection.createStatement()) {
+            statement.execute("CREATE TABLE users ("
+                    + "user_id BIGINT AUTO_INCREMENT PRIMARY KEY, "
+                    + "username VARCHAR(64) NOT NULL UNIQUE, "
+                    + "password VARCHAR(255) NOT NULL, "
+                    + "role VARCHAR(16) NOT NULL, "
+                    + "full_name VARCHAR(128), "
+                    + "email VARCHAR(128))");
+        }
+    }
+
+    @AfterEach
+    void dropDatabase() throws SQLException {
+        try (Connection connection = pool.getConnection(); Statement statement = connection.createStatement()) {
+            statement.execute("SHUTDOWN");
+        }
+        pool.close();
+    }
+
+    @Test
+    void importsValidRowsAndReportsTheRest() throws Exception {
+        Path csv = write("\uFEFF" + HEADER
+                + "alice, pass word ,student,Alice A,alice@dilla.edu.et\n"
+                + "bob,secret,Teacher,,\n"
+                + ",nopass,Student,,\n"
+                + "carol,   ,Student,,\n"
+                + "dave,secret,Janitor,,\n"
+                + "ALICE,again,Student,,\n");
+
+        ImportReport report = importer(10).importFile(csv, null);
+
+        assertEquals(6, report.rowsRead());
+        assertEquals(2, report.imported());
+        assertEquals(4, report.failed());
+        assertTrue(report.completed());
+        assertEquals(Map.of("alice", "Student", "bob", "Teacher"), users());
+        // Spaces around a password are part of it
+        assertTrue(hasher.verify(" pass word ", passwordOf("alice")));
+
+        List<String> errors = Files.readAllLines(errorsFile(csv));
+        assertEquals("line,username,error", errors.get(0));
+        assertEquals(List.of(
+                "4,\"\",\"Missing username\"",
+                "5,\"carol\",\"Missing password\"",
+                "6,\"dave\",\"Unknown role: Janitor\"",
+                "7,\"ALICE\",\"Duplicate username in this chunk\""), errors.subList(1, errors.size()));
+        assertFalse(Files.exists(ImportCheckpoint.fileFor(csv)));
+    }
+
+    @Test
+    void existingUsernamesAreSkippedNotFailed() throws Exception {
+        importer(10).importFile(write(HEADER + "alice,secret,Student,,\n"), null);
+
+        ImportReport report = importer(10).importFile(write(HEADER
+                + "alice,other,Student,,\n"
+                + "bob,secret,Student,,\n"), null);
+
+        assertEquals(1, report.imported());
+        assertEquals(1, report.skipped());
+        assertEquals(0, report.failed());
+        assertTrue(hasher.verify("secret", passwordOf("alice")));
+    }
+
+    @Test
+    void quotedMultilineFieldsKeepTheirRowNumbers() throws Exception {
+        Path csv = write(HEADER
+                + "alice,secret,Student,\"Alice\r\nSecond line\",\r\n"
+                + "bob,secret,Nobody,,\r\n");
+
+        ImportReport report = importer(10).importFile(csv, null);
+
+        assertEquals(1, report.imported());
+        assertEquals(4, report.errors().get(0).line());
+    }
+
+    @Test
+    void resumesAfterTheLastCommittedChunk() throws Exception {
+        StringBuilder rows = new StringBuilder(HEADER);
+        for (int i = 1; i <= 5; i++) {
+            rows.append("user").append(i).append(",secret,Student,,\n");
+        }
+        Path csv = write(rows.toString());
+        // As if a run had committed the first chunk of two rows and then stopped
+        new ImportCheckpoint(2, 2, 0, 0).save(csv);
+        Files.writeString(errorsFile(csv), "line,username,error\n");
+
+        ImportReport report = importer(2).importFile(csv, null);
+
+        assertEquals(2, report.resumedAt());
+        assertEquals(5, report.rowsRead());
+        assertEquals(5, report.imported());
+        assertEquals(List.of("user3", "user4", "user5"), new ArrayList<>(users().keySet()));
+        assertFalse(Files.exists(ImportCheckpoint.fileFor(csv)));
+    }
+
+    @Test
+    void checkpointOfAChangedFileIsIgnored() throws Exception {
+        Path csv = write(HEADER + "user1,secret,Student,,\nuser2,secret,Student,,\n");
+        new ImportCheckpoint(1, 1, 0, 0).save(csv);
+        Files.writeString(csv, HEADER + "user1,secret,Student,,\nuser2,secret,Student,,\nuser3,secret,Student,,\n");
+
+        ImportReport report = importer(10).importFile(csv, null);
+
+        assertEquals(0, report.resumedAt());
+        assertEquals(3, report.imported());
+    }
+
+    @Test
+    void resumedRunStartsANewErrorsFileWithItsHeader() throws Exception {
+        Path csv = write(HEADER + "user1,secret,Student,,\nuser2,secret,Nobody,,\n");
+        new ImportCheckpoint(1, 1, 0, 0).save(csv);
+
+        importer(1).importFile(csv, null);
+
+        assertEquals(List.of("line,username,error", "3,\"user2\",\"Unknown role: Nobody\""),
+                Files.readAllLines(errorsFile(csv)));
+    }
+
+    private UserImporter importer(int chunkSize) {
+        return new UserImporter(pool, hasher, List.of("Student", "Teacher", "Dean", "Admin"), chunkSize, 2);
+    }
+
+    private Path write(String content) throws IOException {
+        Path csv = Files.createTempFile(dir, "users", ".csv");
+        Files.writeString(csv, content, StandardCharsets.UTF_8);
+        return csv;
+    }
+
+    private static Path errorsFile(Path csv) {
+        return csv.resolveSibling(csv.getFileName() + ".errors.csv");
+    }
+
+    private Map<String, String> users() throws SQLException {
+        Map<String, String> users = new TreeMap<>();
+        try (Connection connection = pool.getConnection(); Statement statement = connection.createStatement();
+             ResultSet rs = statement.executeQuery("SELECT username, role FROM users")) {
+            while (rs.next()) {
+                users.put(rs.getString(1), rs.getString(2));
+            }
+        }
+        return users;
+    }
+
+    private String passwordOf(String username) throws SQLException {
+        try (Connection connection = pool.getConnection();
+             PreparedStatement statement = connection.prepareStatement(
+                     "SELECT password FROM users WHERE username = ?")) {
+            statement.setString(1, username);
+            try (ResultSet rs = statement.executeQuery()) {
+                return rs.next() ? rs.getString(1) : null;
+            }
+        }
+    }
+}
@@ -0,0 +1,124 @@
+package dillauniversity.security;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.Locale;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Every stored format the login path can meet: what it is classified as, which
+ * passwords it accepts and whether it is upgraded after a successful login.
+ */
+class PasswordHasherTest {
+
+    private static final String SHA256_PASSWORD = "5e884898da28047151d0e56f8dc6292773603d0d6aabbdd62a11ef721d1542d8";
+    private static final String SHA1_PASSWORD = "5baa61e4c9b93f3f0682250b6cf8331b7ee68fd8";
+    private static final String MD5_PASSWORD = "5f4dcc3b5aa765d61d8327deb882cf99";
+    private static final String BCRYPT_2A = "$2a$10$N9qo8uLOickgx2ZMRZoMyeIjZAgcfl7p92ldGxad68LJZdL17lhWy";
+    private static final String BCRYPT_2B = "$2b$12$R9h/cIPz0gi.URNNX3kh2OPST9/PgBkqquzi.Ss7KIUgO2t0jWMUW";
+
+    // Low cost keeps the suite fast; the format does not depend on it
+    private final PasswordHasher hasher = new PasswordHasher(1_000);
+
+    @Test
+    void pbkdf2VerifiesOnlyTheRightPassword() {
+        String stored = hasher.hash("password");
+        assertEquals(PasswordHasher.Format.PBKDF2, PasswordHasher.formatOf(stored));
+        assertTrue(hasher.verify("password", stored));
+        assertFalse(hasher.verify("Password", stored));
+        assertFalse(hasher.verify(stored, stored));
+    }
+
+    @Test
+    void pbkdf2IsRehashedOnlyBelowTheCurrentCost() {
+        String stored = hasher.hash("password");
+        assertFalse(hasher.needsRehash(stored));
+        assertTrue(new PasswordHasher(2_000).needsRehash(stored));
+        assertFalse(new PasswordHasher(500).needsRehash(stored));
+    }
+
+    @Test
+    void malformedPbkdf2NeverMatches() {
+        String stored = "$" + PasswordHasher.SCHEME + "$v=1$i=1000$not base64$";
+        assertEquals(PasswordHasher.Format.PBKDF2, PasswordHasher.formatOf(stored));
+        assertFalse(hasher.verify("password", stored));
+        assertFalse(hasher.verify(stored, stored));
+        assertTrue(hasher.needsRehash(stored));
+    }
+
+    @Test
+    void sha256HexComparesTheDigestNotTheText() {
+        assertDigestFormat(PasswordHasher.Format.SHA256_HEX, SHA256_PASSWORD);
+    }
+
+    @Test
+    void sha1HexComparesTheDigestNotTheText() {
+        assertDigestFormat(PasswordHasher.Format.SHA1_HEX, SHA1_PASSWORD);
+    }
+
+    @Test
+    void md5HexComparesTheDigestNotTheText() {
+        assertDigestFormat(PasswordHasher.Format.MD5_HEX, MD5_PASSWORD);
+    }
+
+    @Test
+    void plaintextVerifiesAndIsRehashed() {
+        assertEquals(PasswordHasher.Format.PLAINTEXT, PasswordHasher.formatOf("secret42"));
+        assertTrue(hasher.verify("secret42", "secret42"));
+        assertFalse(hasher.verify("secret4", "secret42"));
+        assertTrue(hasher.needsRehash("secret42"));
+    }
+
+    @Test
+    void hexOfAnotherLengthIsPlaintext() {
+        assertEquals(PasswordHasher.Format.PLAINTEXT, PasswordHasher.formatOf("deadbeef"));
+        assertTrue(hasher.verify("deadbeef", "deadbeef"));
+    }
+
+    @Test
+    void bcryptIsRecognisedAndFailsClosed() {
+        for (String stored : new String[] {BCRYPT_2A, BCRYPT_2B}) {
+            assertEquals(PasswordHasher.Format.UNSUPPORTED, PasswordHasher.formatOf(stored));
+            assertFalse(hasher.verify("password", stored));
+            assertFalse(hasher.verify(stored, stored));
+            assertTrue(hasher.needsRehash(stored));
+        }
+    }
+
+    @Test
+    void unknownSchemesFailClosed() {
+        String stored = "$argon2id$v=19$m=65536,t=3,p=4$c2FsdA$aGFzaA";
+        assertEquals(PasswordHasher.Format.UNSUPPORTED, PasswordHasher.formatOf(stored));
+        assertFalse(hasher.verify(stored, stored));
+        assertFalse(hasher.verify("password", "$"));
+    }
+
+    @Test
+    void nullsNeverMatch() {
+        assertFalse(hasher.verify(null, hasher.hash("password")));
+        assertFalse(hasher.verify("password", null));
+        assertTrue(hasher.needsRehash(null));
+    }
+
+    @Test
+    void missingStoredValueIsUnsupported() {
+        assertEquals(PasswordHasher.Format.UNSUPPORTED, PasswordHasher.formatOf(null));
+        assertEquals(PasswordHasher.Format.UNSUPPORTED, PasswordHasher.formatOf(""));
+        assertFalse(hasher.verify("", ""));
+        assertFalse(hasher.verify("password", ""));
+        assertTrue(hasher.needsRehash(""));
+    }
+
+    private void assertDigestFormat(PasswordHasher.Format format, String digest) {
+        for (String stored : new String[] {digest, digest.toUpperCase(Locale.ROOT)}) {
+            assertEquals(format, PasswordHasher.formatOf(stored));
+            assertTrue(hasher.verify("password", stored));
+            assertFalse(hasher.verify("wrong", stored));
+            assertFalse(hasher.verify(stored, stored), "the digest itself must not be accepted as the password");
+            assertTrue(hasher.needsRehash(stored));
+        }
+    }
+}
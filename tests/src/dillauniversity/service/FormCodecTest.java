@@ -0,0 +1,73 @@
+package dillauniversity.service;
+
+import dillauniversity.model.UserSession;
+import org.junit.jupiter.api.Test;
+
+import java.time.Instant;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * The form bodies exchanged with the auth server and the session they carry.
+ */
+class FormCodecTest {
+
+    @Test
+    void roundTripsReservedCharacters() {
+        Map<String, String> fields = new LinkedHashMap<>();
+        fields.put("username", "abebe kebede");
+        fields.put("password", "p&ss=w%rd+ \u00e9");
+        fields.put("role", "");
+        assertEquals(fields, FormCodec.decode(FormCodec.encode(fields)));
+    }
+
+    @Test
+    void skipsNullValues() {
+        Map<String, String> fields = new LinkedHashMap<>();
+        fields.put("username", "alice");
+        fields.put("email", null);
+        assertEquals("username=alice", FormCodec.encode(fields));
+    }
+
+    @Test
+    void emptyBodyHasNoFields() {
+        assertTrue(FormCodec.decode("").isEmpty());
+        assertTrue(FormCodec.decode(null).isEmpty());
+    }
+
+    @Test
+    void keyWithoutValueDecodesToEmpty() {
+        assertEquals(Map.of("token", ""), FormCodec.decode("token"));
+    }
+
+    @Test
+    void malformedPercentEncodingIsRejected() {
+        assertThrows(IllegalArgumentException.class, () -> FormCodec.decode("token=%zz"));
+    }
+
+    @Test
+    void roundTripsASession() {
+        UserSession session = new UserSession(42, "alice", "Teacher", "Alice Abebe", null,
+                Set.of("grades.edit", "courses.view"), Instant.ofEpochMilli(1_700_000_000_123L));
+        UserSession decoded = FormCodec.toSession(FormCodec.decode(FormCodec.encode(FormCodec.fromSession(session))));
+        assertEquals(session, decoded);
+    }
+
+    @Test
+    void sessionWithoutPermissionsHasNone() {
+        UserSession session = FormCodec.toSession(Map.of("username", "bob", "role", "Student", "permissions", ""));
+        assertEquals(Set.of(), session.permissions());
+        assertEquals(0, session.userId());
+    }
+
+    @Test
+    void sessionNeedsUsernameAndRole() {
+        assertThrows(IllegalArgumentException.class, () -> FormCodec.toSession(Map.of("username", "alice")));
+        assertThrows(IllegalArgumentException.class, () -> FormCodec.toSession(Map.of("role", "Student")));
+    }
+}
@@ -0,0 +1,106 @@
+package dillauniversity.service;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+/**
+ * The lock-free window behind the login throttle: what falls in and out of the
+ * window, how reused buckets reset, and that concurrent increments are not lost.
+ * Times are explicit, so nothing here depends on the clock.
+ */
+class SlidingWindowCounterTest {
+
+    // Ten buckets of 100 ms
+    private final SlidingWindowCounter counter = new SlidingWindowCounter(1_000, 10);
+
+    @Test
+    void countsEventsInsideTheWindow() {
+        assertEquals(1, counter.increment(10_000));
+        assertEquals(2, counter.increment(10_050));
+        assertEquals(3, counter.increment(10_420));
+        assertEquals(3, counter.count(10_999));
+    }
+
+    @Test
+    void bucketsLeaveTheWindowOneAtATime() {
+        counter.increment(10_000);
+        counter.increment(10_500);
+        assertEquals(2, counter.count(10_999));
+        assertEquals(1, counter.count(11_000));
+        assertEquals(1, counter.count(11_499));
+        assertEquals(0, counter.count(11_500));
+    }
+
+    @Test
+    void reusedBucketStartsFromZero() {
+        counter.increment(10_000);
+        counter.increment(10_010);
+        // Same bucket index one full window later
+        assertEquals(1, counter.increment(11_000));
+    }
+
+    @Test
+    void eventsFromTheFutureAreNotCounted() {
+        counter.increment(20_000);
+        assertEquals(0, counter.count(10_000));
+    }
+
+    @Test
+    void reportsWhenTheOldestBucketExpires() {
+        assertEquals(0, counter.millisUntilOldestExpires(10_000));
+        counter.increment(10_050);
+        assertEquals(950, counter.millisUntilOldestExpires(10_050));
+        counter.increment(10_700);
+        assertEquals(300, counter.millisUntilOldestExpires(10_700));
+        assertEquals(600, counter.millisUntilOldestExpires(11_100));
+    }
+
+    @Test
+    void resetEmptiesEveryBucket() {
+        counter.increment(10_000);
+        counter.increment(10_300);
+        counter.reset();
+        assertEquals(0, counter.count(10_300));
+    }
+
+    @Test
+    void concurrentIncrementsAreNotLost() throws InterruptedException {
+        int threads = 8;
+        int perThread = 20_000;
+        CountDownLatch start = new CountDownLatch(1);
+        List<Thread> workers = new ArrayList<>();
+        for (int t = 0; t < threads; t++) {
+            Thread worker = new Thread(() -> {
+                try {
+                    start.await();
+                } catch (InterruptedException e) {
+                    return;
+                }
+                for (int i = 0; i < perThread; i++) {
+                    // Spread over three buckets so neighbouring slots race too
+                    counter.increment(10_000 + (i % 3) * 100);
+                }
+            });
+            worker.start();
+            workers.add(worker);
+        }
+        start.countDown();
+        for (Thread worker : workers) {
+            worker.join();
+        }
+        assertEquals(threads * perThread, counter.count(10_200));
+    }
+
+    @Test
+    void rejectsBucketsShorterThanTheMinimum() {
+        assertThrows(IllegalArgumentException.class,
+                () -> new SlidingWindowCounter(SlidingWindowCounter.MIN_SLOT_MILLIS * 10 - 1, 10));
+        assertThrows(IllegalArgumentException.class, () -> new SlidingWindowCounter(1_000, 0));
+    }
+}